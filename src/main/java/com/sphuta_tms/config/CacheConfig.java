@@ -0,0 +1,49 @@
+package com.sphuta_tms.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sphuta_tms.constants.AppConstants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cache configuration for per-user settings reads.
+ *
+ * <p>One Caffeine cache per settings table plus one for the composed effective settings,
+ * bounded by size and TTL, with statistics recording enabled. The manager is wrapped in a
+ * {@link TransactionAwareCacheManagerProxy}, so evictions issued by PUT/PATCH/DELETE are applied
+ * after the transaction commits and a concurrent read cannot re-cache the old row.</p>
+ *
+ * <p>The caches are local to each instance and evictions are not shared: after a write,
+ * other instances keep serving the previous row (and its ETag, so If-None-Match may answer
+ * 304) until their entry expires. {@code expire-after-write} is therefore kept to seconds and
+ * is the staleness bound across instances; writes are unaffected, since If-Match is checked
+ * against the database.</p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${sphuta.cache.settings.maximum-size:10000}") long maximumSize,
+            @Value("${sphuta.cache.settings.expire-after-write:5s}") Duration expireAfterWrite) {
+        CaffeineCacheManager manager = new CaffeineCacheManager(
+                AppConstants.CACHE_INVOICING_SETTINGS,
+                AppConstants.CACHE_PREFERENCES,
+                AppConstants.CACHE_PROFILE,
+                AppConstants.CACHE_EFFECTIVE_SETTINGS);
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        // Evictions issued inside a transaction are deferred until it commits
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+}
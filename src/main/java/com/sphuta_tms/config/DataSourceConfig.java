@@ -0,0 +1,124 @@
+package com.sphuta_tms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection setup for the two database access stacks.
+ *
+ * <p>JPA keeps using the Hikari JDBC pool for every write and for the MVC endpoints.
+ * The reactive read path ({@code /api/v1/reactive/**}) uses the R2DBC pool configured
+ * under {@code spring.r2dbc}.</p>
+ *
+ * <p>Spring Boot's JDBC auto-configuration backs off as soon as an R2DBC
+ * {@link ConnectionFactory} exists, so the JDBC pool is declared here with the same
+ * {@code spring.datasource} and {@code spring.datasource.hikari} properties it used before.</p>
+ *
+ * <p>When {@code sphuta.datasource.replicas.urls} lists read replicas, JPA connections go through
+ * a {@link ReplicaRoutingDataSource}: read-only transactions are served by a replica that is not
+ * lagging, everything else by the primary. Replica pools copy the primary's Hikari settings.
+ * Transactions that may read from a replica do not fill the second-level cache
+ * ({@link ReplicaAwareJpaDialect}). The reactive read path always uses the primary.</p>
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    /**
+     * Hikari pool of the primary database.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Routes read-only transactions to the replicas; only created when replicas are configured.
+     */
+    @Bean
+    @ConditionalOnExpression(ReplicaRoutingDataSource.ENABLED)
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${sphuta.datasource.replicas.urls}") List<String> urls,
+            @Value("${sphuta.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${sphuta.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${sphuta.datasource.replicas.max-lag:5s}") Duration maxLag,
+            @Value("${sphuta.datasource.replicas.lag-check-interval:1s}") Duration lagCheckInterval,
+            @Value("${sphuta.datasource.replicas.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+            @Value("${sphuta.datasource.replicas.lag-column:Seconds_Behind_Source}") String lagColumn) {
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            // Started lazily: an unreachable replica fails its lag check instead of the startup
+            HikariDataSource replica = new HikariDataSource();
+            primaryDataSource.copyStateTo(replica);
+            replica.setJdbcUrl(url);
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setPoolName("replica-" + replicas.size());
+            replicas.add(replica);
+        }
+        ReplicaRoutingDataSource routing =
+                new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, lagQuery, lagColumn);
+        routing.startLagChecks(lagCheckInterval);
+        return routing;
+    }
+
+    /**
+     * Gives the entity manager factory the {@link ReplicaAwareJpaDialect}; only registered when
+     * replicas are configured. Applied before the factory is built, which is when the dialect is read.
+     */
+    @Bean
+    @ConditionalOnExpression(ReplicaRoutingDataSource.ENABLED)
+    public static BeanPostProcessor replicaAwareJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new ReplicaAwareJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Data source used by JPA: the primary pool, or the replica router when replicas are configured.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+        ReplicaRoutingDataSource routing = replicaRouting.getIfAvailable();
+        // The router needs the transaction's read-only flag, which is bound after the connection is requested
+        return routing != null ? new LazyConnectionDataSourceProxy(routing) : primaryDataSource;
+    }
+
+    /**
+     * Non-blocking SQL client over the R2DBC pool.
+     */
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
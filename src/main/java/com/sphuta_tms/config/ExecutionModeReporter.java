@@ -0,0 +1,41 @@
+package com.sphuta_tms.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs at startup whether requests are served on virtual or platform threads.
+ *
+ * <p>Spring Boot silently ignores {@code spring.threads.virtual.enabled} before Java 21,
+ * so a profile switch on a Java 17 build would otherwise go unnoticed.</p>
+ */
+@Slf4j
+@Component
+public class ExecutionModeReporter {
+
+    private static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        int javaVersion = Runtime.version().feature();
+        if (!virtualThreadsRequested) {
+            log.info("Serving requests on platform threads (Java {}, connection pool size {})",
+                    javaVersion, maximumPoolSize);
+        } else if (javaVersion < VIRTUAL_THREADS_JAVA_VERSION) {
+            log.warn("Virtual threads requested but running on Java {}; serving requests on platform threads. "
+                    + "Build with -Pjava21 and run on Java {}+", javaVersion, VIRTUAL_THREADS_JAVA_VERSION);
+        } else {
+            log.info("Serving requests on virtual threads (Java {}, connection pool size {})",
+                    javaVersion, maximumPoolSize);
+        }
+    }
+}
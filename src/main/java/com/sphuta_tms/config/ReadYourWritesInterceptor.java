@@ -0,0 +1,123 @@
+package com.sphuta_tms.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes window for replica routing, kept by the client so every instance honours it.
+ *
+ * <p>Every write request sets the {@value #COOKIE} cookie to the time (epoch milliseconds) until
+ * which the client's reads must come from the primary. Requests carrying a cookie that has not
+ * expired are pinned to the primary ({@link ReplicaRoutingDataSource#pinToPrimary()}), whichever
+ * instance serves them; write requests themselves are always pinned. The window belongs to the
+ * client rather than to a user, so bulk upserts and imports open one too. The cookie is set before
+ * the handler runs, because the response may be committed by the time the outcome is known; a
+ * failed write only costs a few extra primary reads.</p>
+ *
+ * <p>The window must outlast the time a replica that still serves reads can be behind: the lag
+ * limit plus one lag-check interval (the lag is sampled), plus the write-behind flush interval
+ * when that is enabled. Shorter windows are rejected at startup. Clients that keep no cookies get
+ * no window; cached per-user reads come from the primary regardless.</p>
+ */
+@Component
+@ConditionalOnExpression(ReplicaRoutingDataSource.ENABLED)
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    /** Cookie holding the end of the client's read-your-writes window. */
+    public static final String COOKIE = "SPHUTA_PRIMARY_UNTIL";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesInterceptor(
+            @Value("${sphuta.datasource.replicas.read-your-writes-window:10s}") Duration window,
+            @Value("${sphuta.datasource.replicas.max-lag:5s}") Duration maxLag,
+            @Value("${sphuta.datasource.replicas.lag-check-interval:1s}") Duration lagCheckInterval,
+            @Value("${sphuta.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${sphuta.write-behind.flush-interval:2s}") Duration flushInterval) {
+        this(window, minimumWindow(maxLag, lagCheckInterval, writeBehind ? flushInterval : Duration.ZERO),
+                Clock.systemUTC());
+    }
+
+    ReadYourWritesInterceptor(Duration window, Duration minimum, Clock clock) {
+        if (window.compareTo(minimum) <= 0) {
+            throw new IllegalArgumentException("sphuta.datasource.replicas.read-your-writes-window (" + window
+                    + ") must be longer than max-lag + lag-check-interval (+ write-behind flush-interval) = "
+                    + minimum);
+        }
+        this.window = window;
+        this.clock = clock;
+    }
+
+    private static Duration minimumWindow(Duration maxLag, Duration lagCheckInterval, Duration flushInterval) {
+        return maxLag.plus(lagCheckInterval).plus(flushInterval);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            ReplicaRoutingDataSource.pinToPrimary();
+            openWindow(response);
+        } else if (insideWindow(request)) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        // The servlet thread goes back to the pool; async work runs elsewhere, unpinned
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    private void openWindow(HttpServletResponse response) {
+        Cookie cookie = new Cookie(COOKIE, Long.toString(clock.millis() + window.toMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) ((window.toMillis() + 999) / 1000));
+        response.addCookie(cookie);
+    }
+
+    /** Whether the request carries a window that has not expired yet. */
+    boolean insideWindow(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return clock.millis() < Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.sphuta_tms.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps replica reads out of the Hibernate second-level cache.
+ *
+ * <p>A read-only transaction on a thread that is not pinned to the primary may be served by a
+ * replica ({@link ReplicaRoutingDataSource}) that is behind the primary. Its session runs with
+ * {@link CacheMode#GET}: it still reads cached entries but never puts what it loaded, so a stale
+ * row cannot be cached and served after the replica has caught up. The previous cache mode is
+ * restored when the transaction ends, since with open-in-view the session outlives it.</p>
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReplicaRoutingDataSource.isPinnedToPrimary()) {
+            return transactionData;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaReadData(transactionData, session, previous);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaReadData replicaRead) {
+            replicaRead.session().setCacheMode(replicaRead.previousCacheMode());
+            super.cleanupTransaction(replicaRead.delegate());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    /** Transaction data of a possible replica read: Hibernate's own data plus the mode to restore. */
+    private record ReplicaReadData(Object delegate, Session session, CacheMode previousCacheMode) {
+    }
+}
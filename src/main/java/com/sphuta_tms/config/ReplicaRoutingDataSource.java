@@ -0,0 +1,222 @@
+package com.sphuta_tms.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ *
+ * <p>A connection goes to a replica when it is obtained inside a
+ * {@code @Transactional(readOnly = true)} transaction, the thread is not pinned to the primary
+ * ({@link #pinToPrimary()}) and a replica's last measured lag is at most {@code maxLag}.
+ * Replicas are used round-robin; when none qualifies the primary serves the read. Lag is measured
+ * every check interval with {@code lagQuery} ({@code SHOW REPLICA STATUS} on MySQL); a replica
+ * that cannot be reached, reports no row or a null lag counts as unavailable, and replicas are
+ * unavailable until their first check.</p>
+ *
+ * <p>Transaction managers obtain the connection before the read-only flag is bound to the
+ * thread, so this data source must sit behind a {@link LazyConnectionDataSourceProxy}, which
+ * obtains it at the first statement.</p>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, AutoCloseable {
+
+    /** Condition for the routing beans: at least one replica URL is configured. */
+    public static final String ENABLED = "!'${sphuta.datasource.replicas.urls:}'.isBlank()";
+
+    private static final String PRIMARY = "primary";
+
+    /** Lag recorded for a replica that is unreachable or not replicating. */
+    private static final long UNAVAILABLE = Long.MAX_VALUE;
+
+    /** Set while the current thread must read from the primary. */
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final List<DataSource> replicas;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final AtomicLongArray lagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService timer;
+
+    /**
+     * @param primary   data source for writes, and for reads no replica can serve
+     * @param replicas  read replicas of the primary
+     * @param maxLag    largest lag at which a replica still serves reads
+     * @param lagQuery  query run on a replica to measure its lag
+     * @param lagColumn column of the query's first row holding the lag in seconds
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration maxLag,
+                                    String lagQuery, String lagColumn) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            lagMillis.set(i, UNAVAILABLE);
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    // -------------------- ROUTING --------------------
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PINNED.get() != null) {
+            return PRIMARY;
+        }
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            int replica = (start + i) % count;
+            if (lagMillis.get(replica) <= maxLagMillis) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Route every connection obtained on this thread to the primary until {@link #unpin()},
+     * e.g. for a user who has just written.
+     */
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    /** Undo {@link #pinToPrimary()}. */
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    /** Whether the current thread is pinned to the primary. */
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    // -------------------- LAG --------------------
+
+    /**
+     * Measure every replica's lag now, then again every {@code interval} on a daemon thread.
+     */
+    public synchronized void startLagChecks(Duration interval) {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::checkLag, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Measure every replica's lag once.
+     */
+    public void checkLag() {
+        for (int i = 0; i < replicas.size(); i++) {
+            long lag = measureLag(i);
+            long previous = lagMillis.getAndSet(i, lag);
+            if ((previous <= maxLagMillis) != (lag <= maxLagMillis)) {
+                if (lag <= maxLagMillis) {
+                    log.info("Replica {} serves reads again (lag {} ms)", i, lag);
+                } else {
+                    log.warn("Replica {} stopped serving reads: {}", i,
+                            lag == UNAVAILABLE ? "unavailable" : "lag " + lag + " ms");
+                }
+            }
+        }
+    }
+
+    private long measureLag(int replica) {
+        try (Connection connection = replicas.get(replica).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(lagQuery)) {
+            if (!rows.next()) {
+                return UNAVAILABLE;
+            }
+            long seconds = rows.getLong(lagColumn);
+            return rows.wasNull() ? UNAVAILABLE : TimeUnit.SECONDS.toMillis(seconds);
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("Lag check of replica {} failed", replica, ex);
+            return UNAVAILABLE;
+        }
+    }
+
+    /** Last measured lag of a replica in milliseconds, or -1 when it is unavailable. */
+    public long lagMillis(int replica) {
+        long lag = lagMillis.get(replica);
+        return lag == UNAVAILABLE ? -1 : lag;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = i;
+            Gauge.builder("sphuta.datasource.replica.lag", this,
+                            routing -> {
+                                long lag = routing.lagMillis(replica);
+                                return lag < 0 ? -1 : lag / 1000.0;
+                            })
+                    .description("Replication lag in seconds (-1 when the replica is unavailable)")
+                    .baseUnit("seconds")
+                    .tag("replica", String.valueOf(replica))
+                    .register(registry);
+        }
+    }
+
+    // -------------------- SHUTDOWN --------------------
+
+    /**
+     * Stop lag checks and close the replica pools; the primary is owned by its own bean.
+     */
+    @Override
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Failed to close replica pool", ex);
+                }
+            }
+        }
+    }
+}
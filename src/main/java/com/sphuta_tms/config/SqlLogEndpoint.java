@@ -0,0 +1,51 @@
+package com.sphuta_tms.config;
+
+import com.sphuta_tms.dto.SqlLogSettingsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Actuator endpoint ({@code sqllog}) to read and change the per-request SQL
+ * logging rules at runtime. Exposed over JMX only: a write can enable bind-parameter logging
+ * for every request, so it must not be reachable on the application port.
+ *
+ * <p>Write example: {@code {"users": "1001,1002", "endpoints": "/api/v1/settings/invoicing", "sampleRate": 0.01}}.
+ * Omitted fields keep their current value; an empty string clears a list.</p>
+ */
+@Component
+@Endpoint(id = "sqllog")
+@RequiredArgsConstructor
+public class SqlLogEndpoint {
+
+    private final SqlLogSamplingFilter filter;
+
+    @ReadOperation
+    public SqlLogSettingsDTO settings() {
+        return filter.getSettings();
+    }
+
+    @WriteOperation
+    public SqlLogSettingsDTO update(@Nullable String users, @Nullable String endpoints, @Nullable Double sampleRate) {
+        SqlLogSettingsDTO current = filter.getSettings();
+        SqlLogSettingsDTO updated = new SqlLogSettingsDTO(
+                users == null ? current.users() : Set.copyOf(Arrays.asList(StringUtils.tokenizeToStringArray(users, ","))),
+                endpoints == null ? current.endpoints() : List.of(StringUtils.tokenizeToStringArray(endpoints, ",")),
+                sampleRate == null ? current.sampleRate() : sampleRate);
+        try {
+            filter.update(updated);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidEndpointRequestException(ex.getMessage(), ex.getMessage());
+        }
+        return filter.getSettings();
+    }
+}
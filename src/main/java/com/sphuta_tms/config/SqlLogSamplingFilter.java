@@ -0,0 +1,106 @@
+package com.sphuta_tms.config;
+
+import com.sphuta_tms.dto.SqlLogSettingsDTO;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Marks requests whose SQL statements and bind parameters should be logged.
+ *
+ * <p>A marked request carries {@link #MDC_KEY} in the MDC; {@link SqlLogTurboFilter} drops
+ * Hibernate SQL/bind events of every other request. The rules can be changed at runtime
+ * through the {@code sqllog} actuator endpoint.</p>
+ */
+@Slf4j
+@Component
+public class SqlLogSamplingFilter extends OncePerRequestFilter {
+
+    /** MDC key set while a sampled request is being processed. */
+    public static final String MDC_KEY = "sqlLog";
+
+    /** Header naming the acting user when the user ID is not part of the path. */
+    public static final String USER_HEADER = "X-User-Id";
+
+    private volatile SqlLogSettingsDTO settings;
+
+    public SqlLogSamplingFilter(
+            @Value("${sphuta.logging.sql.users:}") Set<String> users,
+            @Value("${sphuta.logging.sql.endpoints:}") List<String> endpoints,
+            @Value("${sphuta.logging.sql.sample-rate:0.0}") double sampleRate) {
+        update(new SqlLogSettingsDTO(users, endpoints, sampleRate));
+    }
+
+    /**
+     * @return the rules currently applied
+     */
+    public SqlLogSettingsDTO getSettings() {
+        return settings;
+    }
+
+    /**
+     * Replace the rules; takes effect for the next request.
+     *
+     * @param settings new rules
+     * @throws IllegalArgumentException if the sample rate is outside 0..1
+     */
+    public void update(SqlLogSettingsDTO settings) {
+        if (settings.sampleRate() < 0.0 || settings.sampleRate() > 1.0) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+        }
+        this.settings = new SqlLogSettingsDTO(
+                Set.copyOf(settings.users()), List.copyOf(settings.endpoints()), settings.sampleRate());
+        log.info("SQL logging rules set to {}", this.settings);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!isSampled(request, settings)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        MDC.put(MDC_KEY, "on");
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private static boolean isSampled(HttpServletRequest request, SqlLogSettingsDTO rules) {
+        if (rules.isDisabled()) {
+            return false;
+        }
+        String uri = request.getRequestURI();
+        for (String endpoint : rules.endpoints()) {
+            if (uri.startsWith(endpoint)) {
+                return true;
+            }
+        }
+        if (!rules.users().isEmpty()) {
+            String header = request.getHeader(USER_HEADER);
+            if (header != null && rules.users().contains(header)) {
+                return true;
+            }
+            for (String segment : StringUtils.tokenizeToStringArray(uri, "/")) {
+                if (rules.users().contains(segment)) {
+                    return true;
+                }
+            }
+        }
+        return rules.sampleRate() > 0.0 && ThreadLocalRandom.current().nextDouble() < rules.sampleRate();
+    }
+}
@@ -0,0 +1,35 @@
+package com.sphuta_tms.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Logback turbo filter that lets Hibernate SQL and bind-parameter events through only
+ * for requests marked by {@link SqlLogSamplingFilter}.
+ *
+ * <p>Registered in the {@code prod} section of logback-spring.xml. The SQL loggers stay at
+ * DEBUG/TRACE there (Hibernate reads some of those levels once at startup); this filter
+ * answers the level check with DENY for unmarked requests, so they pay one string
+ * comparison instead of formatting the statement. INFO and above is never touched.</p>
+ */
+public class SqlLogTurboFilter extends TurboFilter {
+
+    private static final String SQL_LOGGER = "org.hibernate.SQL";
+    private static final String JDBC_LOGGER_PREFIX = "org.hibernate.orm.jdbc";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level.isGreaterOrEqual(Level.INFO)) {
+            return FilterReply.NEUTRAL;
+        }
+        String name = logger.getName();
+        if (!name.equals(SQL_LOGGER) && !name.startsWith(JDBC_LOGGER_PREFIX)) {
+            return FilterReply.NEUTRAL;
+        }
+        return MDC.get(SqlLogSamplingFilter.MDC_KEY) != null ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sphuta_tms.config;
+
+import com.sphuta_tms.util.TraceIds;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gives every request one trace ID, shared by its response envelope and its log lines.
+ *
+ * <p>The trace-id of an incoming W3C {@code traceparent} header is kept so the caller's trace
+ * continues; otherwise a new ID is generated. The ID is bound to the request thread
+ * ({@link TraceIds#current()}) and put in the MDC under {@link TraceIds#MDC_KEY}.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceIdFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String traceId = TraceIds.fromTraceparent(request.getHeader(TraceIds.TRACEPARENT));
+        if (traceId == null) {
+            traceId = TraceIds.next();
+        }
+        TraceIds.bind(traceId);
+        MDC.put(TraceIds.MDC_KEY, traceId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(TraceIds.MDC_KEY);
+            TraceIds.unbind();
+        }
+    }
+}
@@ -43,4 +43,35 @@ public final class AppConstants {
     public static final String MSG_FETCH_ALL_SETTINGS = "Fetched all settings";
     public static final String MSG_FETCH_SINGLE_SETTING = "Fetched settings successfully";
 
+    // Keyset pagination / streaming
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    /** JDBC fetch size for streamed "get all" queries (server-side cursor, see useCursorFetch). */
+    public static final String STREAM_FETCH_SIZE = "500";
+
+    // Bulk import / export
+    public static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+    public static final String MEDIA_TYPE_CSV = "text/csv";
+
+    // Metrics (percentiles configured under management.metrics.distribution in application.yml)
+    public static final String METRIC_SETTINGS_OPERATION = "sphuta.settings.operation";
+    public static final String METRIC_SETTINGS_MAPPING = "sphuta.settings.mapping";
+    public static final String METRIC_SETTINGS_OUTCOME = "sphuta.settings.outcome";
+
+    // Cache names (per-user settings read-through cache)
+    public static final String CACHE_INVOICING_SETTINGS = "invoicingSettings";
+    public static final String CACHE_PREFERENCES = "settingsPreferences";
+    public static final String CACHE_PROFILE = "settingsProfile";
+    /** Composed invoicing + preferences + profile document, keyed by the String user ID. */
+    public static final String CACHE_EFFECTIVE_SETTINGS = "effectiveSettings";
+
+    // Hibernate second-level cache regions (sized in hibernate-jcache.conf)
+    public static final String L2_REGION_INVOICING_SETTINGS = "sphuta-entity-invoicingSettings";
+    public static final String L2_REGION_PREFERENCES = "sphuta-entity-settingsPreferences";
+    public static final String L2_REGION_PROFILE = "sphuta-entity-settingsProfile";
+    /** Results of cached repository queries, one region per settings table. */
+    public static final String L2_REGION_INVOICING_SETTINGS_QUERIES = "sphuta-query-invoicingSettings";
+    public static final String L2_REGION_PREFERENCES_QUERIES = "sphuta-query-settingsPreferences";
+    public static final String L2_REGION_PROFILE_QUERIES = "sphuta-query-settingsProfile";
+
 }
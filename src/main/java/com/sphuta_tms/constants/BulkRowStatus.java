@@ -0,0 +1,10 @@
+package com.sphuta_tms.constants;
+
+/**
+ * Enum representing the outcome of one row of a bulk upsert.
+ */
+public enum BulkRowStatus {
+    CREATED,
+    UPDATED,
+    FAILED
+}
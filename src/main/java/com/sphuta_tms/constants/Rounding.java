@@ -2,10 +2,24 @@ package com.sphuta_tms.constants;
 
 /**
  * Enum representing rounding preferences for time entries.
+ * Each constant carries its rounding increment in minutes (0 = no rounding).
  */
 public enum Rounding {
-    NONE,
-    NEAREST_6,
-    NEAREST_15,
-    NEAREST_30
+    NONE(0),
+    NEAREST_6(6),
+    NEAREST_15(15),
+    NEAREST_30(30);
+
+    private final int incrementMinutes;
+
+    Rounding(int incrementMinutes) {
+        this.incrementMinutes = incrementMinutes;
+    }
+
+    /**
+     * @return rounding increment in minutes, 0 for {@link #NONE}
+     */
+    public int getIncrementMinutes() {
+        return incrementMinutes;
+    }
 }
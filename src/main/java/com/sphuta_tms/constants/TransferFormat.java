@@ -0,0 +1,22 @@
+package com.sphuta_tms.constants;
+
+/**
+ * Enum representing the wire formats of bulk import and export.
+ */
+public enum TransferFormat {
+    NDJSON(AppConstants.MEDIA_TYPE_NDJSON),
+    CSV(AppConstants.MEDIA_TYPE_CSV);
+
+    private final String mediaType;
+
+    TransferFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @return content type of a body in this format
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+}
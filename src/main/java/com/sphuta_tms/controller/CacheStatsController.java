@@ -0,0 +1,98 @@
+package com.sphuta_tms.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.sphuta_tms.dto.CacheStatsDTO;
+import com.sphuta_tms.dto.SecondLevelCacheStatsDTO;
+import com.sphuta_tms.util.SphutaApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Controller exposing hit/miss/eviction statistics of the settings caches
+ * and of the Hibernate second-level cache regions.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/settings/cache")
+@RequiredArgsConstructor
+@Tag(name = "Settings Cache API", description = "Inspect the per-user settings read-through caches")
+public class CacheStatsController {
+
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // -------------------- GET STATS --------------------
+    @GetMapping("/stats")
+    @Operation(summary = "Get Cache Statistics", description = "Fetch size, hits, misses and evictions per settings cache")
+    public SphutaApiResponse<List<CacheStatsDTO>> getStats() {
+        log.info("Fetching settings cache statistics");
+        List<CacheStatsDTO> stats = cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .map(this::toStats)
+                .toList();
+        return SphutaApiResponse.success("Cache statistics fetched successfully", stats);
+    }
+
+    // -------------------- GET SECOND-LEVEL CACHE STATS --------------------
+    @GetMapping("/l2-stats")
+    @Operation(summary = "Get Second-Level Cache Statistics",
+            description = "Fetch size, hits, misses and puts per Hibernate entity, query and timestamps region")
+    public SphutaApiResponse<List<SecondLevelCacheStatsDTO>> getSecondLevelStats() {
+        log.info("Fetching second-level cache statistics");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<SecondLevelCacheStatsDTO> stats = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toStats(region, statistics.getCacheRegionStatistics(region)))
+                .filter(Objects::nonNull)
+                .toList();
+        return SphutaApiResponse.success("Second-level cache statistics fetched successfully", stats);
+    }
+
+    private SecondLevelCacheStatsDTO toStats(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            return null;
+        }
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        long size = stats.getElementCountInMemory();
+        return new SecondLevelCacheStatsDTO(
+                region,
+                size == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? -1 : size,
+                hits,
+                misses,
+                hits + misses == 0 ? 0.0 : (double) hits / (hits + misses),
+                stats.getPutCount()
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheStatsDTO toStats(Cache cache) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+        return new CacheStatsDTO(
+                cache.getName(),
+                nativeCache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
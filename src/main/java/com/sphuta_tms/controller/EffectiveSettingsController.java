@@ -0,0 +1,54 @@
+package com.sphuta_tms.controller;
+
+import com.sphuta_tms.dto.EffectiveSettingsDTO;
+import com.sphuta_tms.service.EffectiveSettingsService;
+import com.sphuta_tms.util.ETags;
+import com.sphuta_tms.util.SphutaApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller returning all settings of a user in a single response.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/settings")
+@RequiredArgsConstructor
+@Tag(name = "Effective Settings API", description = "Read invoicing settings, preferences and profile in one call")
+public class EffectiveSettingsController {
+
+    private final EffectiveSettingsService effectiveSettingsService;
+
+    // -------------------- GET BY PATH --------------------
+    @GetMapping("/{userId}")
+    @Operation(summary = "Get Effective Settings",
+            description = "Fetch invoicing settings, preferences and profile of a user; "
+                    + "304 when If-None-Match still matches all three")
+    public ResponseEntity<SphutaApiResponse<EffectiveSettingsDTO>> getEffectiveSettings(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Fetching effective settings for user: {}", userId);
+        EffectiveSettingsDTO settings = effectiveSettingsService.getEffectiveSettings(userId);
+        String etag = ETags.ofAll(
+                settings.invoicing() == null ? null : settings.invoicing().version(),
+                settings.preferences() == null ? null : settings.preferences().version(),
+                settings.profile() == null ? null : settings.profile().version());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(SphutaApiResponse.success(
+                "Effective settings fetched successfully",
+                settings
+        ));
+    }
+}
@@ -1,18 +1,34 @@
 package com.sphuta_tms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.BulkUpsertResultDTO;
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.InvoicingSettingsDTO;
 import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.exception.ValidationException;
+import com.sphuta_tms.service.InvoiceNumberService;
 import com.sphuta_tms.service.InvoicingSettingsService;
-import com.sphuta_tms.util.ApiResponse;
+import com.sphuta_tms.util.ETags;
+import com.sphuta_tms.util.JsonStreams;
+import com.sphuta_tms.util.SphutaApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -28,6 +44,12 @@ public class InvoicingSettingsController {
     @Autowired
     private InvoicingSettingsService service;
 
+    @Autowired
+    private InvoiceNumberService invoiceNumberService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * GET /api/v1/settings/invoicing
      * Fetch all invoicing settings.
@@ -36,10 +58,78 @@ public class InvoicingSettingsController {
     @GetMapping
     @Operation(summary = "Get all invoicing settings",
             description = "Returns a list of all invoicing settings configured in the system")
-    public ResponseEntity<ApiResponse<List<InvoicingSettingsDTO>>> getAllSettings() {
+    public ResponseEntity<SphutaApiResponse<List<InvoicingSettingsDTO>>> getAllSettings() {
         log.info("GET request: Fetch all invoicing settings");
         List<InvoicingSettingsDTO> settingsList = service.getAllSettings();
-        return ResponseEntity.ok(ApiResponse.success("Fetched all settings", settingsList));
+        return ResponseEntity.ok(SphutaApiResponse.success("Fetched all settings", settingsList));
+    }
+
+    /**
+     * POST /api/v1/settings/invoicing/bulk
+     * Insert or replace many invoicing settings from a JSON array, parsed as it is written.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Bulk upsert invoicing settings",
+            description = "Inserts or fully replaces every setting in the array and reports the result of each row")
+    public ResponseEntity<SphutaApiResponse<BulkUpsertResultDTO>> bulkUpsertSettings(InputStream body) {
+        log.info("POST request: Bulk upsert invoicing settings");
+        try {
+            return bulkUpsert(JsonStreams.readArray(objectMapper, body, InvoicingSettingsDTO.class));
+        } catch (IOException | UncheckedIOException ex) {
+            throw new ValidationException("Malformed JSON body: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * POST /api/v1/settings/invoicing/bulk (application/x-ndjson)
+     * Insert or replace many invoicing settings, one JSON object per line.
+     */
+    @PostMapping(value = "/bulk", consumes = AppConstants.MEDIA_TYPE_NDJSON)
+    @Operation(summary = "Bulk upsert invoicing settings from NDJSON",
+            description = "Same as the JSON array variant, reading one setting per line")
+    public ResponseEntity<SphutaApiResponse<BulkUpsertResultDTO>> bulkUpsertSettingsNdjson(InputStream body) {
+        log.info("POST request: Bulk upsert invoicing settings from NDJSON");
+        try {
+            return bulkUpsert(JsonStreams.readSequence(objectMapper, body, InvoicingSettingsDTO.class));
+        } catch (IOException | UncheckedIOException ex) {
+            throw new ValidationException("Malformed NDJSON body: " + ex.getMessage());
+        }
+    }
+
+    /** Rows are parsed while the service writes them, so parse errors surface from this call. */
+    private ResponseEntity<SphutaApiResponse<BulkUpsertResultDTO>> bulkUpsert(Iterator<InvoicingSettingsDTO> rows) {
+        BulkUpsertResultDTO result = service.bulkUpsertSettings(rows);
+        String message = result.truncated() ? "Bulk upsert stopped at the row limit" : "Bulk upsert completed";
+        return ResponseEntity.ok(SphutaApiResponse.success(message, result));
+    }
+
+    /**
+     * GET /api/v1/settings/invoicing/page?after=&size=
+     * Fetch one keyset page of invoicing settings ordered by user ID.
+     */
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of invoicing settings",
+            description = "Returns up to size settings after the given cursor; pass nextCursor as after for the next page")
+    public ResponseEntity<SphutaApiResponse<CursorPageDTO<InvoicingSettingsDTO>>> getSettingsPage(
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size (1..1000)") @RequestParam(defaultValue = "" + AppConstants.DEFAULT_PAGE_SIZE) int size) {
+        log.info("GET request: Fetch invoicing settings page after={} size={}", after, size);
+        CursorPageDTO<InvoicingSettingsDTO> page = service.getSettingsPage(after, size);
+        return ResponseEntity.ok(SphutaApiResponse.success("Fetched settings page", page));
+    }
+
+    /**
+     * GET /api/v1/settings/invoicing/stream
+     * Stream all invoicing settings as a JSON array without buffering them in memory.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream all invoicing settings",
+            description = "Streams every invoicing settings record as a plain JSON array")
+    public ResponseEntity<StreamingResponseBody> streamAllSettings() {
+        log.info("GET request: Stream all invoicing settings");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.array(objectMapper, service::streamAllSettings));
     }
 
     /**
@@ -48,14 +138,21 @@ public class InvoicingSettingsController {
      */
     @GetMapping("/{userId}")
     @Operation(summary = "Get invoicing settings by user ID",
-            description = "Returns the invoicing settings for the specified user ID")
-    public ResponseEntity<ApiResponse<InvoicingSettingsDTO>> getSettingsByUserId(
-            @Parameter(description = "Unique identifier of the user") @PathVariable String userId) {
+            description = "Returns the invoicing settings for the specified user ID with its ETag; "
+                    + "answers 304 when If-None-Match still matches")
+    public ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> getSettingsByUserId(
+            @Parameter(description = "Unique identifier of the user") @PathVariable String userId,
+            @Parameter(description = "ETag of the copy the client already has")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("GET request: Fetch settings for userId={}", userId);
-        return service.getSettingsByUserId(userId)
-                .map(dto -> ResponseEntity.ok(ApiResponse.success("Fetched settings", dto)))
+        InvoicingSettingsDTO dto = service.getSettingsByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Settings not found for userId: " + userId));
+        String etag = ETags.of(dto.version());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(SphutaApiResponse.success("Fetched settings", dto));
     }
 
     /**
@@ -65,12 +162,13 @@ public class InvoicingSettingsController {
     @PostMapping
     @Operation(summary = "Create new invoicing settings",
             description = "Creates invoicing settings for a specific user")
-    public ResponseEntity<ApiResponse<InvoicingSettingsDTO>> createSettings(
+    public ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> createSettings(
             @Parameter(description = "Invoicing settings data to create") @Valid @RequestBody InvoicingSettingsDTO dto) {
         log.info("POST request: Create invoicing settings for userId={}", dto.userId());
         InvoicingSettingsDTO created = service.createSettings(dto);
         return ResponseEntity.status(201)
-                .body(ApiResponse.success("Settings created successfully", created));
+                .eTag(ETags.of(created.version()))
+                .body(SphutaApiResponse.success("Settings created successfully", created));
     }
 
     /**
@@ -79,13 +177,18 @@ public class InvoicingSettingsController {
      */
     @PutMapping("/{userId}")
     @Operation(summary = "Update invoicing settings completely",
-            description = "Replaces existing invoicing settings for a user with new values")
-    public ResponseEntity<ApiResponse<InvoicingSettingsDTO>> updateSettings(
+            description = "Replaces existing invoicing settings for a user with new values; "
+                    + "answers 412 when If-Match no longer matches")
+    public ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> updateSettings(
             @Parameter(description = "Unique identifier of the user") @PathVariable String userId,
-            @Parameter(description = "Updated invoicing settings data") @Valid @RequestBody InvoicingSettingsDTO dto) {
+            @Parameter(description = "Updated invoicing settings data") @Valid @RequestBody InvoicingSettingsDTO dto,
+            @Parameter(description = "ETag the update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PUT request: Update settings for userId={}", userId);
-        InvoicingSettingsDTO updated = service.updateSettings(userId, dto);
-        return ResponseEntity.ok(ApiResponse.success("Settings updated successfully", updated));
+        InvoicingSettingsDTO updated = service.updateSettings(userId, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(updated.version()))
+                .body(SphutaApiResponse.success("Settings updated successfully", updated));
     }
 
     /**
@@ -94,13 +197,18 @@ public class InvoicingSettingsController {
      */
     @PatchMapping("/{userId}")
     @Operation(summary = "Partially update invoicing settings",
-            description = "Updates only the provided fields of invoicing settings for a user")
-    public ResponseEntity<ApiResponse<InvoicingSettingsDTO>> patchSettings(
+            description = "Updates only the provided fields of invoicing settings for a user; "
+                    + "answers 412 when If-Match no longer matches")
+    public ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> patchSettings(
             @Parameter(description = "Unique identifier of the user") @PathVariable String userId,
-            @Parameter(description = "Partial invoicing settings data to update") @RequestBody InvoicingSettingsDTO dto) {
+            @Parameter(description = "Partial invoicing settings data to update") @RequestBody InvoicingSettingsDTO dto,
+            @Parameter(description = "ETag the update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PATCH request: Patch settings for userId={}", userId);
-        InvoicingSettingsDTO patched = service.patchSettings(userId, dto);
-        return ResponseEntity.ok(ApiResponse.success("Settings patched successfully", patched));
+        InvoicingSettingsDTO patched = service.patchSettings(userId, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.of(patched.version()))
+                .body(SphutaApiResponse.success("Settings patched successfully", patched));
     }
 
     /**
@@ -110,10 +218,28 @@ public class InvoicingSettingsController {
     @DeleteMapping("/{userId}")
     @Operation(summary = "Delete invoicing settings by user ID",
             description = "Deletes invoicing settings for the specified user")
-    public ResponseEntity<ApiResponse<Void>> deleteSettings(
-            @Parameter(description = "Unique identifier of the user") @PathVariable String userId) {
+    public ResponseEntity<SphutaApiResponse<Void>> deleteSettings(
+            @Parameter(description = "Unique identifier of the user") @PathVariable String userId,
+            @Parameter(description = "ETag the delete is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("DELETE request: Delete settings for userId={}", userId);
-        service.deleteSettings(userId);
-        return ResponseEntity.ok(ApiResponse.success("Settings deleted successfully", null));
+        service.deleteSettings(userId, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok(SphutaApiResponse.success("Settings deleted successfully", null));
+    }
+
+    /**
+     * POST /api/v1/settings/invoicing/{userId}/invoice-numbers
+     * Issue the next invoice number for a user.
+     */
+    @PostMapping("/{userId}/invoice-numbers")
+    @Operation(summary = "Issue next invoice number",
+            description = "Generates the next invoice number from the user's invoice number format. "
+                    + "Only available in GAP_TOLERANT mode; GAPLESS numbers are issued with the invoice")
+    public ResponseEntity<SphutaApiResponse<String>> nextInvoiceNumber(
+            @Parameter(description = "Unique identifier of the user") @PathVariable String userId) {
+        log.info("POST request: Issue invoice number for userId={}", userId);
+        String invoiceNumber = invoiceNumberService.nextInvoiceNumber(userId);
+        return ResponseEntity.status(201)
+                .body(SphutaApiResponse.success("Invoice number generated", invoiceNumber));
     }
 }
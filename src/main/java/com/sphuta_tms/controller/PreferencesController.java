@@ -1,9 +1,17 @@
 package com.sphuta_tms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.constants.TransferFormat;
+import com.sphuta_tms.dto.CursorPageDTO;
+import com.sphuta_tms.dto.ImportResultDTO;
 import com.sphuta_tms.dto.PreferencesRequest;
 import com.sphuta_tms.dto.PreferencesResponse;
 import com.sphuta_tms.entity.SettingsPreferences;
 import com.sphuta_tms.service.PreferencesService;
+import com.sphuta_tms.service.PreferencesTransferService;
+import com.sphuta_tms.util.ETags;
+import com.sphuta_tms.util.JsonStreams;
 import com.sphuta_tms.util.SphutaApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,8 +20,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -34,6 +48,12 @@ public class PreferencesController {
     @Autowired
     private PreferencesService preferencesService;
 
+    @Autowired
+    private PreferencesTransferService transferService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
 
     // -------------------- GET ALL / GET BY PARAM --------------------
     @GetMapping
@@ -52,21 +72,100 @@ public class PreferencesController {
         );
     }
 
+    // -------------------- GET PAGE --------------------
+    @GetMapping("/page")
+    @Operation(summary = "Get Preferences Page", description = "Fetch one keyset page of preferences ordered by userId")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Preferences page fetched successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid page size"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public SphutaApiResponse<CursorPageDTO<PreferencesResponse>> getPreferencesPage(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + AppConstants.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Fetching preferences page after={} size={}", after, size);
+        return SphutaApiResponse.success(
+                "Preferences page fetched successfully",
+                preferencesService.getPreferencesPage(after, size)
+        );
+    }
+
+    // -------------------- STREAM ALL --------------------
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream Preferences", description = "Stream all preferences records as a plain JSON array")
+    public ResponseEntity<StreamingResponseBody> streamAllPreferences() {
+        log.info("Streaming all preferences records");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.array(objectMapper, preferencesService::streamAllPreferences));
+    }
+
+    // -------------------- IMPORT --------------------
+    @PostMapping(value = "/import", consumes = AppConstants.MEDIA_TYPE_NDJSON)
+    @Operation(summary = "Import Preferences (NDJSON)", description = "Insert or replace preferences, one JSON object per line")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished; rejected lines are listed in the result"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public SphutaApiResponse<ImportResultDTO> importPreferencesNdjson(InputStream body) {
+        log.info("Importing preferences from NDJSON");
+        return SphutaApiResponse.success(
+                "Preferences import completed",
+                transferService.importPreferences(body, TransferFormat.NDJSON)
+        );
+    }
+
+    @PostMapping(value = "/import", consumes = AppConstants.MEDIA_TYPE_CSV)
+    @Operation(summary = "Import Preferences (CSV)", description = "Insert or replace preferences from CSV with a header line")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished; rejected lines are listed in the result"),
+            @ApiResponse(responseCode = "400", description = "Missing or invalid CSV header"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public SphutaApiResponse<ImportResultDTO> importPreferencesCsv(InputStream body) {
+        log.info("Importing preferences from CSV");
+        return SphutaApiResponse.success(
+                "Preferences import completed",
+                transferService.importPreferences(body, TransferFormat.CSV)
+        );
+    }
+
+    // -------------------- EXPORT --------------------
+    @GetMapping("/export")
+    @Operation(summary = "Export Preferences", description = "Stream all preferences as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportPreferences(
+            @RequestParam(defaultValue = "NDJSON") TransferFormat format) {
+        log.info("Exporting preferences as {}", format);
+        String fileName = "preferences." + format.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(out -> transferService.exportPreferences(out, format));
+    }
+
     // -------------------- GET BY ID --------------------
     @GetMapping("/{userId}")
     @Operation(summary = "Get Preferences by ID", description = "Fetch preferences for a specific user by userId")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Preferences fetched successfully"),
+            @ApiResponse(responseCode = "304", description = "Preferences unchanged since the If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Preferences not found for the given user"),
             @ApiResponse(responseCode = "400", description = "Invalid userId"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public SphutaApiResponse<PreferencesResponse> getPreferencesById(@PathVariable String userId) {
+    public ResponseEntity<SphutaApiResponse<PreferencesResponse>> getPreferencesById(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Fetching preferences by ID for user: {}", userId);
-        return SphutaApiResponse.success(
+        PreferencesResponse preferences = preferencesService.getPreferences(userId);
+        String etag = ETags.of(preferences.version());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(SphutaApiResponse.success(
                 "Preferences fetched successfully",
-                preferencesService.getPreferences(userId)
-        );
+                preferences
+        ));
     }
 
     // -------------------- POST --------------------
@@ -94,16 +193,20 @@ public class PreferencesController {
             @ApiResponse(responseCode = "200", description = "Preferences updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request body"),
             @ApiResponse(responseCode = "404", description = "Preferences not found for the given user"),
+            @ApiResponse(responseCode = "412", description = "Preferences changed since the If-Match ETag"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public SphutaApiResponse<PreferencesResponse> updatePreferences(
+    public ResponseEntity<SphutaApiResponse<PreferencesResponse>> updatePreferences(
             @PathVariable String userId,
-            @Valid @RequestBody PreferencesRequest request) {
+            @Valid @RequestBody PreferencesRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Updating all preferences for user: {}", userId);
-        return SphutaApiResponse.success(
+        PreferencesResponse updated =
+                preferencesService.updatePreferences(userId, request, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.version())).body(SphutaApiResponse.success(
                 "Preferences updated successfully",
-                preferencesService.updatePreferences(userId, request)
-        );
+                updated
+        ));
     }
 
     // -------------------- PATCH --------------------
@@ -113,16 +216,20 @@ public class PreferencesController {
             @ApiResponse(responseCode = "200", description = "Preferences patched successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request body"),
             @ApiResponse(responseCode = "404", description = "Preferences not found for the given user"),
+            @ApiResponse(responseCode = "412", description = "Preferences changed since the If-Match ETag"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public SphutaApiResponse<PreferencesResponse> patchPreferences(
+    public ResponseEntity<SphutaApiResponse<PreferencesResponse>> patchPreferences(
             @PathVariable String userId,
-            @RequestBody PreferencesRequest request) {
+            @RequestBody PreferencesRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Patching preferences for user: {}", userId);
-        return SphutaApiResponse.success(
+        PreferencesResponse patched =
+                preferencesService.patchPreferences(userId, request, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patched.version())).body(SphutaApiResponse.success(
                 "Preferences patched successfully",
-                preferencesService.patchPreferences(userId, request)
-        );
+                patched
+        ));
     }
 
     // -------------------- DELETE --------------------
@@ -131,11 +238,32 @@ public class PreferencesController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Preferences deleted successfully"),
             @ApiResponse(responseCode = "404", description = "Preferences not found for the given user"),
+            @ApiResponse(responseCode = "412", description = "Preferences changed since the If-Match ETag"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public SphutaApiResponse<Void> deletePreferences(@PathVariable String userId) {
+    public SphutaApiResponse<Void> deletePreferences(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.warn("Deleting preferences for user: {}", userId);
-        preferencesService.deletePreferences(userId);
+        preferencesService.deletePreferences(userId, ETags.expectedVersion(ifMatch));
         return SphutaApiResponse.success("Preferences deleted successfully", null);
     }
+
+    // -------------------- ROUNDING --------------------
+    @PostMapping("/{userId}/round")
+    @Operation(summary = "Round Durations", description = "Round time-entry durations (minutes) using the user's rounding preference")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Durations rounded successfully"),
+            @ApiResponse(responseCode = "404", description = "Preferences not found for the given user"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public SphutaApiResponse<long[]> roundDurations(
+            @PathVariable String userId,
+            @RequestBody long[] durationMinutes) {
+        log.info("Rounding {} durations for user: {}", durationMinutes.length, userId);
+        return SphutaApiResponse.success(
+                "Durations rounded successfully",
+                preferencesService.roundDurations(userId, durationMinutes)
+        );
+    }
 }
@@ -105,7 +105,7 @@ public class PreferencesUiController {
                     Rounding.valueOf(rounding)
             );
             log.debug("PreferencesRequest for update: {}", request);
-            preferencesService.updatePreferences(userId, request);
+            preferencesService.updatePreferences(userId, request, null);
             model.addAttribute("message", "Preference updated successfully!");
             log.info("Preference updated successfully for userId: {}", userId);
         } catch (Exception e) {
@@ -140,7 +140,7 @@ public class PreferencesUiController {
                     (rounding != null && !rounding.isEmpty()) ? Rounding.valueOf(rounding) : null
             );
             log.debug("PreferencesRequest for patch: {}", request);
-            preferencesService.patchPreferences(userId, request);
+            preferencesService.patchPreferences(userId, request, null);
             model.addAttribute("message", "Preference patched successfully!");
             log.info("Preference patched successfully for userId: {}", userId);
         } catch (Exception e) {
@@ -164,7 +164,7 @@ public class PreferencesUiController {
     public String deletePreference(@RequestParam String userId, Model model) {
         log.info("Deleting preference for userId: {}", userId);
         try {
-            preferencesService.deletePreferences(userId);
+            preferencesService.deletePreferences(userId, null);
             model.addAttribute("message", "Preference deleted successfully!");
             log.info("Preference deleted successfully for userId: {}", userId);
         } catch (Exception e) {
@@ -0,0 +1,115 @@
+package com.sphuta_tms.controller;
+
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.InvoicingSettingsDTO;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.service.ReactiveSettingsService;
+import com.sphuta_tms.util.ETags;
+import com.sphuta_tms.util.SphutaApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read endpoints for invoicing settings, preferences and profiles.
+ *
+ * <p>Mirrors the GET endpoints of {@link InvoicingSettingsController}, {@link PreferencesController}
+ * and {@link SettingsProfileController} on top of R2DBC. Handlers return {@link Mono}/{@link Flux};
+ * the servlet request is suspended while the query runs, so no request thread waits on the database.
+ * Lookups answer with the same envelope, ETag and 304 handling as the MVC endpoints;
+ * "get all" is streamed as server-sent events with one JSON object per event.</p>
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/reactive/settings")
+@RequiredArgsConstructor
+@Tag(name = "Reactive Settings API", description = "Non-blocking lookups and streams of settings (read only)")
+public class ReactiveSettingsController {
+
+    private final ReactiveSettingsService reactiveSettingsService;
+
+    // -------------------- INVOICING --------------------
+    @GetMapping("/invoicing/{userId}")
+    @Operation(summary = "Get Invoicing Settings (reactive)",
+            description = "Fetch invoicing settings for a user; 304 when If-None-Match still matches")
+    public Mono<ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>>> getInvoicingSettings(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Reactive fetch of invoicing settings for userId={}", userId);
+        return reactiveSettingsService.findInvoicingSettings(userId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(AppConstants.MSG_SETTINGS_NOT_FOUND)))
+                .map(dto -> conditional(dto, dto.version(), ifNoneMatch, AppConstants.MSG_FETCH_SINGLE_SETTING));
+    }
+
+    @GetMapping(value = "/invoicing", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream Invoicing Settings (reactive)",
+            description = "Stream all invoicing settings as server-sent events, one JSON object per event")
+    public Flux<InvoicingSettingsDTO> streamInvoicingSettings() {
+        log.info("Reactive stream of all invoicing settings");
+        return reactiveSettingsService.findAllInvoicingSettings();
+    }
+
+    // -------------------- PREFERENCES --------------------
+    @GetMapping("/preferences/{userId}")
+    @Operation(summary = "Get Preferences (reactive)",
+            description = "Fetch preferences for a user; 304 when If-None-Match still matches")
+    public Mono<ResponseEntity<SphutaApiResponse<PreferencesResponse>>> getPreferences(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Reactive fetch of preferences for userId={}", userId);
+        return reactiveSettingsService.findPreferences(userId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND)))
+                .map(dto -> conditional(dto, dto.version(), ifNoneMatch, AppConstants.MSG_PREF_FETCHED));
+    }
+
+    @GetMapping(value = "/preferences", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream Preferences (reactive)",
+            description = "Stream all preferences as server-sent events, one JSON object per event")
+    public Flux<PreferencesResponse> streamPreferences() {
+        log.info("Reactive stream of all preferences");
+        return reactiveSettingsService.findAllPreferences();
+    }
+
+    // -------------------- PROFILE --------------------
+    @GetMapping("/profile/{userId}")
+    @Operation(summary = "Get Profile (reactive)",
+            description = "Fetch the settings profile for a user; 304 when If-None-Match still matches")
+    public Mono<ResponseEntity<SphutaApiResponse<SettingsProfileDTO>>> getProfile(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Reactive fetch of profile for userId={}", userId);
+        return reactiveSettingsService.findProfile(userId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Profile not found for userId=" + userId)))
+                .map(dto -> conditional(dto, dto.version(), ifNoneMatch, "Profile fetched successfully"));
+    }
+
+    @GetMapping(value = "/profile", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream Profiles (reactive)",
+            description = "Stream all settings profiles as server-sent events, one JSON object per event")
+    public Flux<SettingsProfileDTO> streamProfiles() {
+        log.info("Reactive stream of all profiles");
+        return reactiveSettingsService.findAllProfiles();
+    }
+
+    /**
+     * Same ETag handling as the MVC lookups: 304 without a body when the client copy is current.
+     */
+    private static <T> ResponseEntity<SphutaApiResponse<T>> conditional(T dto, Long version, String ifNoneMatch,
+                                                                      String message) {
+        String etag = ETags.of(version);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(SphutaApiResponse.success(message, dto));
+    }
+}
@@ -1,7 +1,12 @@
 package com.sphuta_tms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.SettingsProfileDTO;
 import com.sphuta_tms.service.SettingsProfileService;
+import com.sphuta_tms.util.ETags;
+import com.sphuta_tms.util.JsonStreams;
 import com.sphuta_tms.util.SphutaApiResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,7 +14,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,6 +36,7 @@ public class SettingsProfileController {
 
 
     private final SettingsProfileService profileService;
+    private final ObjectMapper objectMapper;
 
     // -------------------- GET ALL --------------------
     @GetMapping
@@ -38,15 +49,46 @@ public class SettingsProfileController {
         );
     }
 
+    // -------------------- GET PAGE --------------------
+    @GetMapping("/page")
+    @Operation(summary = "Get Profiles Page", description = "Fetch one keyset page of profiles ordered by userId")
+    public SphutaApiResponse<CursorPageDTO<SettingsProfileDTO>> getProfilesPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + AppConstants.DEFAULT_PAGE_SIZE) int size) {
+        log.info("Fetching profiles page after={} size={}", after, size);
+        return SphutaApiResponse.success(
+                "Profiles page fetched successfully",
+                profileService.getProfilesPage(after, size)
+        );
+    }
+
+    // -------------------- STREAM ALL --------------------
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream Profiles", description = "Stream all user profiles as a plain JSON array")
+    public ResponseEntity<StreamingResponseBody> streamAllProfiles() {
+        log.info("Streaming all profiles");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreams.array(objectMapper, profileService::streamAllProfiles));
+    }
+
     // -------------------- GET BY PATH --------------------
     @GetMapping("/{userId}")
-    @Operation(summary = "Get Profile by ID", description = "Fetch profile for a specific user by userId")
-    public SphutaApiResponse<SettingsProfileDTO> getProfileById(@PathVariable Long userId) {
+    @Operation(summary = "Get Profile by ID",
+            description = "Fetch profile for a specific user by userId; 304 when If-None-Match still matches")
+    public ResponseEntity<SphutaApiResponse<SettingsProfileDTO>> getProfileById(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Fetching profile by ID for user: {}", userId);
-        return SphutaApiResponse.success(
+        SettingsProfileDTO profile = profileService.getProfile(userId);
+        String etag = ETags.of(profile.version());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(SphutaApiResponse.success(
                 "Profile fetched successfully",
-                profileService.getProfile(userId)
-        );
+                profile
+        ));
     }
 
     // -------------------- POST --------------------
@@ -64,36 +106,45 @@ public class SettingsProfileController {
 
     // -------------------- PUT --------------------
     @PutMapping("/{userId}")
-    @Operation(summary = "Update Profile", description = "Update all fields of a user's profile")
-    public SphutaApiResponse<SettingsProfileDTO> updateProfile(
+    @Operation(summary = "Update Profile",
+            description = "Update all fields of a user's profile; 412 when If-Match no longer matches")
+    public ResponseEntity<SphutaApiResponse<SettingsProfileDTO>> updateProfile(
             @PathVariable Long userId,
-            @Valid @RequestBody SettingsProfileDTO dto) {
+            @Valid @RequestBody SettingsProfileDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Updating all profile fields for user: {}", userId);
-        return SphutaApiResponse.success(
+        SettingsProfileDTO updated = profileService.updateProfile(userId, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updated.version())).body(SphutaApiResponse.success(
                 "Profile updated successfully",
-                profileService.updateProfile(userId, dto)
-        );
+                updated
+        ));
     }
 
     // -------------------- PATCH --------------------
     @PatchMapping("/{userId}")
-    @Operation(summary = "Patch Profile", description = "Update partial fields of user profile")
-    public SphutaApiResponse<SettingsProfileDTO> patchProfile(
+    @Operation(summary = "Patch Profile",
+            description = "Update partial fields of user profile; 412 when If-Match no longer matches")
+    public ResponseEntity<SphutaApiResponse<SettingsProfileDTO>> patchProfile(
             @PathVariable Long userId,
-            @RequestBody SettingsProfileDTO dto) {
+            @RequestBody SettingsProfileDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("Patching profile for user: {}", userId);
-        return SphutaApiResponse.success(
+        SettingsProfileDTO patched = profileService.patchProfile(userId, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patched.version())).body(SphutaApiResponse.success(
                 "Profile patched successfully",
-                profileService.patchProfile(userId, dto)
-        );
+                patched
+        ));
     }
 
     // -------------------- DELETE --------------------
     @DeleteMapping("/{userId}")
-    @Operation(summary = "Delete Profile", description = "Delete profile for a user")
-    public SphutaApiResponse<Void> deleteProfile(@PathVariable Long userId) {
+    @Operation(summary = "Delete Profile",
+            description = "Delete profile for a user; 412 when If-Match no longer matches")
+    public SphutaApiResponse<Void> deleteProfile(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.warn("Deleting profile for user: {}", userId);
-        profileService.deleteProfile(userId);
+        profileService.deleteProfile(userId, ETags.expectedVersion(ifMatch));
         return SphutaApiResponse.success("Profile deleted successfully", null);
     }
 }
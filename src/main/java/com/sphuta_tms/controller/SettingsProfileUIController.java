@@ -44,7 +44,7 @@ public class SettingsProfileUIController {
         log.info("Loading Settings Profile UI page...");
 
         // Initialize the form with an empty DTO
-        model.addAttribute("profile", new SettingsProfileDTO(null, "", "", "", ""));
+        model.addAttribute("profile", new SettingsProfileDTO(null, "", "", "", "", null));
         return "profile-form";
     }
 
@@ -99,7 +99,7 @@ public class SettingsProfileUIController {
     public String updateProfile(@ModelAttribute SettingsProfileDTO dto, Model model) {
         log.info("Request received to update profile for userId={}", dto.userId());
 
-        profileService.updateProfile(dto.userId(), dto);
+        profileService.updateProfile(dto.userId(), dto, null);
 
         log.debug("Profile update completed for userId={}", dto.userId());
 
@@ -119,7 +119,7 @@ public class SettingsProfileUIController {
     public String patchProfile(@ModelAttribute SettingsProfileDTO dto, Model model) {
         log.info("Request received to patch profile for userId={}", dto.userId());
 
-        profileService.patchProfile(dto.userId(), dto);
+        profileService.patchProfile(dto.userId(), dto, null);
 
         log.debug("Profile patch completed for userId={}", dto.userId());
 
@@ -139,12 +139,12 @@ public class SettingsProfileUIController {
     public String deleteProfile(@RequestParam Long userId, Model model) {
         log.info("Request received to delete profile for userId={}", userId);
 
-        profileService.deleteProfile(userId);
+        profileService.deleteProfile(userId, null);
 
         log.debug("Profile deletion completed for userId={}", userId);
 
         model.addAttribute("message", "Profile deleted successfully!");
-        model.addAttribute("profile", new SettingsProfileDTO(null, "", "", "", ""));
+        model.addAttribute("profile", new SettingsProfileDTO(null, "", "", "", "", null));
         return "profile-form";
     }
 }
@@ -0,0 +1,23 @@
+package com.sphuta_tms.dto;
+
+import com.sphuta_tms.constants.BulkRowStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO reporting the outcome of one row of a bulk upsert.
+ */
+@Schema(description = "Result of one row of a bulk upsert")
+public record BulkRowResultDTO(
+
+        @Schema(description = "Zero-based position of the row in the request", example = "0")
+        int index,
+
+        @Schema(description = "User ID of the row", example = "user-1234-uuid")
+        String userId,
+
+        @Schema(description = "Outcome of the row", example = "CREATED")
+        BulkRowStatus status,
+
+        @Schema(description = "Reason for a failed row; null otherwise", example = "currency: must not be blank")
+        String message
+) {}
@@ -0,0 +1,31 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO summarizing a bulk upsert with one result per submitted row.
+ */
+@Schema(description = "Summary and per-row results of a bulk upsert")
+public record BulkUpsertResultDTO(
+
+        @Schema(description = "Number of submitted rows", example = "10000")
+        int total,
+
+        @Schema(description = "Number of rows inserted", example = "9000")
+        int created,
+
+        @Schema(description = "Number of rows updated", example = "990")
+        int updated,
+
+        @Schema(description = "Number of rows rejected", example = "10")
+        int failed,
+
+        @Schema(description = "True when the request exceeded sphuta.bulk.max-rows; rows past the limit were not read",
+                example = "false")
+        boolean truncated,
+
+        @Schema(description = "Per-row results in request order")
+        List<BulkRowResultDTO> rows
+) {}
@@ -0,0 +1,28 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO exposing statistics of one settings cache.
+ */
+@Schema(description = "Statistics of a settings cache")
+public record CacheStatsDTO(
+
+        @Schema(description = "Cache name", example = "settingsPreferences")
+        String name,
+
+        @Schema(description = "Approximate number of cached entries", example = "1250")
+        long size,
+
+        @Schema(description = "Number of reads served from the cache", example = "98000")
+        long hitCount,
+
+        @Schema(description = "Number of reads that went to the database", example = "2000")
+        long missCount,
+
+        @Schema(description = "Hit ratio between 0 and 1", example = "0.98")
+        double hitRate,
+
+        @Schema(description = "Number of entries evicted by size or TTL", example = "12")
+        long evictionCount
+) {}
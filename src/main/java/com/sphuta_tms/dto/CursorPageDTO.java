@@ -0,0 +1,25 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO representing one page of a keyset (cursor) paginated listing.
+ * Items are ordered by primary key ({@code user_id}); pass {@code nextCursor}
+ * as the {@code after} parameter to fetch the following page.
+ *
+ * @param <T> the type of the page items
+ */
+@Schema(description = "One page of results ordered by user ID")
+public record CursorPageDTO<T>(
+
+        @Schema(description = "Items of this page")
+        List<T> items,
+
+        @Schema(description = "Number of items in this page", example = "100")
+        int size,
+
+        @Schema(description = "Cursor for the next page; null when this is the last page", example = "user-1234-uuid")
+        String nextCursor
+) {}
@@ -0,0 +1,26 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO composing all settings of one user into a single document.
+ *
+ * <p>A section is null when the user has no row in that table. The profile section is
+ * only looked up when {@code userId} is numeric, because profiles are keyed by a
+ * {@code Long} while invoicing settings and preferences use a {@code String}.</p>
+ */
+@Schema(description = "Invoicing settings, preferences and profile of a user")
+public record EffectiveSettingsDTO(
+
+        @Schema(description = "User ID as given in the request", example = "1001")
+        String userId,
+
+        @Schema(description = "Invoicing settings, null if not configured")
+        InvoicingSettingsDTO invoicing,
+
+        @Schema(description = "Preferences, null if not configured")
+        PreferencesResponse preferences,
+
+        @Schema(description = "Profile, null if not configured or the user ID is not numeric")
+        SettingsProfileDTO profile
+) {}
@@ -0,0 +1,16 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO describing one rejected line of a bulk import.
+ */
+@Schema(description = "A line of an import that was not written")
+public record ImportErrorDTO(
+
+        @Schema(description = "One-based line number in the request body", example = "42")
+        long line,
+
+        @Schema(description = "Reason the line was rejected", example = "Invalid week start value (must be MON or SUN)")
+        String message
+) {}
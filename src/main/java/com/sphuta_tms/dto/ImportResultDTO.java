@@ -0,0 +1,30 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * DTO summarizing a streamed bulk import.
+ */
+@Schema(description = "Throughput and rejected lines of a bulk import")
+public record ImportResultDTO(
+
+        @Schema(description = "Number of data lines read", example = "250000")
+        long total,
+
+        @Schema(description = "Number of rows inserted or replaced", example = "249990")
+        long imported,
+
+        @Schema(description = "Number of rejected lines", example = "10")
+        long failed,
+
+        @Schema(description = "Wall-clock duration of the import in milliseconds", example = "8200")
+        long elapsedMillis,
+
+        @Schema(description = "Lines processed per second", example = "30487.8")
+        double rowsPerSecond,
+
+        @Schema(description = "Rejected lines; capped at sphuta.bulk.max-error-rows")
+        List<ImportErrorDTO> errors
+) {}
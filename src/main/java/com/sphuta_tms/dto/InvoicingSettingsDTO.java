@@ -53,5 +53,9 @@ public record InvoicingSettingsDTO(
 
         @Size(max = 36)
         @Schema(description = "Logo file identifier (optional)", example = "logo-uuid-1234")
-        String logoFileId
+        String logoFileId,
+
+        @Schema(description = "Record version, also returned as the ETag header (ignored on requests)",
+                example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+        Long version
 ) {}
@@ -4,7 +4,7 @@ package com.sphuta_tms.dto;
 import com.sphuta_tms.constants.Rounding;
 import com.sphuta_tms.constants.WeekStart;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 /**
  * DTO for Preferences API request using Java 17 Record.
@@ -15,7 +15,8 @@ public record PreferencesRequest(
         @NotBlank(message = "UserId is required")
         String userId,
 
-        @Pattern(regexp = "YYYY-MM-DD", message = "Date format must be YYYY-MM-DD")
+        // Pattern syntax is checked by DateFormatRegistry when the preferences are written
+        @Size(max = 20, message = "Date format must be at most 20 characters")
         String dateFormat,
 
         WeekStart weekStartsOn,
@@ -15,6 +15,7 @@ public record PreferencesResponse(
         String dateFormat,
         WeekStart weekStartsOn,
         Rounding rounding,
-        LocalDateTime updatedAt
+        LocalDateTime updatedAt,
+        Long version
 
 ) { }
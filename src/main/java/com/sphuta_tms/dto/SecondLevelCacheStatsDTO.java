@@ -0,0 +1,28 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * DTO exposing statistics of one Hibernate second-level cache region.
+ */
+@Schema(description = "Statistics of a Hibernate second-level cache region")
+public record SecondLevelCacheStatsDTO(
+
+        @Schema(description = "Region name", example = "sphuta-entity-settingsPreferences")
+        String region,
+
+        @Schema(description = "Number of cached entries, or -1 when the provider does not report it", example = "1250")
+        long size,
+
+        @Schema(description = "Number of lookups served from the region", example = "98000")
+        long hitCount,
+
+        @Schema(description = "Number of lookups that went to the database", example = "2000")
+        long missCount,
+
+        @Schema(description = "Hit ratio between 0 and 1", example = "0.98")
+        double hitRate,
+
+        @Schema(description = "Number of entries put into the region", example = "2100")
+        long putCount
+) {}
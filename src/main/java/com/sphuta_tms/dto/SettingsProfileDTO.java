@@ -59,5 +59,13 @@ public record SettingsProfileDTO(
          */
         @Schema(description = "Preferred locale", example = "en_US")
         @NotBlank(message = "Locale is required")
-        String locale
+        String locale,
+
+        /**
+         * Record version, returned as the ETag header.
+         * Ignored on requests; send {@code If-Match} instead.
+         */
+        @Schema(description = "Record version, also returned as the ETag header (ignored on requests)",
+                example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+        Long version
 ) { }
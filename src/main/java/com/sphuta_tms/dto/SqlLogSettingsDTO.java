@@ -0,0 +1,31 @@
+package com.sphuta_tms.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DTO describing which requests get SQL and bind-parameter logging.
+ * A request is logged when any of the three rules matches.
+ */
+@Schema(description = "Per-request SQL logging rules")
+public record SqlLogSettingsDTO(
+
+        @Schema(description = "User IDs whose requests are always logged", example = "[\"1001\"]")
+        Set<String> users,
+
+        @Schema(description = "Request URI prefixes that are always logged", example = "[\"/api/v1/settings/invoicing\"]")
+        List<String> endpoints,
+
+        @Schema(description = "Fraction of all other requests that are logged (0..1)", example = "0.01")
+        double sampleRate
+) {
+
+    /**
+     * @return true when no request can match, so the per-request check can be skipped
+     */
+    public boolean isDisabled() {
+        return users.isEmpty() && endpoints.isEmpty() && sampleRate <= 0.0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.sphuta_tms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class holding the invoice number high-water mark for a user and period.
+ * Maps to the table 'invoice_sequence'.
+ *
+ * <p>The key is {@code userId|period}, where the period is derived from the date
+ * tokens of the user's invoice number format (e.g. {@code 2026} for {@code ${yyyy}}).
+ * {@code nextValue} is the first sequence value that has not been handed out yet.</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "invoice_sequence")
+public class InvoiceSequence {
+
+    /** Sequence key in the form userId|period */
+    @Id
+    @Column(name = "sequence_key", length = 64)
+    private String sequenceKey;
+
+    /** First sequence value not yet reserved */
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    /** Last update timestamp */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
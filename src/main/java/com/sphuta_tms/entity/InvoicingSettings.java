@@ -1,10 +1,13 @@
 package com.sphuta_tms.entity;
 
+import com.sphuta_tms.constants.AppConstants;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,6 +15,7 @@ import java.time.LocalDateTime;
 /**
  * Entity class representing the invoicing settings for a user.
  * Maps to the table 'settings_invoicing'.
+ * Rows are kept in the second-level cache, so reads by ID are served without a query.
  */
 @Data
 @Builder
@@ -19,6 +23,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "settings_invoicing")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AppConstants.L2_REGION_INVOICING_SETTINGS)
 public class InvoicingSettings {
 
     /** Unique identifier for the user */
@@ -58,6 +64,11 @@ public class InvoicingSettings {
     @Column(name = "logo_file_id", length = 36)
     private String logoFileId;
 
+    /** Optimistic lock version, exposed to clients as the ETag */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /** Last update timestamp */
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
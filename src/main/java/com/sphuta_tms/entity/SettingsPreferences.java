@@ -1,9 +1,12 @@
 package com.sphuta_tms.entity;
 
+import com.sphuta_tms.constants.AppConstants;
 import com.sphuta_tms.constants.Rounding;
 import com.sphuta_tms.constants.WeekStart;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -11,6 +14,7 @@ import java.time.LocalDateTime;
 /**
  * Entity class representing user preferences.
  * Each user has exactly one preferences record stored in this table.
+ * Rows are kept in the second-level cache, so reads by ID are served without a query.
  */
 @Getter
 @Setter
@@ -19,6 +23,8 @@ import java.time.LocalDateTime;
 @Builder
 @Entity
 @Table(name = "settings_preferences")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AppConstants.L2_REGION_PREFERENCES)
 public class SettingsPreferences {
 
     /**
@@ -48,6 +54,14 @@ public class SettingsPreferences {
     @Column(name = "rounding", nullable = false, length = 16)
     private Rounding rounding;
 
+    /**
+     * Optimistic lock version, incremented on every update.
+     * Exposed to clients as the ETag of the record.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Timestamp of the last update.
      * Automatically set when record is updated.
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+import com.sphuta_tms.constants.AppConstants;
 import com.sphuta_tms.util.Constants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +20,7 @@ import org.slf4j.LoggerFactory;
  *   <li>Enforces uniqueness on {@code userId} (1:1 mapping with users table).</li>
  *   <li>Applies default values (from {@link Constants}) if timezone/locale are missing.</li>
  *   <li>Automatically updates {@code updatedAt} timestamp on insert/update.</li>
+ *   <li>Kept in the second-level cache, so reads by ID are served without a query.</li>
  * </ul>
  */
 @Entity
@@ -27,6 +31,8 @@ import org.slf4j.LoggerFactory;
                 columnNames = {"user_id"}
         )
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AppConstants.L2_REGION_PROFILE)
 public class SettingsProfile {
 
     /** Logger instance for lifecycle events */
@@ -53,6 +59,11 @@ public class SettingsProfile {
     @Column(name = "locale", length = 10, nullable = false)
     private String locale;
 
+    /** Optimistic lock version (managed by Hibernate, exposed as the ETag). */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /** Timestamp of last update (managed internally). */
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
@@ -142,6 +153,10 @@ public class SettingsProfile {
         this.locale = locale;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -169,6 +184,7 @@ public class SettingsProfile {
                 ", phone='" + phone + '\'' +
                 ", timezone='" + timezone + '\'' +
                 ", locale='" + locale + '\'' +
+                ", version=" + version +
                 ", updatedAt=" + updatedAt +
                 '}';
     }
@@ -3,8 +3,12 @@ package com.sphuta_tms.exception;
 import com.sphuta_tms.util.SphutaApiResponse;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,7 +19,7 @@ import java.util.stream.Collectors;
 
 /**
  * Global exception handler for the application.
- * Catches exceptions and returns proper ApiResponse with HTTP status codes.
+ * Catches exceptions and returns proper SphutaApiResponse with HTTP status codes.
  */
 @Slf4j
 @ControllerAdvice
@@ -39,6 +43,37 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(SphutaApiResponse.error(ex.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle a failed If-Match precondition.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<SphutaApiResponse<?>> handlePreconditionFailed(PreconditionFailedException ex) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+        return new ResponseEntity<>(SphutaApiResponse.error(ex.getMessage()), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handle a concurrent update detected by the @Version check at flush time.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<SphutaApiResponse<?>> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        return new ResponseEntity<>(
+                SphutaApiResponse.error("The record was modified by another request; reload it and retry"),
+                HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handle a connection pool timeout: the database is saturated, so ask the client to retry.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<SphutaApiResponse<?>> handleConnectionUnavailable(RuntimeException ex) {
+        log.warn("No database connection available: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(SphutaApiResponse.error("The service is busy, please retry"));
+    }
+
     /**
      * Handle bean validation errors (@Valid DTOs).
      */
@@ -0,0 +1,29 @@
+package com.sphuta_tms.repository;
+
+/**
+ * Repository fragment for keeping the second-level cache in step with single-statement writes.
+ *
+ * <p>Hibernate evicts the whole entity region after a bulk JPQL statement, so every user's
+ * cached row would go with one user's PATCH. The settings repositories instead run their
+ * PATCH and DELETE as native statements synchronized on {@link #BULK_WRITE_SPACE}, which no
+ * entity maps, and evict only the row they touched with {@link #evictCached}.</p>
+ */
+public interface CacheEvictingRepository {
+
+    /**
+     * Query space of the single-statement writes. No entity maps it, so Hibernate evicts no
+     * entity region for them; cached rows and query results are evicted explicitly.
+     */
+    String BULK_WRITE_SPACE = "sphuta_settings_bulk_write";
+
+    /**
+     * Evict one row from its entity region, and the cached query results over its table.
+     * Runs now and again when the current transaction completes, so a concurrent read cannot
+     * put back the row as it was before the commit.
+     *
+     * @param entityClass entity of the written row
+     * @param id          ID of the written row
+     * @param queryRegion query cache region of the entity's table
+     */
+    void evictCached(Class<?> entityClass, Object id, String queryRegion);
+}
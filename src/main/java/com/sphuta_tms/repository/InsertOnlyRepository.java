@@ -0,0 +1,25 @@
+package com.sphuta_tms.repository;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Repository fragment adding an insert that never reads first.
+ *
+ * <p>{@code save} picks persist or merge from the entity state, and merging an entity that
+ * looks detached selects its row first. {@link #insert} always persists and flushes, so a
+ * duplicate key is reported by the database at once instead of being checked with a query
+ * beforehand.</p>
+ *
+ * @param <T> entity type
+ */
+public interface InsertOnlyRepository<T> {
+
+    /**
+     * Insert a new row in a single statement.
+     *
+     * @param entity new entity, with its ID assigned
+     * @return the persisted entity
+     * @throws DataIntegrityViolationException if a row with the same key exists
+     */
+    T insert(T entity);
+}
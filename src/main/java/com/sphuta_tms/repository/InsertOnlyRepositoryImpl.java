@@ -0,0 +1,26 @@
+package com.sphuta_tms.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of {@link InsertOnlyRepository}, picked up by Spring Data for every
+ * repository that extends the fragment.
+ *
+ * @param <T> entity type
+ */
+public class InsertOnlyRepositoryImpl<T> implements InsertOnlyRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public T insert(T entity) {
+        entityManager.persist(entity);
+        // Flush now so a duplicate key fails here, where the caller can report it
+        entityManager.flush();
+        return entity;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sphuta_tms.repository;
+
+import com.sphuta_tms.entity.InvoiceSequence;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for InvoiceSequence entity.
+ * Reserves blocks of invoice sequence values with a single upsert per block.
+ */
+@Repository
+public interface InvoiceSequenceRepository extends JpaRepository<InvoiceSequence, String> {
+
+    /**
+     * Advance the high-water mark of a sequence by {@code size}, creating the row on first use.
+     * The upsert keeps the row locked until the surrounding transaction commits. Its query space
+     * is the sequence table alone, which is not cached, so a reservation evicts no cache region.
+     *
+     * @param sequenceKey key in the form userId|period
+     * @param size        number of values to reserve
+     * @return affected row count (1 on insert, 2 on update for MySQL)
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "invoice_sequence"))
+    @Query(value = "INSERT INTO invoice_sequence (sequence_key, next_value, updated_at) "
+            + "VALUES (:sequenceKey, 1 + :size, NOW()) "
+            + "ON DUPLICATE KEY UPDATE next_value = next_value + :size, updated_at = NOW()",
+            nativeQuery = true)
+    int advance(@Param("sequenceKey") String sequenceKey, @Param("size") int size);
+
+    /**
+     * Read the current high-water mark of a sequence.
+     *
+     * @param sequenceKey key in the form userId|period
+     * @return first sequence value not yet reserved
+     */
+    @Query("select s.nextValue from InvoiceSequence s where s.sequenceKey = :sequenceKey")
+    Long findNextValue(@Param("sequenceKey") String sequenceKey);
+}
@@ -1,32 +1,157 @@
 package com.sphuta_tms.repository;
 
 
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.InvoicingSettingsDTO;
 import com.sphuta_tms.entity.InvoicingSettings;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for InvoicingSettings entity.
  * Provides CRUD operations and custom database queries if needed.
  */
 @Repository
-public interface InvoicingSettingsRepository extends JpaRepository<InvoicingSettings, String> {
+public interface InvoicingSettingsRepository
+        extends JpaRepository<InvoicingSettings, String>, InsertOnlyRepository<InvoicingSettings>,
+        CacheEvictingRepository {
 
     /**
      * Find invoicing settings by currency code.
+     * Results are kept in the query cache until the table is written.
      *
      * @param currency the currency code to search for
      * @return Optional containing InvoicingSettings if found
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = AppConstants.L2_REGION_INVOICING_SETTINGS_QUERIES)
+    })
     Optional<InvoicingSettings> findByCurrency(String currency);
 
     /**
      * Check if settings exist for a given template ID.
+     * Results are kept in the query cache until the table is written.
      *
      * @param templateId the template ID to search for
      * @return true if settings exist
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = AppConstants.L2_REGION_INVOICING_SETTINGS_QUERIES)
+    })
     boolean existsByTemplateId(String templateId);
+
+    /**
+     * First keyset page ordered by user ID.
+     *
+     * @param limit maximum number of rows
+     * @return settings with the lowest user IDs
+     */
+    List<InvoicingSettings> findAllByOrderByUserIdAsc(Limit limit);
+
+    /**
+     * Next keyset page: settings with a user ID greater than the cursor.
+     *
+     * @param userId cursor (last user ID of the previous page)
+     * @param limit  maximum number of rows
+     * @return following settings ordered by user ID
+     */
+    List<InvoicingSettings> findByUserIdGreaterThanOrderByUserIdAsc(String userId, Limit limit);
+
+    /**
+     * Stream all settings as DTOs, read through a server-side cursor.
+     * DTO projection keeps the persistence context empty, so memory stays flat.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of all settings ordered by user ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.sphuta_tms.dto.InvoicingSettingsDTO(s.userId, s.currency, s.taxId, s.defaultTaxRate, "
+            + "s.invoiceNumberFormat, s.paymentTermsDays, s.lateFeePercent, s.templateId, s.logoFileId, s.version) "
+            + "from InvoicingSettings s order by s.userId")
+    Stream<InvoicingSettingsDTO> streamAll();
+
+    /**
+     * Partial update in a single statement, without loading the row first.
+     * A null argument keeps the stored value; the version is always incremented.
+     * Only the updated row is evicted from the second-level cache.
+     *
+     * @param expectedVersion only update this version, or null for any version
+     * @return number of rows updated: 0 when the row is missing or at another version
+     */
+    default int patchByUserId(String userId, String currency, String taxId, BigDecimal defaultTaxRate,
+                              String invoiceNumberFormat, Integer paymentTermsDays, BigDecimal lateFeePercent,
+                              String templateId, String logoFileId, LocalDateTime updatedAt, Long expectedVersion) {
+        int rows = patchRowByUserId(userId, currency, taxId, defaultTaxRate, invoiceNumberFormat, paymentTermsDays,
+                lateFeePercent, templateId, logoFileId, updatedAt, expectedVersion);
+        if (rows > 0) {
+            evictCached(InvoicingSettings.class, userId, AppConstants.L2_REGION_INVOICING_SETTINGS_QUERIES);
+        }
+        return rows;
+    }
+
+    /**
+     * Delete in a single statement, without loading the row first.
+     * Only the deleted row is evicted from the second-level cache.
+     *
+     * @param expectedVersion only delete this version, or null for any version
+     * @return number of rows deleted: 0 when the row is missing or at another version
+     */
+    default int deleteByUserId(String userId, Long expectedVersion) {
+        int rows = deleteRowByUserId(userId, expectedVersion);
+        if (rows > 0) {
+            evictCached(InvoicingSettings.class, userId, AppConstants.L2_REGION_INVOICING_SETTINGS_QUERIES);
+        }
+        return rows;
+    }
+
+    /** Statement behind {@link #patchByUserId}. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_WRITE_SPACE))
+    @Query(nativeQuery = true, value = "update settings_invoicing set "
+            + "currency = coalesce(:currency, currency), "
+            + "tax_id = coalesce(:taxId, tax_id), "
+            + "default_tax_rate = coalesce(:defaultTaxRate, default_tax_rate), "
+            + "invoice_number_format = coalesce(:invoiceNumberFormat, invoice_number_format), "
+            + "payment_terms_days = coalesce(:paymentTermsDays, payment_terms_days), "
+            + "late_fee_percent = coalesce(:lateFeePercent, late_fee_percent), "
+            + "template_id = coalesce(:templateId, template_id), "
+            + "logo_file_id = coalesce(:logoFileId, logo_file_id), "
+            + "updated_at = :updatedAt, version = version + 1 "
+            + "where user_id = :userId and (:expectedVersion is null or version = :expectedVersion)")
+    int patchRowByUserId(@Param("userId") String userId,
+                         @Param("currency") String currency,
+                         @Param("taxId") String taxId,
+                         @Param("defaultTaxRate") BigDecimal defaultTaxRate,
+                         @Param("invoiceNumberFormat") String invoiceNumberFormat,
+                         @Param("paymentTermsDays") Integer paymentTermsDays,
+                         @Param("lateFeePercent") BigDecimal lateFeePercent,
+                         @Param("templateId") String templateId,
+                         @Param("logoFileId") String logoFileId,
+                         @Param("updatedAt") LocalDateTime updatedAt,
+                         @Param("expectedVersion") Long expectedVersion);
+
+    /** Statement behind {@link #deleteByUserId}. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_WRITE_SPACE))
+    @Query(nativeQuery = true, value = "delete from settings_invoicing where user_id = :userId "
+            + "and (:expectedVersion is null or version = :expectedVersion)")
+    int deleteRowByUserId(@Param("userId") String userId, @Param("expectedVersion") Long expectedVersion);
 }
@@ -1,21 +1,132 @@
 package com.sphuta_tms.repository;
 
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.PreferencesResponse;
 import com.sphuta_tms.entity.SettingsPreferences;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for SettingsPreferences entity.
  * Provides CRUD operations on the settings_preferences table.
  */
 @Repository
-public interface SettingsPreferencesRepository extends JpaRepository<SettingsPreferences, String> {
+public interface SettingsPreferencesRepository
+        extends JpaRepository<SettingsPreferences, String>, InsertOnlyRepository<SettingsPreferences>,
+        CacheEvictingRepository {
 
     /**
      * Check if a preferences record exists for a given userId.
+     * Results are kept in the query cache until the table is written.
      *
      * @param userId user identifier
      * @return true if record exists, false otherwise
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = AppConstants.L2_REGION_PREFERENCES_QUERIES)
+    })
     boolean existsByUserId(String userId);
+
+    /**
+     * First keyset page ordered by user ID.
+     *
+     * @param limit maximum number of rows
+     * @return preferences with the lowest user IDs
+     */
+    List<SettingsPreferences> findAllByOrderByUserIdAsc(Limit limit);
+
+    /**
+     * Next keyset page: preferences with a user ID greater than the cursor.
+     *
+     * @param userId cursor (last user ID of the previous page)
+     * @param limit  maximum number of rows
+     * @return following preferences ordered by user ID
+     */
+    List<SettingsPreferences> findByUserIdGreaterThanOrderByUserIdAsc(String userId, Limit limit);
+
+    /**
+     * Stream all preferences as response DTOs, read through a server-side cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of all preferences ordered by user ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.sphuta_tms.dto.PreferencesResponse(p.userId, p.dateFormat, p.weekStartsOn, "
+            + "p.rounding, p.updatedAt, p.version) from SettingsPreferences p order by p.userId")
+    Stream<PreferencesResponse> streamAll();
+
+    /**
+     * Partial update in a single statement, without loading the row first.
+     * A null argument keeps the stored value; the version is always incremented.
+     * Only the updated row is evicted from the second-level cache.
+     *
+     * @param expectedVersion only update this version, or null for any version
+     * @return number of rows updated: 0 when the row is missing or at another version
+     */
+    default int patchByUserId(String userId, String dateFormat, WeekStart weekStartsOn, Rounding rounding,
+                              LocalDateTime updatedAt, Long expectedVersion) {
+        int rows = patchRowByUserId(userId, dateFormat,
+                weekStartsOn == null ? null : weekStartsOn.name(),
+                rounding == null ? null : rounding.name(),
+                updatedAt, expectedVersion);
+        if (rows > 0) {
+            evictCached(SettingsPreferences.class, userId, AppConstants.L2_REGION_PREFERENCES_QUERIES);
+        }
+        return rows;
+    }
+
+    /**
+     * Delete in a single statement, without loading the row first.
+     * Only the deleted row is evicted from the second-level cache.
+     *
+     * @param expectedVersion only delete this version, or null for any version
+     * @return number of rows deleted: 0 when the row is missing or at another version
+     */
+    default int deleteByUserId(String userId, Long expectedVersion) {
+        int rows = deleteRowByUserId(userId, expectedVersion);
+        if (rows > 0) {
+            evictCached(SettingsPreferences.class, userId, AppConstants.L2_REGION_PREFERENCES_QUERIES);
+        }
+        return rows;
+    }
+
+    /** Statement behind {@link #patchByUserId}; enums are passed by name. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_WRITE_SPACE))
+    @Query(nativeQuery = true, value = "update settings_preferences set "
+            + "date_format = coalesce(:dateFormat, date_format), "
+            + "week_starts_on = coalesce(:weekStartsOn, week_starts_on), "
+            + "rounding = coalesce(:rounding, rounding), "
+            + "updated_at = :updatedAt, version = version + 1 "
+            + "where user_id = :userId and (:expectedVersion is null or version = :expectedVersion)")
+    int patchRowByUserId(@Param("userId") String userId,
+                         @Param("dateFormat") String dateFormat,
+                         @Param("weekStartsOn") String weekStartsOn,
+                         @Param("rounding") String rounding,
+                         @Param("updatedAt") LocalDateTime updatedAt,
+                         @Param("expectedVersion") Long expectedVersion);
+
+    /** Statement behind {@link #deleteByUserId}. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_WRITE_SPACE))
+    @Query(nativeQuery = true, value = "delete from settings_preferences where user_id = :userId "
+            + "and (:expectedVersion is null or version = :expectedVersion)")
+    int deleteRowByUserId(@Param("userId") String userId, @Param("expectedVersion") Long expectedVersion);
 }
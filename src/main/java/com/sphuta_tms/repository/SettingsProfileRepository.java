@@ -1,10 +1,22 @@
 package com.sphuta_tms.repository;
 
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.SettingsProfileDTO;
 import com.sphuta_tms.entity.SettingsProfile;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for {@link SettingsProfile}.
@@ -15,21 +27,121 @@ import java.util.Optional;
  * </p>
  */
 @Repository
-public interface SettingsProfileRepository extends JpaRepository<SettingsProfile, Long> {
+public interface SettingsProfileRepository
+        extends JpaRepository<SettingsProfile, Long>, InsertOnlyRepository<SettingsProfile>,
+        CacheEvictingRepository {
 
     /**
      * Find a settings profile by user ID.
+     * Results are kept in the query cache until the table is written.
      *
      * @param userId the ID of the user
      * @return an {@link Optional} containing the settings profile if found
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = AppConstants.L2_REGION_PROFILE_QUERIES)
+    })
     Optional<SettingsProfile> findByUserId(Long userId);
 
     /**
      * Check if a settings profile exists for a given user ID.
+     * Results are kept in the query cache until the table is written.
      *
      * @param userId the ID of the user
      * @return true if the profile exists, false otherwise
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = AppConstants.L2_REGION_PROFILE_QUERIES)
+    })
     boolean existsByUserId(Long userId);
+
+    /**
+     * First keyset page ordered by user ID.
+     *
+     * @param limit maximum number of rows
+     * @return profiles with the lowest user IDs
+     */
+    List<SettingsProfile> findAllByOrderByUserIdAsc(Limit limit);
+
+    /**
+     * Next keyset page: profiles with a user ID greater than the cursor.
+     *
+     * @param userId cursor (last user ID of the previous page)
+     * @param limit  maximum number of rows
+     * @return following profiles ordered by user ID
+     */
+    List<SettingsProfile> findByUserIdGreaterThanOrderByUserIdAsc(Long userId, Limit limit);
+
+    /**
+     * Stream all profiles as DTOs, read through a server-side cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of all profiles ordered by user ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.sphuta_tms.dto.SettingsProfileDTO(p.userId, p.fullName, p.phone, p.timezone, p.locale, p.version) "
+            + "from SettingsProfile p order by p.userId")
+    Stream<SettingsProfileDTO> streamAll();
+
+    /**
+     * Partial update in a single statement, without loading the row first.
+     * A null argument keeps the stored value; the version is always incremented.
+     * Only the updated row is evicted from the second-level cache.
+     *
+     * @param expectedVersion only update this version, or null for any version
+     * @return number of rows updated: 0 when the row is missing or at another version
+     */
+    default int patchByUserId(Long userId, String fullName, String phone, String timezone, String locale,
+                              LocalDateTime updatedAt, Long expectedVersion) {
+        int rows = patchRowByUserId(userId, fullName, phone, timezone, locale, updatedAt, expectedVersion);
+        if (rows > 0) {
+            evictCached(SettingsProfile.class, userId, AppConstants.L2_REGION_PROFILE_QUERIES);
+        }
+        return rows;
+    }
+
+    /**
+     * Delete in a single statement, without loading the row first.
+     * Only the deleted row is evicted from the second-level cache.
+     *
+     * @param expectedVersion only delete this version, or null for any version
+     * @return number of rows deleted: 0 when the row is missing or at another version
+     */
+    default int deleteByUserId(Long userId, Long expectedVersion) {
+        int rows = deleteRowByUserId(userId, expectedVersion);
+        if (rows > 0) {
+            evictCached(SettingsProfile.class, userId, AppConstants.L2_REGION_PROFILE_QUERIES);
+        }
+        return rows;
+    }
+
+    /** Statement behind {@link #patchByUserId}. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_WRITE_SPACE))
+    @Query(nativeQuery = true, value = "update settings_profile set "
+            + "full_name = coalesce(:fullName, full_name), "
+            + "phone = coalesce(:phone, phone), "
+            + "timezone = coalesce(:timezone, timezone), "
+            + "locale = coalesce(:locale, locale), "
+            + "updated_at = :updatedAt, version = version + 1 "
+            + "where user_id = :userId and (:expectedVersion is null or version = :expectedVersion)")
+    int patchRowByUserId(@Param("userId") Long userId,
+                         @Param("fullName") String fullName,
+                         @Param("phone") String phone,
+                         @Param("timezone") String timezone,
+                         @Param("locale") String locale,
+                         @Param("updatedAt") LocalDateTime updatedAt,
+                         @Param("expectedVersion") Long expectedVersion);
+
+    /** Statement behind {@link #deleteByUserId}. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BULK_WRITE_SPACE))
+    @Query(nativeQuery = true, value = "delete from settings_profile where user_id = :userId "
+            + "and (:expectedVersion is null or version = :expectedVersion)")
+    int deleteRowByUserId(@Param("userId") Long userId, @Param("expectedVersion") Long expectedVersion);
 }
@@ -0,0 +1,18 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.dto.EffectiveSettingsDTO;
+
+/**
+ * Service interface for reading all settings of a user in one call.
+ */
+public interface EffectiveSettingsService {
+
+    /**
+     * Load invoicing settings, preferences and profile of a user.
+     *
+     * @param userId user ID; the profile is only looked up when it is numeric
+     * @return composed EffectiveSettingsDTO
+     * @throws com.sphuta_tms.exception.ResourceNotFoundException if the user has no settings at all
+     */
+    EffectiveSettingsDTO getEffectiveSettings(String userId);
+}
@@ -0,0 +1,45 @@
+package com.sphuta_tms.service;
+
+/**
+ * Service interface for issuing invoice numbers from a user's invoice number format.
+ */
+public interface InvoiceNumberService {
+
+    /**
+     * Issue the next invoice number for a user on its own, e.g. for the standalone endpoint.
+     * Only available in GAP_TOLERANT mode: a number issued outside the invoice's transaction
+     * is lost if the invoice is never stored.
+     *
+     * @param userId unique identifier of the user
+     * @return rendered invoice number, e.g. INV-202600042
+     * @throws com.sphuta_tms.exception.ValidationException in GAPLESS mode
+     */
+    String nextInvoiceNumber(String userId);
+
+    /**
+     * Issue the next invoice number inside the caller's transaction, which must also persist
+     * the invoice. In GAPLESS mode the sequence row stays locked until that transaction ends
+     * and a rollback returns the number, so only stored invoices consume numbers.
+     *
+     * @param userId unique identifier of the user
+     * @return rendered invoice number, e.g. INV-202600042
+     * @throws org.springframework.transaction.IllegalTransactionStateException if no transaction is active
+     */
+    String issueInvoiceNumber(String userId);
+
+    /**
+     * Validate an invoice number format, compiling and caching it for later use.
+     *
+     * @param invoiceNumberFormat format string, e.g. INV-${yyyy}${seq:5}
+     * @throws com.sphuta_tms.exception.ValidationException if the format is invalid
+     */
+    void validateFormat(String invoiceNumberFormat);
+
+    /**
+     * Discard cached format and sequence state of a user.
+     * Must be called whenever the user's invoicing settings change.
+     *
+     * @param userId unique identifier of the user
+     */
+    void evict(String userId);
+}
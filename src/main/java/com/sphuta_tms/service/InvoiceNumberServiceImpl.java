@@ -0,0 +1,98 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.entity.InvoicingSettings;
+import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.exception.ValidationException;
+import com.sphuta_tms.repository.InvoicingSettingsRepository;
+import com.sphuta_tms.util.InvoiceNumberFormatCache;
+import com.sphuta_tms.util.InvoiceNumberGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+
+/**
+ * Service Implementation for issuing invoice numbers.
+ * Formats are loaded once per user and compiled once per format string; sequence
+ * values come from in-memory blocks so most calls do not touch the database.
+ * In GAPLESS mode numbers are only issued inside the transaction that persists the invoice.
+ */
+@Service
+@Slf4j
+public class InvoiceNumberServiceImpl implements InvoiceNumberService {
+
+    private final InvoicingSettingsRepository settingsRepository;
+
+    private final InvoiceNumberFormatCache formats;
+
+    private final InvoiceNumberGenerator generator;
+
+    private final InvoiceNumberGenerator.Mode mode;
+
+    public InvoiceNumberServiceImpl(InvoicingSettingsRepository settingsRepository,
+                                    InvoiceSequenceAllocator allocator,
+                                    @Value("${sphuta.invoice-number.mode:GAP_TOLERANT}") InvoiceNumberGenerator.Mode mode,
+                                    @Value("${sphuta.invoice-number.block-size:100}") int blockSize,
+                                    @Value("${sphuta.invoice-number.format-cache-size:1024}") int formatCacheSize) {
+        this.settingsRepository = settingsRepository;
+        this.mode = mode;
+        this.formats = new InvoiceNumberFormatCache(formatCacheSize);
+        InvoiceNumberGenerator.SequenceReserver reserver = mode == InvoiceNumberGenerator.Mode.GAPLESS
+                ? (key, size) -> allocator.reserveInCurrentTransaction(key)
+                : allocator::reserveBlock;
+        this.generator = new InvoiceNumberGenerator(reserver, mode, blockSize, Clock.systemDefaultZone(), formats);
+        log.info("Invoice number generator initialized with mode={} blockSize={}", mode, blockSize);
+    }
+
+    /**
+     * Issue the next invoice number for a user outside any invoice transaction (GAP_TOLERANT only).
+     */
+    @Override
+    public String nextInvoiceNumber(String userId) {
+        if (mode == InvoiceNumberGenerator.Mode.GAPLESS) {
+            throw new ValidationException("Invoice numbers are issued with the invoice in GAPLESS mode; "
+                    + "standalone issuing is only available in GAP_TOLERANT mode");
+        }
+        return issue(userId);
+    }
+
+    /**
+     * Issue the next invoice number inside the caller's invoice transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String issueInvoiceNumber(String userId) {
+        return issue(userId);
+    }
+
+    private String issue(String userId) {
+        String invoiceNumber = generator.next(userId, this::loadFormat);
+        log.debug("Issued invoice number {} for userId={}", invoiceNumber, userId);
+        return invoiceNumber;
+    }
+
+    /**
+     * Validate a format by compiling it into the shared format cache.
+     */
+    @Override
+    public void validateFormat(String invoiceNumberFormat) {
+        formats.compile(invoiceNumberFormat);
+    }
+
+    /**
+     * Discard cached format and sequence state of a user.
+     */
+    @Override
+    public void evict(String userId) {
+        generator.evict(userId);
+    }
+
+    private String loadFormat(String userId) {
+        return settingsRepository.findById(userId)
+                .map(InvoicingSettings::getInvoiceNumberFormat)
+                .orElseThrow(() -> new ResourceNotFoundException("Settings not found for userId: " + userId));
+    }
+}
@@ -0,0 +1,54 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.repository.InvoiceSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserves ranges of invoice sequence values in the {@code invoice_sequence} table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InvoiceSequenceAllocator {
+
+    private final InvoiceSequenceRepository repository;
+
+    /**
+     * Reserve a block in its own transaction so the row lock is released immediately
+     * and the reservation survives a rollback of the caller (gap-tolerant mode).
+     *
+     * @param sequenceKey key in the form userId|period
+     * @param size        number of values to reserve
+     * @return first reserved value
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserveBlock(String sequenceKey, int size) {
+        return advance(sequenceKey, size);
+    }
+
+    /**
+     * Reserve a single value inside the caller's transaction (gapless mode).
+     * The row stays locked until the caller commits, and a rollback releases the value.
+     * Without a transaction the value would be committed on its own before any invoice
+     * exists, so one is required.
+     *
+     * @param sequenceKey key in the form userId|period
+     * @return reserved value
+     * @throws org.springframework.transaction.IllegalTransactionStateException if no transaction is active
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long reserveInCurrentTransaction(String sequenceKey) {
+        return advance(sequenceKey, 1);
+    }
+
+    private long advance(String sequenceKey, int size) {
+        repository.advance(sequenceKey, size);
+        long first = repository.findNextValue(sequenceKey) - size;
+        log.debug("Reserved invoice sequence block key={} first={} size={}", sequenceKey, first, size);
+        return first;
+    }
+}
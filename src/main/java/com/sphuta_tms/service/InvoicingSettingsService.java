@@ -1,10 +1,14 @@
 package com.sphuta_tms.service;
 
 
+import com.sphuta_tms.dto.BulkUpsertResultDTO;
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.InvoicingSettingsDTO;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing invoicing settings.
@@ -19,6 +23,22 @@ public interface InvoicingSettingsService {
      */
     List<InvoicingSettingsDTO> getAllSettings();
 
+    /**
+     * Fetch one keyset page of invoicing settings ordered by user ID.
+     *
+     * @param afterUserId cursor from the previous page, or null for the first page
+     * @param size        page size (1..1000)
+     * @return page of InvoicingSettingsDTO with the next cursor
+     */
+    CursorPageDTO<InvoicingSettingsDTO> getSettingsPage(String afterUserId, int size);
+
+    /**
+     * Stream all invoicing settings ordered by user ID without materializing them.
+     *
+     * @param consumer receives every InvoicingSettingsDTO in order
+     */
+    void streamAllSettings(Consumer<InvoicingSettingsDTO> consumer);
+
     /**
      * Fetch invoicing settings by user ID.
      *
@@ -40,23 +60,39 @@ public interface InvoicingSettingsService {
      *
      * @param userId unique identifier of the user
      * @param invoicingSettingsDTO DTO containing updated settings
+     * @param expectedVersion version from If-Match, or null for an unconditional update
      * @return Updated InvoicingSettingsDTO
      */
-    InvoicingSettingsDTO updateSettings(String userId, InvoicingSettingsDTO invoicingSettingsDTO);
+    InvoicingSettingsDTO updateSettings(String userId, InvoicingSettingsDTO invoicingSettingsDTO, Long expectedVersion);
 
     /**
      * Partially update invoicing settings (PATCH).
      *
      * @param userId unique identifier of the user
      * @param invoicingSettingsDTO DTO containing fields to update
+     * @param expectedVersion version from If-Match, or null for an unconditional update
      * @return Updated InvoicingSettingsDTO
      */
-    InvoicingSettingsDTO patchSettings(String userId, InvoicingSettingsDTO invoicingSettingsDTO);
+    InvoicingSettingsDTO patchSettings(String userId, InvoicingSettingsDTO invoicingSettingsDTO, Long expectedVersion);
 
     /**
      * Delete invoicing settings by user ID.
      *
      * @param userId unique identifier of the user
+     * @param expectedVersion version from If-Match, or null for an unconditional delete
+     */
+    void deleteSettings(String userId, Long expectedVersion);
+
+    /**
+     * Insert or fully replace many invoicing settings at once.
+     * Rows are read one at a time and written in JDBC batches, one transaction per batch;
+     * a row that fails validation or cannot be written is reported and does not stop the
+     * others. An exception from the iterator (e.g. a malformed body) stops the upsert; batches
+     * written before that point stay written. Rows past the row limit are not read, and the
+     * result is marked truncated.
+     *
+     * @param settings rows to upsert, keyed by user ID
+     * @return per-row results in request order, for the rows read
      */
-    void deleteSettings(String userId);
+    BulkUpsertResultDTO bulkUpsertSettings(Iterator<InvoicingSettingsDTO> settings);
 }
@@ -1,18 +1,49 @@
 package com.sphuta_tms.service;
 
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.constants.BulkRowStatus;
+import com.sphuta_tms.dto.BulkRowResultDTO;
+import com.sphuta_tms.dto.BulkUpsertResultDTO;
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.InvoicingSettingsDTO;
 import com.sphuta_tms.entity.InvoicingSettings;
+import com.sphuta_tms.exception.PreconditionFailedException;
 import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.exception.ValidationException;
 import com.sphuta_tms.repository.InvoicingSettingsRepository;
+import com.sphuta_tms.util.KeysetPaging;
 import com.sphuta_tms.util.ResponseMapper;
+import com.sphuta_tms.util.SettingsMetrics;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service Implementation for managing invoicing settings.
@@ -23,54 +54,134 @@ import java.util.stream.Collectors;
 @Transactional
 public class InvoicingSettingsServiceImpl implements InvoicingSettingsService {
 
+    private static final String RESOURCE = "invoicing";
+
     @Autowired
     private InvoicingSettingsRepository repository;
 
     @Autowired
     private ResponseMapper mapper;
 
+    @Autowired
+    private InvoiceNumberService invoiceNumberService;
+
+    @Autowired
+    private SettingsMetrics metrics;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Rows per JDBC batch and per transaction; keep equal to hibernate.jdbc.batch_size. */
+    @Value("${sphuta.bulk.batch-size:500}")
+    private int bulkBatchSize;
+
+    /** Upper bound on rows accepted by one bulk request. */
+    @Value("${sphuta.bulk.max-rows:100000}")
+    private int bulkMaxRows;
+
     /**
      * Fetch all invoicing settings.
      */
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "get_all"})
+    @Transactional(readOnly = true)
     public List<InvoicingSettingsDTO> getAllSettings() {
         log.info("Fetching all invoicing settings");
-        return repository.findAll()
-                .stream()
+        List<InvoicingSettings> entities = repository.findAll();
+        return metrics.mapping(RESOURCE, () -> entities.stream()
                 .map(mapper::toDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Fetch one keyset page of invoicing settings.
+     */
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "get_page"})
+    @Transactional(readOnly = true)
+    public CursorPageDTO<InvoicingSettingsDTO> getSettingsPage(String afterUserId, int size) {
+        log.info("Fetching invoicing settings page after={} size={}", afterUserId, size);
+        List<InvoicingSettings> rows = afterUserId == null
+                ? repository.findAllByOrderByUserIdAsc(KeysetPaging.limit(size))
+                : repository.findByUserIdGreaterThanOrderByUserIdAsc(afterUserId, KeysetPaging.limit(size));
+        return metrics.mapping(RESOURCE, () -> KeysetPaging.page(rows, size, mapper::toDTO, InvoicingSettingsDTO::userId));
+    }
+
+    /**
+     * Stream all invoicing settings.
+     */
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "stream"})
+    @Transactional(readOnly = true)
+    public void streamAllSettings(Consumer<InvoicingSettingsDTO> consumer) {
+        log.info("Streaming all invoicing settings");
+        try (Stream<InvoicingSettingsDTO> stream = repository.streamAll()) {
+            stream.forEach(consumer);
+        }
     }
 
     /**
      * Fetch invoicing settings by user ID.
      */
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "get"})
+    @Cacheable(cacheNames = AppConstants.CACHE_INVOICING_SETTINGS, key = "#userId")
+    // Not read-only: a cached result must come from the primary, never from a lagging replica
+    @Transactional
     public Optional<InvoicingSettingsDTO> getSettingsByUserId(String userId) {
-        log.info("Fetching invoicing settings for userId={}", userId);
-        return repository.findById(userId)
-                .map(mapper::toDTO);
+        log.debug("Fetching invoicing settings for userId={}", userId);
+        Optional<InvoicingSettings> entity = repository.findById(userId);
+        if (entity.isEmpty()) {
+            metrics.notFound(RESOURCE, "get");
+        }
+        return entity.map(e -> metrics.mapping(RESOURCE, () -> mapper.toDTO(e)));
     }
 
     /**
      * Create new invoicing settings.
+     *
+     * One INSERT without a prior lookup; the primary key rejects a second row for the user.
      */
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "create"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_INVOICING_SETTINGS, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#dto.userId()")
     public InvoicingSettingsDTO createSettings(InvoicingSettingsDTO dto) {
         log.info("Creating new invoicing settings for userId={}", dto.userId());
-        InvoicingSettings entity = mapper.toEntity(dto);
-        InvoicingSettings saved = repository.save(entity);
+        invoiceNumberService.validateFormat(dto.invoiceNumberFormat());
+        InvoicingSettings entity = metrics.mapping(RESOURCE, () -> mapper.toEntity(dto));
+        InvoicingSettings saved;
+        try {
+            saved = repository.insert(entity);
+        } catch (DataIntegrityViolationException ex) {
+            throw metrics.conflict(RESOURCE, "create",
+                    new IllegalArgumentException("Settings already exist for userId: " + dto.userId()));
+        }
         log.debug("Invoicing settings created: {}", saved);
-        return mapper.toDTO(saved);
+        return metrics.mapping(RESOURCE, () -> mapper.toDTO(saved));
     }
 
     /**
      * Update existing invoicing settings completely (PUT).
      */
     @Override
-    public InvoicingSettingsDTO updateSettings(String userId, InvoicingSettingsDTO dto) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "update"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_INVOICING_SETTINGS, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#userId")
+    public InvoicingSettingsDTO updateSettings(String userId, InvoicingSettingsDTO dto, Long expectedVersion) {
         log.info("Updating invoicing settings for userId={}", userId);
+        invoiceNumberService.validateFormat(dto.invoiceNumberFormat());
         InvoicingSettings existing = repository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Settings not found for userId: " + userId));
+                .orElseThrow(() -> metrics.notFound(RESOURCE, "update",
+                        new ResourceNotFoundException("Settings not found for userId: " + userId)));
+        requireVersion("update", existing, expectedVersion);
 
         // Replace all fields
         existing.setCurrency(dto.currency());
@@ -83,47 +194,238 @@ public class InvoicingSettingsServiceImpl implements InvoicingSettingsService {
         existing.setLogoFileId(dto.logoFileId());
         existing.setUpdatedAt(java.time.LocalDateTime.now());
 
-        InvoicingSettings updated = repository.save(existing);
+        // Flush so the returned DTO carries the incremented version (the new ETag)
+        InvoicingSettings updated = repository.saveAndFlush(existing);
+        invoiceNumberService.evict(userId);
         log.debug("Invoicing settings updated: {}", updated);
-        return mapper.toDTO(updated);
+        return metrics.mapping(RESOURCE, () -> mapper.toDTO(updated));
     }
 
     /**
      * Partially update invoicing settings (PATCH).
+     *
+     * The write is one UPDATE that only changes the provided fields; its row count
+     * doubles as the existence and version check, so the row is not loaded first.
      */
     @Override
-    public InvoicingSettingsDTO patchSettings(String userId, InvoicingSettingsDTO dto) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "patch"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_INVOICING_SETTINGS, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#userId")
+    public InvoicingSettingsDTO patchSettings(String userId, InvoicingSettingsDTO dto, Long expectedVersion) {
         log.info("Patching invoicing settings for userId={}", userId);
-        InvoicingSettings existing = repository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Settings not found for userId: " + userId));
-
-        // Only update non-null fields
-        if (dto.currency() != null) existing.setCurrency(dto.currency());
-        if (dto.taxId() != null) existing.setTaxId(dto.taxId());
-        if (dto.defaultTaxRate() != null) existing.setDefaultTaxRate(dto.defaultTaxRate());
-        if (dto.invoiceNumberFormat() != null) existing.setInvoiceNumberFormat(dto.invoiceNumberFormat());
-        if (dto.paymentTermsDays() != null) existing.setPaymentTermsDays(dto.paymentTermsDays());
-        if (dto.lateFeePercent() != null) existing.setLateFeePercent(dto.lateFeePercent());
-        if (dto.templateId() != null) existing.setTemplateId(dto.templateId());
-        if (dto.logoFileId() != null) existing.setLogoFileId(dto.logoFileId());
-        existing.setUpdatedAt(java.time.LocalDateTime.now());
+        if (dto.invoiceNumberFormat() != null) invoiceNumberService.validateFormat(dto.invoiceNumberFormat());
+
+        // Only non-null fields change
+        int rows = repository.patchByUserId(userId, dto.currency(), dto.taxId(), dto.defaultTaxRate(),
+                dto.invoiceNumberFormat(), dto.paymentTermsDays(), dto.lateFeePercent(), dto.templateId(),
+                dto.logoFileId(), LocalDateTime.now(), expectedVersion);
+        if (rows == 0) {
+            throw writeMissed("patch", userId, expectedVersion);
+        }
+        invoiceNumberService.evict(userId);
 
-        InvoicingSettings patched = repository.save(existing);
+        // The response carries the whole row and MySQL has no UPDATE ... RETURNING
+        InvoicingSettings patched = repository.findById(userId)
+                .orElseThrow(() -> metrics.notFound(RESOURCE, "patch",
+                        new ResourceNotFoundException("Settings not found for userId: " + userId)));
         log.debug("Invoicing settings patched: {}", patched);
-        return mapper.toDTO(patched);
+        return metrics.mapping(RESOURCE, () -> mapper.toDTO(patched));
     }
 
     /**
      * Delete invoicing settings by user ID.
+     *
+     * One DELETE; its row count doubles as the existence and version check.
      */
     @Override
-    public void deleteSettings(String userId) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "delete"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_INVOICING_SETTINGS, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#userId")
+    public void deleteSettings(String userId, Long expectedVersion) {
         log.info("Deleting invoicing settings for userId={}", userId);
-        if (!repository.existsById(userId)) {
-            log.warn("Settings not found for userId={}", userId);
-            throw new ResourceNotFoundException("Settings not found for userId: " + userId);
+        if (repository.deleteByUserId(userId, expectedVersion) == 0) {
+            throw writeMissed("delete", userId, expectedVersion);
         }
-        repository.deleteById(userId);
+        invoiceNumberService.evict(userId);
         log.info("Invoicing settings deleted for userId={}", userId);
     }
+
+    /**
+     * Bulk insert-or-replace of invoicing settings.
+     *
+     * Rows are consumed as they are parsed, so only the current batch is held in memory.
+     * Existing rows of a batch are loaded with one IN query and updated through dirty
+     * checking; new rows are persisted directly, so no per-row SELECT is issued by merge.
+     * Each batch is flushed and cleared in its own transaction, which keeps the
+     * persistence context small and lets Hibernate send one JDBC batch per statement type.
+     * A batch that fails is split in halves and retried, so only the rows that fail on
+     * their own are reported as failed. Reading stops at the row limit and the rows read
+     * so far are reported, since earlier batches are already committed.
+     */
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "invoicing", "operation", "bulk_upsert"})
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpsertResultDTO bulkUpsertSettings(Iterator<InvoicingSettingsDTO> settings) {
+        log.info("Bulk upserting invoicing settings");
+        List<BulkRowResultDTO> results = new ArrayList<>();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Set<String> seen = new HashSet<>();
+        List<BulkRow> batch = new ArrayList<>(bulkBatchSize);
+        boolean truncated = false;
+
+        for (int i = 0; settings.hasNext(); i++) {
+            if (i == bulkMaxRows) {
+                log.warn("Bulk upsert stopped at the limit of {} rows; the rest of the request was not read", bulkMaxRows);
+                truncated = true;
+                break;
+            }
+            InvoicingSettingsDTO dto = settings.next();
+            String error = validateBulkRow(dto, seen);
+            results.add(error == null ? null
+                    : new BulkRowResultDTO(i, dto == null ? null : dto.userId(), BulkRowStatus.FAILED, error));
+            if (error != null) {
+                continue;
+            }
+            batch.add(new BulkRow(i, dto));
+            if (batch.size() == bulkBatchSize) {
+                writeBatch(transaction, batch, results, false);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(transaction, batch, results, false);
+        }
+
+        int created = 0, updated = 0, failed = 0;
+        for (BulkRowResultDTO result : results) {
+            switch (result.status()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case FAILED -> failed++;
+            }
+        }
+        log.info("Bulk upsert of {} rows finished: created={}, updated={}, failed={}",
+                results.size(), created, updated, failed);
+        return new BulkUpsertResultDTO(results.size(), created, updated, failed, truncated, results);
+    }
+
+    /**
+     * Validate one bulk row; returns the failure reason or null when the row is valid.
+     */
+    private String validateBulkRow(InvoicingSettingsDTO dto, Set<String> seen) {
+        if (dto == null) {
+            return "Row must not be null";
+        }
+        Set<ConstraintViolation<InvoicingSettingsDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            invoiceNumberService.validateFormat(dto.invoiceNumberFormat());
+        } catch (ValidationException ex) {
+            return ex.getMessage();
+        }
+        if (!seen.add(dto.userId())) {
+            return "Duplicate userId in request: " + dto.userId();
+        }
+        return null;
+    }
+
+    /**
+     * Write one batch in its own transaction and record a result for each of its rows.
+     * When the batch fails, its halves are written separately, down to single rows. The
+     * stack trace is logged once, for the batch as submitted; retries of its halves
+     * ({@code split}) log only the message.
+     */
+    private void writeBatch(TransactionTemplate transaction, List<BulkRow> batch, List<BulkRowResultDTO> results,
+                            boolean split) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                List<String> ids = batch.stream().map(row -> row.dto().userId()).toList();
+                Map<String, InvoicingSettings> existing = new HashMap<>();
+                repository.findAllById(ids).forEach(e -> existing.put(e.getUserId(), e));
+
+                for (BulkRow row : batch) {
+                    InvoicingSettingsDTO dto = row.dto();
+                    InvoicingSettings current = existing.get(dto.userId());
+                    if (current == null) {
+                        entityManager.persist(mapper.toEntity(dto));
+                        results.set(row.index(), new BulkRowResultDTO(row.index(), dto.userId(), BulkRowStatus.CREATED, null));
+                    } else {
+                        current.setCurrency(dto.currency());
+                        current.setTaxId(dto.taxId());
+                        current.setDefaultTaxRate(dto.defaultTaxRate());
+                        current.setInvoiceNumberFormat(dto.invoiceNumberFormat());
+                        current.setPaymentTermsDays(dto.paymentTermsDays());
+                        current.setLateFeePercent(dto.lateFeePercent());
+                        current.setTemplateId(dto.templateId());
+                        current.setLogoFileId(dto.logoFileId());
+                        current.setUpdatedAt(LocalDateTime.now());
+                        results.set(row.index(), new BulkRowResultDTO(row.index(), dto.userId(), BulkRowStatus.UPDATED, null));
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+
+                // Transaction-aware caches apply these evictions after commit
+                for (String id : ids) {
+                    cacheManager.getCache(AppConstants.CACHE_INVOICING_SETTINGS).evict(id);
+                    cacheManager.getCache(AppConstants.CACHE_EFFECTIVE_SETTINGS).evict(id);
+                }
+            });
+            for (BulkRow row : batch) {
+                if (results.get(row.index()).status() == BulkRowStatus.UPDATED) {
+                    invoiceNumberService.evict(row.dto().userId());
+                }
+            }
+        } catch (RuntimeException ex) {
+            if (!split) {
+                log.warn("Bulk upsert batch of {} rows failed starting at index {}",
+                        batch.size(), batch.get(0).index(), ex);
+            }
+            if (batch.size() > 1) {
+                int half = batch.size() / 2;
+                writeBatch(transaction, batch.subList(0, half), results, true);
+                writeBatch(transaction, batch.subList(half, batch.size()), results, true);
+                return;
+            }
+            BulkRow row = batch.get(0);
+            log.error("Bulk upsert row at index {} failed for userId={}: {}", row.index(), row.dto().userId(), ex.toString());
+            results.set(row.index(), new BulkRowResultDTO(row.index(), row.dto().userId(), BulkRowStatus.FAILED,
+                    "Write failed: " + ex.getMessage()));
+        }
+    }
+
+    /** A valid bulk row and its position in the request. */
+    private record BulkRow(int index, InvoicingSettingsDTO dto) {
+    }
+
+    /**
+     * Explain why a single-statement patch or delete matched no row: a stale If-Match version
+     * when the row still exists, otherwise a missing row.
+     */
+    private RuntimeException writeMissed(String operation, String userId, Long expectedVersion) {
+        if (expectedVersion != null && repository.existsById(userId)) {
+            log.warn("Version mismatch for userId={}: expected={}", userId, expectedVersion);
+            return metrics.conflict(RESOURCE, operation, new PreconditionFailedException(
+                    "Settings for userId " + userId + " have changed since version " + expectedVersion));
+        }
+        log.warn("Settings not found for userId={}", userId);
+        return metrics.notFound(RESOURCE, operation,
+                new ResourceNotFoundException("Settings not found for userId: " + userId));
+    }
+
+    /**
+     * Reject a conditional write when the stored row is no longer at the version the client read.
+     */
+    private void requireVersion(String operation, InvoicingSettings existing, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(existing.getVersion())) {
+            log.warn("Version mismatch for userId={}: expected={} actual={}",
+                    existing.getUserId(), expectedVersion, existing.getVersion());
+            throw metrics.conflict(RESOURCE, operation, new PreconditionFailedException(
+                    "Settings for userId " + existing.getUserId() + " have changed (current version "
+                            + existing.getVersion() + ")"));
+        }
+    }
 }
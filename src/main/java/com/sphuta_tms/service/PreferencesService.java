@@ -1,10 +1,12 @@
 package com.sphuta_tms.service;
 
 
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.PreferencesRequest;
 import com.sphuta_tms.dto.PreferencesResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing user preferences.
@@ -35,28 +37,56 @@ public interface PreferencesService {
      */
     List<PreferencesResponse> getAllPreferences();
 
+    /**
+     * Get one keyset page of preferences ordered by user ID.
+     *
+     * @param afterUserId cursor from the previous page, or null for the first page
+     * @param size        page size (1..1000)
+     * @return page of PreferencesResponse with the next cursor
+     */
+    CursorPageDTO<PreferencesResponse> getPreferencesPage(String afterUserId, int size);
+
+    /**
+     * Stream all preferences ordered by user ID without materializing them.
+     *
+     * @param consumer receives every PreferencesResponse in order
+     */
+    void streamAllPreferences(Consumer<PreferencesResponse> consumer);
+
     /**
      * Update (replace) preferences for a user.
      *
      * @param userId  user identifier
      * @param request PreferencesRequest DTO
+     * @param expectedVersion version from If-Match, or null for an unconditional update
      * @return updated PreferencesResponse
      */
-    PreferencesResponse updatePreferences(String userId, PreferencesRequest request);
+    PreferencesResponse updatePreferences(String userId, PreferencesRequest request, Long expectedVersion);
 
     /**
      * Partially update preferences (PATCH).
      *
      * @param userId  user identifier
      * @param request PreferencesRequest DTO (only non-null fields are updated)
+     * @param expectedVersion version from If-Match, or null for an unconditional update
      * @return updated PreferencesResponse
      */
-    PreferencesResponse patchPreferences(String userId, PreferencesRequest request);
+    PreferencesResponse patchPreferences(String userId, PreferencesRequest request, Long expectedVersion);
 
     /**
      * Delete preferences by user ID.
      *
      * @param userId user identifier
+     * @param expectedVersion version from If-Match, or null for an unconditional delete
+     */
+    void deletePreferences(String userId, Long expectedVersion);
+
+    /**
+     * Round time-entry durations using the user's rounding preference.
+     *
+     * @param userId          user identifier
+     * @param durationMinutes durations in minutes (not modified)
+     * @return rounded durations in minutes, same order as the input
      */
-    void deletePreferences(String userId);
+    long[] roundDurations(String userId, long[] durationMinutes);
 }
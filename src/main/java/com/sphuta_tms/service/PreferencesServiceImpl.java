@@ -2,18 +2,34 @@ package com.sphuta_tms.service;
 
 
 import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.PreferencesRequest;
 import com.sphuta_tms.dto.PreferencesResponse;
 import com.sphuta_tms.entity.SettingsPreferences;
+import com.sphuta_tms.exception.PreconditionFailedException;
 import com.sphuta_tms.exception.ResourceNotFoundException;
 import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.util.DateFormatRegistry;
+import com.sphuta_tms.util.KeysetPaging;
 import com.sphuta_tms.util.PreferencesMapper;
+import com.sphuta_tms.util.RoundingEngine;
+import com.sphuta_tms.util.SettingsMetrics;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service implementation for managing user preferences.
@@ -23,6 +39,8 @@ import java.util.Optional;
 @Service
 public class PreferencesServiceImpl implements PreferencesService {
 
+    private static final String RESOURCE = "preferences";
+
     /**
      * Repository for performing CRUD operations on
      * {@link SettingsPreferences} entities.
@@ -39,83 +57,226 @@ public class PreferencesServiceImpl implements PreferencesService {
     @Autowired
     private PreferencesMapper mapper;
 
+    /**
+     * Mapping-time and outcome meters.
+     */
+    @Autowired
+    private SettingsMetrics metrics;
+
+    /**
+     * Validates stored date formats and keeps their compiled formatters.
+     */
+    @Autowired
+    private DateFormatRegistry dateFormats;
+
+    /**
+     * Queues unconditional patches when write-behind is enabled.
+     */
+    @Autowired
+    private SettingsWriteBehind writeBehind;
+
+    /**
+     * Opens the transactions of methods that flush the user's queued patch first.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "create"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_PREFERENCES, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#request.userId()")
     public PreferencesResponse createPreferences(PreferencesRequest request) {
         log.info("Creating preferences for userId={}", request.userId());
 
-        if (repository.existsByUserId(request.userId())) {
-            throw new IllegalArgumentException("Preferences already exist for userId=" + request.userId());
-        }
+        dateFormats.validate(request.dateFormat());
 
-        SettingsPreferences entity = mapper.toEntity(request);
-        SettingsPreferences saved = repository.save(entity);
+        SettingsPreferences entity = metrics.mapping(RESOURCE, () -> mapper.toEntity(request));
+        SettingsPreferences saved;
+        try {
+            // One INSERT; the primary key rejects a second row for the user
+            saved = repository.insert(entity);
+        } catch (DataIntegrityViolationException ex) {
+            throw metrics.conflict(RESOURCE, "create",
+                    new IllegalArgumentException("Preferences already exist for userId=" + request.userId()));
+        }
 
         log.debug("Preferences created successfully for userId={}", saved.getUserId());
-        return mapper.toResponse(saved);
+        return metrics.mapping(RESOURCE, () -> mapper.toResponse(saved));
     }
 
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "get"})
+    @Cacheable(cacheNames = AppConstants.CACHE_PREFERENCES, key = "#userId")
     public PreferencesResponse getPreferences(String userId) {
-        log.info("Fetching preferences for userId={}", userId);
+        log.debug("Fetching preferences for userId={}", userId);
+        writeBehind.flushPreferencesBeforeRead(userId);
 
-        SettingsPreferences entity = repository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND));
+        // Not read-only: a cached result must come from the primary, never from a lagging replica
+        return transaction().execute(status -> {
+            SettingsPreferences entity = repository.findById(userId)
+                    .orElseThrow(() -> metrics.notFound(RESOURCE, "get",
+                            new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND)));
 
-        return mapper.toResponse(entity);
+            return metrics.mapping(RESOURCE, () -> mapper.toResponse(entity));
+        });
     }
 
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "get_all"})
+    @Transactional(readOnly = true)
     public List<PreferencesResponse> getAllPreferences() {
         log.info("Fetching all preferences records");
-        return repository.findAll()
-                .stream()
+        List<SettingsPreferences> entities = repository.findAll();
+        return metrics.mapping(RESOURCE, () -> entities.stream()
                 .map(mapper::toResponse)
-                .toList();
+                .toList());
+    }
+
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "get_page"})
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PreferencesResponse> getPreferencesPage(String afterUserId, int size) {
+        log.info("Fetching preferences page after={} size={}", afterUserId, size);
+        List<SettingsPreferences> rows = afterUserId == null
+                ? repository.findAllByOrderByUserIdAsc(KeysetPaging.limit(size))
+                : repository.findByUserIdGreaterThanOrderByUserIdAsc(afterUserId, KeysetPaging.limit(size));
+        return metrics.mapping(RESOURCE, () -> KeysetPaging.page(rows, size, mapper::toResponse, PreferencesResponse::userId));
+    }
+
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "stream"})
+    @Transactional(readOnly = true)
+    public void streamAllPreferences(Consumer<PreferencesResponse> consumer) {
+        log.info("Streaming all preferences records");
+        try (Stream<PreferencesResponse> stream = repository.streamAll()) {
+            stream.forEach(consumer);
+        }
     }
 
     @Override
-    public PreferencesResponse updatePreferences(String userId, PreferencesRequest request) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "update"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_PREFERENCES, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#userId")
+    public PreferencesResponse updatePreferences(String userId, PreferencesRequest request, Long expectedVersion) {
         log.info("Updating preferences for userId={}", userId);
+        dateFormats.validate(request.dateFormat());
+        writeBehind.flushPreferences(userId);
 
-        SettingsPreferences entity = repository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND));
+        return transaction().execute(status -> {
+            SettingsPreferences entity = repository.findById(userId)
+                    .orElseThrow(() -> metrics.notFound(RESOURCE, "update",
+                            new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND)));
+            requireVersion("update", entity, expectedVersion);
 
-        entity.setDateFormat(request.dateFormat());
-        entity.setWeekStartsOn(request.weekStartsOn());
-        entity.setRounding(request.rounding());
+            entity.setDateFormat(request.dateFormat());
+            entity.setWeekStartsOn(request.weekStartsOn());
+            entity.setRounding(request.rounding());
 
-        SettingsPreferences updated = repository.save(entity);
-        log.debug("Preferences updated for userId={}", updated.getUserId());
+            // Flush so the response carries the incremented version (the new ETag)
+            SettingsPreferences updated = repository.saveAndFlush(entity);
+            log.debug("Preferences updated for userId={}", updated.getUserId());
 
-        return mapper.toResponse(updated);
+            return metrics.mapping(RESOURCE, () -> mapper.toResponse(updated));
+        });
     }
 
     @Override
-    public PreferencesResponse patchPreferences(String userId, PreferencesRequest request) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "patch"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_PREFERENCES, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#userId")
+    public PreferencesResponse patchPreferences(String userId, PreferencesRequest request, Long expectedVersion) {
         log.info("Patching preferences for userId={}", userId);
+        if (request.dateFormat() != null) {
+            dateFormats.validate(request.dateFormat());
+        }
+        if (expectedVersion == null && writeBehind.isEnabled()) {
+            // Merged with the user's pending patch; the row is read only for the first patch of a batch
+            return writeBehind.queuePreferences(userId, request, id -> transaction().execute(status -> {
+                SettingsPreferences stored = repository.findById(id)
+                        .orElseThrow(() -> metrics.notFound(RESOURCE, "patch",
+                                new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND)));
+                return metrics.mapping(RESOURCE, () -> mapper.toResponse(stored));
+            }));
+        }
+        writeBehind.flushPreferences(userId);
 
-        SettingsPreferences entity = repository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND));
-
-        // Only update non-null values
-        Optional.ofNullable(request.dateFormat()).ifPresent(entity::setDateFormat);
-        Optional.ofNullable(request.weekStartsOn()).ifPresent(entity::setWeekStartsOn);
-        Optional.ofNullable(request.rounding()).ifPresent(entity::setRounding);
+        return transaction().execute(status -> {
+            // One UPDATE of the non-null values; its row count is the existence and version check
+            int rows = repository.patchByUserId(userId, request.dateFormat(), request.weekStartsOn(),
+                    request.rounding(), LocalDateTime.now(), expectedVersion);
+            if (rows == 0) {
+                throw writeMissed("patch", userId, expectedVersion);
+            }
 
-        SettingsPreferences patched = repository.save(entity);
-        log.debug("Preferences patched for userId={}", patched.getUserId());
+            // The response carries the whole row and MySQL has no UPDATE ... RETURNING
+            SettingsPreferences patched = repository.findById(userId)
+                    .orElseThrow(() -> metrics.notFound(RESOURCE, "patch",
+                            new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND)));
+            log.debug("Preferences patched for userId={}", patched.getUserId());
 
-        return mapper.toResponse(patched);
+            return metrics.mapping(RESOURCE, () -> mapper.toResponse(patched));
+        });
     }
 
     @Override
-    public void deletePreferences(String userId) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "delete"})
+    @CacheEvict(cacheNames = {AppConstants.CACHE_PREFERENCES, AppConstants.CACHE_EFFECTIVE_SETTINGS}, key = "#userId")
+    public void deletePreferences(String userId, Long expectedVersion) {
         log.warn("Deleting preferences for userId={}", userId);
+        writeBehind.flushPreferences(userId);
+
+        transaction().executeWithoutResult(status -> {
+            // One DELETE; its row count is the existence and version check
+            if (repository.deleteByUserId(userId, expectedVersion) == 0) {
+                throw writeMissed("delete", userId, expectedVersion);
+            }
+        });
+    }
+
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "round"})
+    public long[] roundDurations(String userId, long[] durationMinutes) {
+        log.info("Rounding {} durations for userId={}", durationMinutes.length, userId);
+        writeBehind.flushPreferencesBeforeRead(userId);
+
+        // Not read-only: the flushed patch is only certain to be on the primary
+        SettingsPreferences entity = transaction().execute(status -> repository.findById(userId)
+                .orElseThrow(() -> metrics.notFound(RESOURCE, "round",
+                        new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND))));
+
+        long[] rounded = new long[durationMinutes.length];
+        RoundingEngine.round(durationMinutes, rounded, TimeUnit.MINUTES, entity.getRounding());
+        return rounded;
+    }
 
-        if (!repository.existsByUserId(userId)) {
-            throw new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND);
+    /**
+     * Transaction for work that follows a flush of the user's queued patch. The flush runs before
+     * it opens, so it never waits for the queue while holding this transaction's connection.
+     */
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Explain why a single-statement patch or delete matched no row: a stale If-Match version
+     * when the row still exists, otherwise a missing row.
+     */
+    private RuntimeException writeMissed(String operation, String userId, Long expectedVersion) {
+        if (expectedVersion != null && repository.existsByUserId(userId)) {
+            log.warn("Version mismatch for userId={}: expected={}", userId, expectedVersion);
+            return metrics.conflict(RESOURCE, operation, new PreconditionFailedException(
+                    "Preferences for userId " + userId + " have changed since version " + expectedVersion));
+        }
+        return metrics.notFound(RESOURCE, operation, new ResourceNotFoundException(AppConstants.MSG_PREF_NOT_FOUND));
+    }
+
+    /**
+     * Reject a conditional write when the stored row is no longer at the version the client read.
+     */
+    private void requireVersion(String operation, SettingsPreferences entity, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            log.warn("Version mismatch for userId={}: expected={} actual={}",
+                    entity.getUserId(), expectedVersion, entity.getVersion());
+            throw metrics.conflict(RESOURCE, operation, new PreconditionFailedException(
+                    "Preferences for userId " + entity.getUserId() + " have changed (current version "
+                            + entity.getVersion() + ")"));
         }
-        repository.deleteById(userId);
     }
 }
@@ -0,0 +1,33 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.constants.TransferFormat;
+import com.sphuta_tms.dto.ImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Service interface for bulk import and export of preferences.
+ */
+public interface PreferencesTransferService {
+
+    /**
+     * Read preferences line by line and insert or replace them in chunked batches.
+     * Memory use is bounded by the batch size, not by the size of the body.
+     *
+     * @param body   request body in the given format (CSV starts with a header line)
+     * @param format NDJSON or CSV
+     * @return throughput and rejected lines
+     */
+    ImportResultDTO importPreferences(InputStream body, TransferFormat format);
+
+    /**
+     * Write all preferences ordered by user ID, streamed from a database cursor.
+     *
+     * @param out    response body
+     * @param format NDJSON or CSV
+     * @throws IOException if writing to the response fails
+     */
+    void exportPreferences(OutputStream out, TransferFormat format) throws IOException;
+}
@@ -0,0 +1,66 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.dto.InvoicingSettingsDTO;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking, read-only access to invoicing settings, preferences and profiles.
+ *
+ * <p>Backed by R2DBC instead of JPA: no request thread waits on the database and
+ * no persistence context is involved. Writes stay on the blocking services
+ * ({@link InvoicingSettingsService}, {@link PreferencesService},
+ * {@link SettingsProfileService}).</p>
+ *
+ * <p>Lookups complete empty when the row does not exist; the caller decides how
+ * to report it.</p>
+ */
+public interface ReactiveSettingsService {
+
+    /**
+     * Look up invoicing settings for a user.
+     *
+     * @param userId user ID
+     * @return the settings, or empty if none exist
+     */
+    Mono<InvoicingSettingsDTO> findInvoicingSettings(String userId);
+
+    /**
+     * Emit all invoicing settings in {@code user_id} order.
+     *
+     * @return one element per row, produced as rows arrive from the database
+     */
+    Flux<InvoicingSettingsDTO> findAllInvoicingSettings();
+
+    /**
+     * Look up preferences for a user.
+     *
+     * @param userId user ID
+     * @return the preferences, or empty if none exist
+     */
+    Mono<PreferencesResponse> findPreferences(String userId);
+
+    /**
+     * Emit all preferences in {@code user_id} order.
+     *
+     * @return one element per row, produced as rows arrive from the database
+     */
+    Flux<PreferencesResponse> findAllPreferences();
+
+    /**
+     * Look up the settings profile for a user.
+     *
+     * @param userId user ID
+     * @return the profile, or empty if none exists
+     */
+    Mono<SettingsProfileDTO> findProfile(Long userId);
+
+    /**
+     * Emit all settings profiles in {@code user_id} order.
+     *
+     * @return one element per row, produced as rows arrive from the database
+     */
+    Flux<SettingsProfileDTO> findAllProfiles();
+}
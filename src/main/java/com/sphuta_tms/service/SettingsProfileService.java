@@ -1,9 +1,13 @@
 package com.sphuta_tms.service;
 
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.SettingsProfileDTO;
 import com.sphuta_tms.entity.SettingsProfile;
 
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing {@link SettingsProfile}.
@@ -37,28 +41,63 @@ public interface SettingsProfileService {
      */
     List<SettingsProfileDTO> getAllProfiles();
 
+    /**
+     * Retrieve one keyset page of settings profiles ordered by user ID.
+     *
+     * @param afterUserId cursor from the previous page, or null for the first page
+     * @param size        page size (1..1000)
+     * @return page of {@link SettingsProfileDTO} with the next cursor
+     */
+    CursorPageDTO<SettingsProfileDTO> getProfilesPage(Long afterUserId, int size);
+
+    /**
+     * Stream all settings profiles ordered by user ID without materializing them.
+     *
+     * @param consumer receives every {@link SettingsProfileDTO} in order
+     */
+    void streamAllProfiles(Consumer<SettingsProfileDTO> consumer);
+
+    /**
+     * Resolve the user's time zone once, for converting many timestamps.
+     *
+     * @param userId the ID of the user
+     * @return the profile's zone; the default zone if the stored value is not valid
+     */
+    ZoneId getZoneId(Long userId);
+
+    /**
+     * Resolve the user's locale once, for formatting many values.
+     *
+     * @param userId the ID of the user
+     * @return the profile's locale; the default locale if the stored value is not valid
+     */
+    Locale getLocale(Long userId);
+
     /**
      * Update an existing settings profile (full replacement).
      *
      * @param userId the ID of the user
      * @param dto    the profile data transfer object
+     * @param expectedVersion version from If-Match, or null for an unconditional update
      * @return the updated {@link SettingsProfileDTO}
      */
-    SettingsProfileDTO updateProfile(Long userId, SettingsProfileDTO dto);
+    SettingsProfileDTO updateProfile(Long userId, SettingsProfileDTO dto, Long expectedVersion);
 
     /**
      * Partially update an existing settings profile (only provided fields).
      *
      * @param userId the ID of the user
      * @param dto    the profile data transfer object with optional fields
+     * @param expectedVersion version from If-Match, or null for an unconditional update
      * @return the patched {@link SettingsProfileDTO}
      */
-    SettingsProfileDTO patchProfile(Long userId, SettingsProfileDTO dto);
+    SettingsProfileDTO patchProfile(Long userId, SettingsProfileDTO dto, Long expectedVersion);
 
     /**
      * Delete a settings profile by user ID.
      *
      * @param userId the ID of the user
+     * @param expectedVersion version from If-Match, or null for an unconditional delete
      */
-    void deleteProfile(Long userId);
+    void deleteProfile(Long userId, Long expectedVersion);
 }
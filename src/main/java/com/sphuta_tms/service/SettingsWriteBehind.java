@@ -0,0 +1,286 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.dto.PreferencesRequest;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.repository.SettingsProfileRepository;
+import com.sphuta_tms.util.WriteBehindQueue;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Optional write-behind mode for unconditional preference and profile PATCHes
+ * ({@code sphuta.write-behind.enabled}).
+ *
+ * <p>Autosaving clients send a PATCH per keystroke. In this mode a PATCH without {@code If-Match}
+ * is merged into the user's pending patch instead of being written, and pending patches are
+ * written together every {@code flush-interval}, or once {@code max-pending} users are waiting:
+ * one UPDATE statement per user, sent one after the other in a single transaction. The saving is
+ * in the statements that merging avoids, not in JDBC batching.</p>
+ *
+ * <p>The PATCH response shows the stored row with all pending changes applied and the version
+ * the row will have once they are written, since a batch increments it exactly once. Reads of a
+ * single user, and conditional writes, flush that user's pending patch first, so clients see
+ * their own writes and their ETags stay valid. List, stream and export endpoints may lag by up to
+ * one interval. On shutdown the queues are drained after the web server has stopped.</p>
+ *
+ * <p>Services flush before they open their own transaction. A flush may wait for a write of the
+ * same user and then takes a connection of its own; inside a transaction it would do both while
+ * holding the caller's connection, and an exhausted pool would stall until its timeout. Flushes
+ * of different users do not wait for each other.</p>
+ *
+ * <p>A batch that fails is retried with the next flush, up to {@code max-attempts} times per user.
+ * Patches that can never be written are dropped and logged: a patch for a row that has been
+ * deleted, a patch that violates a constraint, and a patch still failing after its last attempt.
+ * A read whose flush fails goes on with the stored row and leaves the patch queued; conditional
+ * writes still fail, because their version check needs the patch written.</p>
+ */
+@Slf4j
+@Component
+public class SettingsWriteBehind {
+
+    private final SettingsPreferencesRepository preferencesRepository;
+    private final SettingsProfileRepository profileRepository;
+    private final TransactionTemplate transaction;
+    private final WriteBehindQueue<String, PendingPreferences> preferences;
+    private final WriteBehindQueue<Long, PendingProfile> profiles;
+
+    public SettingsWriteBehind(SettingsPreferencesRepository preferencesRepository,
+                               SettingsProfileRepository profileRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry registry,
+                               @Value("${sphuta.write-behind.enabled:false}") boolean enabled,
+                               @Value("${sphuta.write-behind.flush-interval:2s}") Duration flushInterval,
+                               @Value("${sphuta.write-behind.max-pending:1000}") int maxPending,
+                               @Value("${sphuta.write-behind.max-attempts:5}") int maxAttempts) {
+        this.preferencesRepository = preferencesRepository;
+        this.profileRepository = profileRepository;
+        if (!enabled) {
+            this.transaction = null;
+            this.preferences = null;
+            this.profiles = null;
+            return;
+        }
+        this.transaction = new TransactionTemplate(transactionManager);
+        // Independent of any transaction the caller has open after all; a rollback there must not lose the batch
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.preferences = new WriteBehindQueue<>("preferences", this::writePreferences, maxPending, flushInterval,
+                maxAttempts, DataIntegrityViolationException.class::isInstance);
+        this.profiles = new WriteBehindQueue<>("profile", this::writeProfiles, maxPending, flushInterval,
+                maxAttempts, DataIntegrityViolationException.class::isInstance);
+        Gauge.builder("sphuta.settings.write_behind.pending", preferences, WriteBehindQueue::size)
+                .description("Users with a queued, unwritten patch")
+                .tag("resource", "preferences")
+                .register(registry);
+        Gauge.builder("sphuta.settings.write_behind.pending", profiles, WriteBehindQueue::size)
+                .description("Users with a queued, unwritten patch")
+                .tag("resource", "profile")
+                .register(registry);
+        FunctionCounter.builder("sphuta.settings.write_behind.dropped", preferences, WriteBehindQueue::dropped)
+                .description("Queued patches dropped because they could not be written")
+                .tag("resource", "preferences")
+                .register(registry);
+        FunctionCounter.builder("sphuta.settings.write_behind.dropped", profiles, WriteBehindQueue::dropped)
+                .description("Queued patches dropped because they could not be written")
+                .tag("resource", "profile")
+                .register(registry);
+        log.info("Write-behind enabled for preference and profile patches (interval {}, max pending {}, max attempts {})",
+                flushInterval, maxPending, maxAttempts);
+    }
+
+    /** Whether unconditional patches are queued instead of written. */
+    public boolean isEnabled() {
+        return preferences != null;
+    }
+
+    // -------------------- PREFERENCES --------------------
+
+    /**
+     * Queue a preferences patch.
+     *
+     * @param userId  user identifier
+     * @param request validated patch; null fields are left unchanged
+     * @param stored  loads the stored preferences when nothing is pending for the user
+     *                (throws when they do not exist)
+     * @return preferences as they will be once written
+     */
+    public PreferencesResponse queuePreferences(String userId, PreferencesRequest request,
+                                                Function<String, PreferencesResponse> stored) {
+        return preferences.offer(userId, id -> PendingPreferences.of(stored.apply(id)),
+                pending -> pending.with(request)).view();
+    }
+
+    /** Write the user's pending preferences patch, if any, before conditionally writing. */
+    public void flushPreferences(String userId) {
+        if (preferences != null) {
+            preferences.flush(userId);
+        }
+    }
+
+    /**
+     * Write the user's pending preferences patch, if any, before reading. A failure is logged and
+     * the read sees the stored row; the patch stays queued.
+     */
+    public void flushPreferencesBeforeRead(String userId) {
+        try {
+            flushPreferences(userId);
+        } catch (RuntimeException ex) {
+            log.warn("Reading preferences for userId={} without its queued patch: flush failed", userId, ex);
+        }
+    }
+
+    private void writePreferences(Map<String, PendingPreferences> batch) {
+        transaction.executeWithoutResult(status -> batch.forEach((userId, pending) -> {
+            PreferencesRequest patch = pending.patch();
+            int rows = preferencesRepository.patchByUserId(userId, patch.dateFormat(), patch.weekStartsOn(),
+                    patch.rounding(), pending.view().updatedAt(), null);
+            if (rows == 0) {
+                log.warn("Dropped queued preferences patch for userId={}: preferences were deleted", userId);
+            }
+        }));
+    }
+
+    // -------------------- PROFILE --------------------
+
+    /**
+     * Queue a profile patch.
+     *
+     * @param userId user identifier
+     * @param dto    validated patch with canonical timezone and locale; null fields are left unchanged
+     * @param stored loads the stored profile when nothing is pending for the user
+     *               (throws when it does not exist)
+     * @return profile as it will be once written
+     */
+    public SettingsProfileDTO queueProfile(Long userId, SettingsProfileDTO dto,
+                                           Function<Long, SettingsProfileDTO> stored) {
+        return profiles.offer(userId, id -> PendingProfile.of(stored.apply(id)),
+                pending -> pending.with(dto)).view();
+    }
+
+    /** Write the user's pending profile patch, if any, before conditionally writing. */
+    public void flushProfile(Long userId) {
+        if (profiles != null) {
+            profiles.flush(userId);
+        }
+    }
+
+    /**
+     * Write the user's pending profile patch, if any, before reading. A failure is logged and the
+     * read sees the stored profile; the patch stays queued.
+     */
+    public void flushProfileBeforeRead(Long userId) {
+        try {
+            flushProfile(userId);
+        } catch (RuntimeException ex) {
+            log.warn("Reading profile for userId={} without its queued patch: flush failed", userId, ex);
+        }
+    }
+
+    private void writeProfiles(Map<Long, PendingProfile> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        transaction.executeWithoutResult(status -> batch.forEach((userId, pending) -> {
+            SettingsProfileDTO patch = pending.patch();
+            int rows = profileRepository.patchByUserId(userId, patch.fullName(), patch.phone(),
+                    patch.timezone(), patch.locale(), now, null);
+            if (rows == 0) {
+                log.warn("Dropped queued profile patch for userId={}: profile was deleted", userId);
+            }
+        }));
+    }
+
+    // -------------------- SHUTDOWN --------------------
+
+    /**
+     * Drain both queues. Singletons are destroyed after the web server has stopped and before
+     * the repositories and data source this bean depends on.
+     */
+    @PreDestroy
+    public void drain() {
+        if (isEnabled()) {
+            preferences.close();
+            profiles.close();
+        }
+    }
+
+    // -------------------- PENDING VALUES --------------------
+
+    /**
+     * Pending preferences of one user.
+     *
+     * @param view  stored row with all pending changes, at the version the write will produce
+     * @param patch merged pending changes (null fields unchanged)
+     */
+    record PendingPreferences(PreferencesResponse view, PreferencesRequest patch) {
+
+        static PendingPreferences of(PreferencesResponse stored) {
+            return new PendingPreferences(
+                    new PreferencesResponse(stored.userId(), stored.dateFormat(), stored.weekStartsOn(),
+                            stored.rounding(), stored.updatedAt(), stored.version() + 1),
+                    new PreferencesRequest(stored.userId(), null, null, null));
+        }
+
+        PendingPreferences with(PreferencesRequest change) {
+            return new PendingPreferences(
+                    new PreferencesResponse(view.userId(),
+                            pick(change.dateFormat(), view.dateFormat()),
+                            pick(change.weekStartsOn(), view.weekStartsOn()),
+                            pick(change.rounding(), view.rounding()),
+                            LocalDateTime.now(), view.version()),
+                    new PreferencesRequest(patch.userId(),
+                            pick(change.dateFormat(), patch.dateFormat()),
+                            pick(change.weekStartsOn(), patch.weekStartsOn()),
+                            pick(change.rounding(), patch.rounding())));
+        }
+    }
+
+    /**
+     * Pending profile of one user.
+     *
+     * @param view  stored profile with all pending changes, at the version the write will produce
+     * @param patch merged pending changes (null fields unchanged)
+     */
+    record PendingProfile(SettingsProfileDTO view, SettingsProfileDTO patch) {
+
+        static PendingProfile of(SettingsProfileDTO stored) {
+            return new PendingProfile(
+                    new SettingsProfileDTO(stored.userId(), stored.fullName(), stored.phone(),
+                            stored.timezone(), stored.locale(), stored.version() + 1),
+                    new SettingsProfileDTO(stored.userId(), null, null, null, null, null));
+        }
+
+        PendingProfile with(SettingsProfileDTO change) {
+            return new PendingProfile(
+                    new SettingsProfileDTO(view.userId(),
+                            pick(change.fullName(), view.fullName()),
+                            pick(change.phone(), view.phone()),
+                            pick(change.timezone(), view.timezone()),
+                            pick(change.locale(), view.locale()),
+                            view.version()),
+                    new SettingsProfileDTO(patch.userId(),
+                            pick(change.fullName(), patch.fullName()),
+                            pick(change.phone(), patch.phone()),
+                            pick(change.timezone(), patch.timezone()),
+                            pick(change.locale(), patch.locale()),
+                            null));
+        }
+    }
+
+    private static <T> T pick(T change, T current) {
+        return change != null ? change : current;
+    }
+}
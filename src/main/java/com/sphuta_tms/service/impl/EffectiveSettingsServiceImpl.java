@@ -0,0 +1,92 @@
+package com.sphuta_tms.service.impl;
+
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.EffectiveSettingsDTO;
+import com.sphuta_tms.dto.InvoicingSettingsDTO;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.repository.InvoicingSettingsRepository;
+import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.repository.SettingsProfileRepository;
+import com.sphuta_tms.service.EffectiveSettingsService;
+import com.sphuta_tms.service.SettingsWriteBehind;
+import com.sphuta_tms.util.PreferencesMapper;
+import com.sphuta_tms.util.ResponseMapper;
+import com.sphuta_tms.util.SettingsProfileMapper;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of {@link EffectiveSettingsService}.
+ *
+ * <p>
+ * The three primary-key lookups run in one transaction on the primary, so they share a
+ * single pooled connection and never read a lagging replica. It is read-write only for
+ * that routing; nothing is written. The user's queued write-behind patches are flushed
+ * before it opens. The composed document is cached per user; every write to any of the
+ * three tables evicts it.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EffectiveSettingsServiceImpl implements EffectiveSettingsService {
+
+    private final InvoicingSettingsRepository invoicingRepository;
+    private final SettingsPreferencesRepository preferencesRepository;
+    private final SettingsProfileRepository profileRepository;
+    private final ResponseMapper invoicingMapper;
+    private final PreferencesMapper preferencesMapper;
+    private final SettingsWriteBehind writeBehind;
+    private final PlatformTransactionManager transactionManager;
+
+    // -------------------- READ --------------------
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "effective", "operation", "get"})
+    @Cacheable(cacheNames = AppConstants.CACHE_EFFECTIVE_SETTINGS, key = "#userId")
+    public EffectiveSettingsDTO getEffectiveSettings(String userId) {
+        log.debug("Fetching effective settings for userId={}", userId);
+        Long profileId = toProfileId(userId);
+        // Queued patches commit in their own transactions, before the lookups' transaction opens
+        writeBehind.flushPreferencesBeforeRead(userId);
+        if (profileId != null) {
+            writeBehind.flushProfileBeforeRead(profileId);
+        }
+
+        // Not read-only: a cached result must come from the primary, never from a lagging replica
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            InvoicingSettingsDTO invoicing = invoicingRepository.findById(userId)
+                    .map(invoicingMapper::toDTO)
+                    .orElse(null);
+            PreferencesResponse preferences = preferencesRepository.findById(userId)
+                    .map(preferencesMapper::toResponse)
+                    .orElse(null);
+            SettingsProfileDTO profile = profileId == null ? null : profileRepository.findById(profileId)
+                    .map(SettingsProfileMapper::toDto)
+                    .orElse(null);
+
+            if (invoicing == null && preferences == null && profile == null) {
+                log.error("No settings found for userId={}", userId);
+                throw new ResourceNotFoundException("No settings found for userId: " + userId);
+            }
+            return new EffectiveSettingsDTO(userId, invoicing, preferences, profile);
+        });
+    }
+
+    /**
+     * Profiles are keyed by a numeric ID; any other user ID simply has no profile.
+     */
+    private static Long toProfileId(String userId) {
+        try {
+            return Long.valueOf(userId);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
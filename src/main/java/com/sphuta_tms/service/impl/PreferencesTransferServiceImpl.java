@@ -0,0 +1,296 @@
+package com.sphuta_tms.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.TransferFormat;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.ImportErrorDTO;
+import com.sphuta_tms.dto.ImportResultDTO;
+import com.sphuta_tms.dto.PreferencesRequest;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.entity.SettingsPreferences;
+import com.sphuta_tms.exception.ValidationException;
+import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.service.PreferencesTransferService;
+import com.sphuta_tms.util.DateFormatRegistry;
+import com.sphuta_tms.util.PreferencesCsv;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of {@link PreferencesTransferService}.
+ *
+ * <p>
+ * Import reads the body one line at a time and keeps at most one batch of rows in
+ * memory. Each batch is written in its own transaction: existing rows are loaded with
+ * one IN query and updated, new rows are persisted, then the persistence context is
+ * flushed as JDBC batches and cleared. A later line for the same user replaces an
+ * earlier one. Export writes straight from the cursor-backed repository stream.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PreferencesTransferServiceImpl implements PreferencesTransferService {
+
+    private final SettingsPreferencesRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final DateFormatRegistry dateFormats;
+    private final CacheManager cacheManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Rows per JDBC batch and per transaction; keep equal to hibernate.jdbc.batch_size. */
+    @Value("${sphuta.bulk.batch-size:500}")
+    private int batchSize;
+
+    /** Rejected lines reported in detail; further rejections are only counted. */
+    @Value("${sphuta.bulk.max-error-rows:1000}")
+    private int maxErrorRows;
+
+    // -------------------- IMPORT --------------------
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "import"})
+    public ImportResultDTO importPreferences(InputStream body, TransferFormat format) {
+        log.info("Importing preferences as {}", format);
+        long start = System.nanoTime();
+        ImportState state = new ImportState(maxErrorRows);
+        ObjectReader reader = objectMapper.readerFor(PreferencesRequest.class);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // Keyed by user ID so a repeated user inside one batch keeps only its last line
+        Map<String, Long> lines = new HashMap<>();
+        // Earlier lines of those users; they share the outcome of the line that replaced them
+        List<Long> replaced = new ArrayList<>();
+        Map<String, PreferencesRequest> batch = new HashMap<>();
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            long lineNo = 0;
+            String line;
+            if (format == TransferFormat.CSV) {
+                line = in.readLine();
+                lineNo++;
+                if (line == null) {
+                    throw new ValidationException("CSV body must start with a header line");
+                }
+                PreferencesCsv.checkHeader(line);
+            }
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                state.total++;
+                PreferencesRequest request;
+                try {
+                    request = parse(reader, line, format);
+                } catch (ValidationException ex) {
+                    state.reject(lineNo, ex.getMessage());
+                    continue;
+                }
+                Long previous = lines.put(request.userId(), lineNo);
+                if (previous != null) {
+                    // Last line wins; the earlier one counts as applied and then replaced
+                    replaced.add(previous);
+                }
+                batch.put(request.userId(), request);
+                if (batch.size() == batchSize) {
+                    writeBatch(transaction, batch, lines, replaced, state);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(transaction, batch, lines, replaced, state);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read import body", ex);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0 ? state.total : state.total * 1000.0 / elapsedMillis;
+        log.info("Imported {} of {} preferences in {} ms ({} rows/s), {} rejected",
+                state.imported, state.total, elapsedMillis, Math.round(rowsPerSecond), state.failed);
+        return new ImportResultDTO(state.total, state.imported, state.failed, elapsedMillis, rowsPerSecond,
+                state.errors);
+    }
+
+    /**
+     * Parse and validate one line; every problem is reported as a {@link ValidationException}.
+     */
+    private PreferencesRequest parse(ObjectReader reader, String line, TransferFormat format) {
+        PreferencesRequest request;
+        if (format == TransferFormat.CSV) {
+            request = PreferencesCsv.parse(line);
+        } else {
+            try {
+                request = reader.readValue(line);
+            } catch (JsonProcessingException ex) {
+                throw new ValidationException(ex.getOriginalMessage());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        Set<ConstraintViolation<PreferencesRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        if (request.dateFormat() != null) {
+            dateFormats.validate(request.dateFormat());
+        }
+        return request;
+    }
+
+    /**
+     * Write one batch in its own transaction, then reset the batch buffers. Replaced lines are
+     * imported or rejected with the batch, so imported plus failed still counts every line.
+     */
+    private void writeBatch(TransactionTemplate transaction, Map<String, PreferencesRequest> batch,
+                            Map<String, Long> lines, List<Long> replaced, ImportState state) {
+        try {
+            transaction.executeWithoutResult(status -> {
+                Map<String, SettingsPreferences> existing = new HashMap<>();
+                repository.findAllById(batch.keySet()).forEach(e -> existing.put(e.getUserId(), e));
+
+                for (PreferencesRequest request : batch.values()) {
+                    SettingsPreferences current = existing.get(request.userId());
+                    if (current == null) {
+                        current = new SettingsPreferences();
+                        current.setUserId(request.userId());
+                        applyWithDefaults(current, request);
+                        entityManager.persist(current);
+                    } else {
+                        applyWithDefaults(current, request);
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+
+                // Transaction-aware caches apply these evictions after commit
+                Cache preferences = cacheManager.getCache(AppConstants.CACHE_PREFERENCES);
+                Cache effective = cacheManager.getCache(AppConstants.CACHE_EFFECTIVE_SETTINGS);
+                for (String userId : batch.keySet()) {
+                    preferences.evict(userId);
+                    effective.evict(userId);
+                }
+            });
+            state.imported += batch.size() + replaced.size();
+        } catch (RuntimeException ex) {
+            log.error("Preferences import batch of {} rows failed", batch.size(), ex);
+            List<Long> failed = new ArrayList<>(lines.values());
+            failed.addAll(replaced);
+            failed.sort(null);
+            for (long line : failed) {
+                state.reject(line, "Batch failed: " + ex.getMessage());
+            }
+        }
+        batch.clear();
+        lines.clear();
+        replaced.clear();
+    }
+
+    /**
+     * Import replaces the whole row; columns left empty fall back to the defaults.
+     */
+    private static void applyWithDefaults(SettingsPreferences entity, PreferencesRequest request) {
+        entity.setDateFormat(request.dateFormat() != null
+                ? request.dateFormat() : AppConstants.DEFAULT_DATE_FORMAT);
+        entity.setWeekStartsOn(request.weekStartsOn() != null
+                ? request.weekStartsOn() : WeekStart.valueOf(AppConstants.DEFAULT_WEEK_START));
+        entity.setRounding(request.rounding() != null
+                ? request.rounding() : Rounding.valueOf(AppConstants.DEFAULT_ROUNDING));
+        entity.setUpdatedAt(LocalDateTime.now());
+    }
+
+    // -------------------- EXPORT --------------------
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "preferences", "operation", "export"})
+    @Transactional(readOnly = true)
+    public void exportPreferences(OutputStream out, TransferFormat format) throws IOException {
+        log.info("Exporting preferences as {}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter json = objectMapper.writerFor(PreferencesResponse.class);
+        StringBuilder line = new StringBuilder(128);
+        long count = 0;
+
+        if (format == TransferFormat.CSV) {
+            writer.write(PreferencesCsv.HEADER);
+            writer.write('\n');
+        }
+        try (Stream<PreferencesResponse> rows = repository.streamAll()) {
+            for (PreferencesResponse row : (Iterable<PreferencesResponse>) rows::iterator) {
+                if (format == TransferFormat.CSV) {
+                    line.setLength(0);
+                    PreferencesCsv.format(line, row);
+                    writer.append(line);
+                } else {
+                    writer.write(json.writeValueAsString(row));
+                }
+                writer.write('\n');
+                count++;
+            }
+        }
+        writer.flush();
+        log.info("Exported {} preferences as {}", count, format);
+    }
+
+    /**
+     * Counters and reported errors of one import run.
+     */
+    private static final class ImportState {
+        private final int maxErrors;
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+
+        private ImportState(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportErrorDTO(line, message));
+            }
+        }
+    }
+}
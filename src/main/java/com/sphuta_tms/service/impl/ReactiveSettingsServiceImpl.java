@@ -0,0 +1,135 @@
+package com.sphuta_tms.service.impl;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.InvoicingSettingsDTO;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import com.sphuta_tms.service.ReactiveSettingsService;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC implementation of {@link ReactiveSettingsService}.
+ *
+ * <p>Queries select exactly the columns of the response DTOs and map rows straight
+ * into them; the JPA entities are not involved. The "find all" queries are
+ * consumed row by row, so a large table is never held in memory.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveSettingsServiceImpl implements ReactiveSettingsService {
+
+    private static final String INVOICING_COLUMNS = "select user_id, currency, tax_id, default_tax_rate, "
+            + "invoice_number_format, payment_terms_days, late_fee_percent, template_id, logo_file_id, version "
+            + "from settings_invoicing";
+    private static final String PREFERENCES_COLUMNS = "select user_id, date_format, week_starts_on, rounding, "
+            + "updated_at, version from settings_preferences";
+    private static final String PROFILE_COLUMNS = "select user_id, full_name, phone, timezone, locale, version "
+            + "from settings_profile";
+
+    private final DatabaseClient databaseClient;
+
+    // -------------------- INVOICING --------------------
+    @Override
+    public Mono<InvoicingSettingsDTO> findInvoicingSettings(String userId) {
+        log.debug("Reactive lookup of invoicing settings for userId={}", userId);
+        return databaseClient.sql(INVOICING_COLUMNS + " where user_id = :userId")
+                .bind("userId", userId)
+                .map(ReactiveSettingsServiceImpl::toInvoicingSettings)
+                .one();
+    }
+
+    @Override
+    public Flux<InvoicingSettingsDTO> findAllInvoicingSettings() {
+        log.info("Reactive stream of all invoicing settings");
+        return databaseClient.sql(INVOICING_COLUMNS + " order by user_id")
+                .map(ReactiveSettingsServiceImpl::toInvoicingSettings)
+                .all();
+    }
+
+    // -------------------- PREFERENCES --------------------
+    @Override
+    public Mono<PreferencesResponse> findPreferences(String userId) {
+        log.debug("Reactive lookup of preferences for userId={}", userId);
+        return databaseClient.sql(PREFERENCES_COLUMNS + " where user_id = :userId")
+                .bind("userId", userId)
+                .map(ReactiveSettingsServiceImpl::toPreferences)
+                .one();
+    }
+
+    @Override
+    public Flux<PreferencesResponse> findAllPreferences() {
+        log.info("Reactive stream of all preferences");
+        return databaseClient.sql(PREFERENCES_COLUMNS + " order by user_id")
+                .map(ReactiveSettingsServiceImpl::toPreferences)
+                .all();
+    }
+
+    // -------------------- PROFILE --------------------
+    @Override
+    public Mono<SettingsProfileDTO> findProfile(Long userId) {
+        log.debug("Reactive lookup of profile for userId={}", userId);
+        return databaseClient.sql(PROFILE_COLUMNS + " where user_id = :userId")
+                .bind("userId", userId)
+                .map(ReactiveSettingsServiceImpl::toProfile)
+                .one();
+    }
+
+    @Override
+    public Flux<SettingsProfileDTO> findAllProfiles() {
+        log.info("Reactive stream of all profiles");
+        return databaseClient.sql(PROFILE_COLUMNS + " order by user_id")
+                .map(ReactiveSettingsServiceImpl::toProfile)
+                .all();
+    }
+
+    // -------------------- ROW MAPPERS --------------------
+    private static InvoicingSettingsDTO toInvoicingSettings(Row row, RowMetadata metadata) {
+        return new InvoicingSettingsDTO(
+                row.get("user_id", String.class),
+                row.get("currency", String.class),
+                row.get("tax_id", String.class),
+                row.get("default_tax_rate", BigDecimal.class),
+                row.get("invoice_number_format", String.class),
+                row.get("payment_terms_days", Integer.class),
+                row.get("late_fee_percent", BigDecimal.class),
+                row.get("template_id", String.class),
+                row.get("logo_file_id", String.class),
+                row.get("version", Long.class)
+        );
+    }
+
+    private static PreferencesResponse toPreferences(Row row, RowMetadata metadata) {
+        // Enums are stored by name (EnumType.STRING)
+        return new PreferencesResponse(
+                row.get("user_id", String.class),
+                row.get("date_format", String.class),
+                WeekStart.valueOf(row.get("week_starts_on", String.class)),
+                Rounding.valueOf(row.get("rounding", String.class)),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Long.class)
+        );
+    }
+
+    private static SettingsProfileDTO toProfile(Row row, RowMetadata metadata) {
+        return new SettingsProfileDTO(
+                row.get("user_id", Long.class),
+                row.get("full_name", String.class),
+                row.get("phone", String.class),
+                row.get("timezone", String.class),
+                row.get("locale", String.class),
+                row.get("version", Long.class)
+        );
+    }
+}
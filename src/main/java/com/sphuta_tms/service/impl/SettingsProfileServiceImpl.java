@@ -1,17 +1,38 @@
 package com.sphuta_tms.service.impl;
 
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.SettingsProfileDTO;
 import com.sphuta_tms.entity.SettingsProfile;
+import com.sphuta_tms.exception.PreconditionFailedException;
 import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.exception.ValidationException;
 import com.sphuta_tms.repository.SettingsProfileRepository;
 import com.sphuta_tms.service.SettingsProfileService;
+import com.sphuta_tms.service.SettingsWriteBehind;
+import com.sphuta_tms.util.Constants;
+import com.sphuta_tms.util.KeysetPaging;
+import com.sphuta_tms.util.SettingsMetrics;
+import com.sphuta_tms.util.ZoneLocaleRegistry;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of {@link SettingsProfileService}.
@@ -26,112 +47,269 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SettingsProfileServiceImpl implements SettingsProfileService {
 
+    private static final String RESOURCE = "profile";
+
     private final SettingsProfileRepository repository;
+    private final SettingsMetrics metrics;
+    private final ZoneLocaleRegistry zoneLocales;
+    private final SettingsWriteBehind writeBehind;
+    private final PlatformTransactionManager transactionManager;
 
     // -------------------- CREATE --------------------
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "create"})
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = AppConstants.CACHE_PROFILE, key = "#userId", condition = "#userId != null"),
+            // a generated ID is only known from the result
+            @CacheEvict(cacheNames = AppConstants.CACHE_EFFECTIVE_SETTINGS, key = "#result.userId().toString()")
+    })
     public SettingsProfileDTO createProfile(Long userId, SettingsProfileDTO dto) {
         log.info("Creating settings profile for userId={}", userId);
 
-        if (repository.existsByUserId(userId)) {
-            log.error("Profile already exists for userId={}", userId);
-            throw new IllegalStateException("Profile already exists for this user");
-        }
-
-        SettingsProfile entity = mapToEntity(dto);
+        SettingsProfile entity = metrics.mapping(RESOURCE, () -> mapToEntity(dto));
         entity.setUserId(userId);
+        // Blank values are left for prePersist to default
+        entity.setTimezone(givenZone(entity.getTimezone()));
+        entity.setLocale(givenLocale(entity.getLocale()));
 
-        SettingsProfile saved = repository.save(entity);
+        SettingsProfile saved;
+        try {
+            // One INSERT; the primary key rejects a second profile for the user
+            saved = repository.insert(entity);
+        } catch (DataIntegrityViolationException ex) {
+            log.error("Profile already exists for userId={}", userId);
+            throw metrics.conflict(RESOURCE, "create", new IllegalStateException("Profile already exists for this user"));
+        }
         log.debug("Profile created: {}", saved);
 
-        return mapToDto(saved);
+        return metrics.mapping(RESOURCE, () -> mapToDto(saved));
     }
 
     // -------------------- READ --------------------
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "get"})
+    @Cacheable(cacheNames = AppConstants.CACHE_PROFILE, key = "#userId")
     public SettingsProfileDTO getProfile(Long userId) {
-        log.info("Fetching settings profile for userId={}", userId);
-
-        SettingsProfile entity = repository.findByUserId(userId)
-                .orElseThrow(() -> {
-                    log.error("Profile not found for userId={}", userId);
-                    return new ResourceNotFoundException("Profile not found for userId=" + userId);
-                });
+        log.debug("Fetching settings profile for userId={}", userId);
+        SettingsProfile entity = findStored("get", userId);
 
-        return mapToDto(entity);
+        return metrics.mapping(RESOURCE, () -> mapToDto(entity));
     }
 
     @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "get_all"})
+    @Transactional(readOnly = true)
     public List<SettingsProfileDTO> getAllProfiles() {
         log.info("Fetching all settings profiles");
 
         List<SettingsProfile> entities = repository.findAll();
-        return entities.stream()
+        return metrics.mapping(RESOURCE, () -> entities.stream()
                 .map(this::mapToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "get_page"})
+    @Transactional(readOnly = true)
+    public CursorPageDTO<SettingsProfileDTO> getProfilesPage(Long afterUserId, int size) {
+        log.info("Fetching settings profiles page after={} size={}", afterUserId, size);
+
+        List<SettingsProfile> rows = afterUserId == null
+                ? repository.findAllByOrderByUserIdAsc(KeysetPaging.limit(size))
+                : repository.findByUserIdGreaterThanOrderByUserIdAsc(afterUserId, KeysetPaging.limit(size));
+        return metrics.mapping(RESOURCE, () -> KeysetPaging.page(rows, size, this::mapToDto, SettingsProfileDTO::userId));
+    }
+
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "stream"})
+    @Transactional(readOnly = true)
+    public void streamAllProfiles(Consumer<SettingsProfileDTO> consumer) {
+        log.info("Streaming all settings profiles");
+
+        try (Stream<SettingsProfileDTO> stream = repository.streamAll()) {
+            stream.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "get_zone"})
+    public ZoneId getZoneId(Long userId) {
+        String timezone = findStored("get_zone", userId).getTimezone();
+        try {
+            return zoneLocales.zone(timezone);
+        } catch (ValidationException ex) {
+            // Rows written before values were validated fall back instead of failing the read
+            log.warn("Stored timezone '{}' of userId={} is invalid, using {}", timezone, userId, Constants.DEFAULT_TIMEZONE);
+            return zoneLocales.zone(Constants.DEFAULT_TIMEZONE);
+        }
+    }
+
+    @Override
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "get_locale"})
+    public Locale getLocale(Long userId) {
+        String locale = findStored("get_locale", userId).getLocale();
+        try {
+            return zoneLocales.locale(locale);
+        } catch (ValidationException ex) {
+            log.warn("Stored locale '{}' of userId={} is invalid, using {}", locale, userId, Constants.DEFAULT_LOCALE);
+            return zoneLocales.locale(Constants.DEFAULT_LOCALE);
+        }
     }
 
     // -------------------- UPDATE --------------------
     @Override
-    @Transactional
-    public SettingsProfileDTO updateProfile(Long userId, SettingsProfileDTO dto) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "update"})
+    @Caching(evict = {
+            @CacheEvict(cacheNames = AppConstants.CACHE_PROFILE, key = "#userId"),
+            @CacheEvict(cacheNames = AppConstants.CACHE_EFFECTIVE_SETTINGS, key = "#userId.toString()")
+    })
+    public SettingsProfileDTO updateProfile(Long userId, SettingsProfileDTO dto, Long expectedVersion) {
         log.info("Updating full settings profile for userId={}", userId);
+        // Blank means the default, as on create
+        String timezone = givenZone(dto.timezone());
+        String locale = givenLocale(dto.locale());
+        writeBehind.flushProfile(userId);
 
-        SettingsProfile entity = repository.findByUserId(userId)
-                .orElseThrow(() -> {
-                    log.error("Profile not found for userId={}", userId);
-                    return new ResourceNotFoundException("Profile not found for userId=" + userId);
-                });
+        return transaction().execute(status -> {
+            SettingsProfile entity = repository.findByUserId(userId)
+                    .orElseThrow(() -> {
+                        log.error("Profile not found for userId={}", userId);
+                        return metrics.notFound(RESOURCE, "update",
+                                new ResourceNotFoundException("Profile not found for userId=" + userId));
+                    });
+            requireVersion("update", entity, expectedVersion);
 
-        entity.setFullName(dto.fullName());
-        entity.setPhone(dto.phone());
-        entity.setTimezone(dto.timezone());
-        entity.setLocale(dto.locale());
+            entity.setFullName(dto.fullName());
+            entity.setPhone(dto.phone());
+            entity.setTimezone(timezone != null ? timezone : Constants.DEFAULT_TIMEZONE);
+            entity.setLocale(locale != null ? locale : Constants.DEFAULT_LOCALE);
 
-        SettingsProfile updated = repository.save(entity);
-        log.debug("Profile updated: {}", updated);
+            // Flush so the returned DTO carries the incremented version (the new ETag)
+            SettingsProfile updated = repository.saveAndFlush(entity);
+            log.debug("Profile updated: {}", updated);
 
-        return mapToDto(updated);
+            return metrics.mapping(RESOURCE, () -> mapToDto(updated));
+        });
     }
 
     // -------------------- PATCH --------------------
     @Override
-    @Transactional
-    public SettingsProfileDTO patchProfile(Long userId, SettingsProfileDTO dto) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "patch"})
+    @Caching(evict = {
+            @CacheEvict(cacheNames = AppConstants.CACHE_PROFILE, key = "#userId"),
+            @CacheEvict(cacheNames = AppConstants.CACHE_EFFECTIVE_SETTINGS, key = "#userId.toString()")
+    })
+    public SettingsProfileDTO patchProfile(Long userId, SettingsProfileDTO dto, Long expectedVersion) {
         log.info("Patching settings profile for userId={}", userId);
+        // Blank means unchanged, like an omitted field
+        String timezone = givenZone(dto.timezone());
+        String locale = givenLocale(dto.locale());
+        if (expectedVersion == null && writeBehind.isEnabled()) {
+            // Merged with the user's pending patch; the row is read only for the first patch of a batch
+            SettingsProfileDTO change = new SettingsProfileDTO(userId, dto.fullName(), dto.phone(), timezone, locale, null);
+            return writeBehind.queueProfile(userId, change,
+                    id -> metrics.mapping(RESOURCE, () -> mapToDto(findStored("patch", id))));
+        }
+        writeBehind.flushProfile(userId);
 
-        SettingsProfile entity = repository.findByUserId(userId)
-                .orElseThrow(() -> {
-                    log.error("Profile not found for userId={}", userId);
-                    return new ResourceNotFoundException("Profile not found for userId=" + userId);
-                });
-
-        if (dto.fullName() != null) entity.setFullName(dto.fullName());
-        if (dto.phone() != null) entity.setPhone(dto.phone());
-        if (dto.timezone() != null) entity.setTimezone(dto.timezone());
-        if (dto.locale() != null) entity.setLocale(dto.locale());
+        return transaction().execute(status -> {
+            // One UPDATE of the non-null fields; its row count is the existence and version check
+            int rows = repository.patchByUserId(userId, dto.fullName(), dto.phone(), timezone, locale,
+                    LocalDateTime.now(), expectedVersion);
+            if (rows == 0) {
+                throw writeMissed("patch", userId, expectedVersion);
+            }
 
-        SettingsProfile patched = repository.save(entity);
-        log.debug("Profile patched: {}", patched);
+            // The response carries the whole row and MySQL has no UPDATE ... RETURNING
+            SettingsProfile patched = repository.findByUserId(userId)
+                    .orElseThrow(() -> metrics.notFound(RESOURCE, "patch",
+                            new ResourceNotFoundException("Profile not found for userId=" + userId)));
+            log.debug("Profile patched: {}", patched);
 
-        return mapToDto(patched);
+            return metrics.mapping(RESOURCE, () -> mapToDto(patched));
+        });
     }
 
     // -------------------- DELETE --------------------
     @Override
-    @Transactional
-    public void deleteProfile(Long userId) {
+    @Timed(value = AppConstants.METRIC_SETTINGS_OPERATION, extraTags = {"resource", "profile", "operation", "delete"})
+    @Caching(evict = {
+            @CacheEvict(cacheNames = AppConstants.CACHE_PROFILE, key = "#userId"),
+            @CacheEvict(cacheNames = AppConstants.CACHE_EFFECTIVE_SETTINGS, key = "#userId.toString()")
+    })
+    public void deleteProfile(Long userId, Long expectedVersion) {
         log.warn("Deleting settings profile for userId={}", userId);
+        writeBehind.flushProfile(userId);
+
+        transaction().executeWithoutResult(status -> {
+            // One DELETE; its row count is the existence and version check
+            if (repository.deleteByUserId(userId, expectedVersion) == 0) {
+                throw writeMissed("delete", userId, expectedVersion);
+            }
+        });
+        log.info("Profile deleted successfully for userId={}", userId);
+    }
 
-        SettingsProfile entity = repository.findByUserId(userId)
+    // -------------------- LOOKUP --------------------
+    /**
+     * Stored profile with the user's queued patch written. Not read-only: the flushed patch is
+     * only certain to be on the primary, and cached results must never come from a replica.
+     */
+    private SettingsProfile findStored(String operation, Long userId) {
+        writeBehind.flushProfileBeforeRead(userId);
+        return transaction().execute(status -> repository.findByUserId(userId)
                 .orElseThrow(() -> {
                     log.error("Profile not found for userId={}", userId);
-                    return new ResourceNotFoundException("Profile not found for userId=" + userId);
-                });
+                    return metrics.notFound(RESOURCE, operation,
+                            new ResourceNotFoundException("Profile not found for userId=" + userId));
+                }));
+    }
 
-        repository.delete(entity);
-        log.info("Profile deleted successfully for userId={}", userId);
+    /** Opened only after the user's queued patch is flushed; see {@link SettingsWriteBehind}. */
+    private TransactionTemplate transaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    // -------------------- VERSION CHECK --------------------
+    /**
+     * Explain why a single-statement patch or delete matched no row: a stale If-Match version
+     * when the row still exists, otherwise a missing row.
+     */
+    private RuntimeException writeMissed(String operation, Long userId, Long expectedVersion) {
+        if (expectedVersion != null && repository.existsByUserId(userId)) {
+            log.warn("Version mismatch for userId={}: expected={}", userId, expectedVersion);
+            return metrics.conflict(RESOURCE, operation, new PreconditionFailedException(
+                    "Profile for userId " + userId + " has changed since version " + expectedVersion));
+        }
+        log.error("Profile not found for userId={}", userId);
+        return metrics.notFound(RESOURCE, operation,
+                new ResourceNotFoundException("Profile not found for userId=" + userId));
+    }
+
+    private void requireVersion(String operation, SettingsProfile entity, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            log.warn("Version mismatch for userId={}: expected={} actual={}",
+                    entity.getUserId(), expectedVersion, entity.getVersion());
+            throw metrics.conflict(RESOURCE, operation, new PreconditionFailedException(
+                    "Profile for userId " + entity.getUserId() + " has changed (current version "
+                            + entity.getVersion() + ")"));
+        }
+    }
+
+    // -------------------- ZONE / LOCALE INPUT --------------------
+
+    /**
+     * Canonical timezone, or null when none was given. Blank counts as not given: the profile
+     * form sends empty strings for fields the user did not touch.
+     */
+    private String givenZone(String timezone) {
+        return timezone == null || timezone.isBlank() ? null : zoneLocales.canonicalZone(timezone);
+    }
+
+    /** Canonical locale, or null when none was given (null or blank). */
+    private String givenLocale(String locale) {
+        return locale == null || locale.isBlank() ? null : zoneLocales.canonicalLocale(locale);
     }
 
     // -------------------- MAPPERS --------------------
@@ -141,7 +319,8 @@ public class SettingsProfileServiceImpl implements SettingsProfileService {
                 entity.getFullName(),
                 entity.getPhone(),
                 entity.getTimezone(),
-                entity.getLocale()
+                entity.getLocale(),
+                entity.getVersion()
         );
     }
 
@@ -0,0 +1,37 @@
+package com.sphuta_tms.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Millisecond-resolution clock for response timestamps.
+ *
+ * <p>{@code LocalDateTime.now()} resolves the zone offset and builds a new date-time on
+ * every call. Here only the epoch millisecond is read per call; the {@link LocalDateTime}
+ * is rebuilt when the millisecond changes and shared by every caller within it.</p>
+ */
+public final class CachedClock {
+
+    /** Last computed value and the millisecond it belongs to; replaced as a whole so readers see a consistent pair. */
+    private record Tick(long millis, LocalDateTime time) {}
+
+    private static volatile Tick tick = new Tick(Long.MIN_VALUE, null);
+
+    // Prevent instantiation
+    private CachedClock() {}
+
+    /**
+     * @return the current local date-time in the system zone, truncated to milliseconds
+     */
+    public static LocalDateTime now() {
+        long millis = System.currentTimeMillis();
+        Tick current = tick;
+        if (current.millis() != millis) {
+            // Racing threads compute the same value; whichever write lands last is equally correct
+            current = new Tick(millis, LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()));
+            tick = current;
+        }
+        return current.time();
+    }
+}
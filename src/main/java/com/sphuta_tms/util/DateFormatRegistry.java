@@ -0,0 +1,139 @@
+package com.sphuta_tms.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Bounded cache of {@link DateTimeFormatter}s compiled from {@code SettingsPreferences.dateFormat}.
+ *
+ * <p>Stored patterns use the user-facing notation ({@code YYYY-MM-DD}), not
+ * {@link DateTimeFormatter} letters: in the JDK, {@code YYYY} is the week-based year and
+ * {@code DD} the day of year. Supported tokens, in either letter case except {@code M}:
+ * <ul>
+ *   <li>{@code YYYY} / {@code YY} – four or two digit year</li>
+ *   <li>{@code MM} / {@code M} – month number, zero padded or not;
+ *       {@code MMM} / {@code MMMM} – short or full month name</li>
+ *   <li>{@code DD} / {@code D} – day of month, zero padded or not</li>
+ * </ul>
+ * Year, month and day must each appear exactly once, separated only by {@code - / . , }
+ * or spaces. Lower-case {@code m} is rejected because it means minutes in most notations.</p>
+ *
+ * <p>Most users share a handful of patterns, so a pattern is translated once and its
+ * formatter (immutable, thread-safe) reused by everyone. The cache is a size-bounded
+ * Caffeine cache, so rarely used patterns are the ones evicted when it is full.</p>
+ */
+@Component
+public class DateFormatRegistry {
+
+    private static final String SEPARATORS = "-/., ";
+
+    private final Cache<String, DateTimeFormatter> formatters;
+
+    public DateFormatRegistry(@Value("${sphuta.date-format.cache-size:256}") int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.formatters = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Return the formatter for a stored pattern, compiling it on first use.
+     *
+     * @param pattern stored date format, e.g. {@code YYYY-MM-DD}
+     * @return formatter for {@link java.time.LocalDate} and other date-bearing temporals
+     * @throws ValidationException if the pattern is not supported (nothing is cached)
+     */
+    public DateTimeFormatter formatter(String pattern) {
+        if (pattern == null) {
+            throw invalid(null);
+        }
+        return formatters.get(pattern, p -> DateTimeFormatter.ofPattern(translate(p)));
+    }
+
+    /**
+     * Check a pattern before it is stored; compiled formatters are cached for later use.
+     *
+     * @param pattern date format to validate
+     * @throws ValidationException if the pattern is not supported
+     */
+    public void validate(String pattern) {
+        formatter(pattern);
+    }
+
+    /** Number of cached formatters. */
+    public int size() {
+        // Evictions run asynchronously; apply pending ones first
+        formatters.cleanUp();
+        return (int) formatters.estimatedSize();
+    }
+
+    /**
+     * Translate a stored pattern into {@link DateTimeFormatter} pattern letters.
+     *
+     * @param pattern stored date format
+     * @return equivalent {@code DateTimeFormatter} pattern
+     * @throws ValidationException if the pattern is not supported
+     */
+    static String translate(String pattern) {
+        if (pattern == null || pattern.isBlank()) {
+            throw invalid(pattern);
+        }
+        StringBuilder out = new StringBuilder(pattern.length());
+        boolean year = false;
+        boolean month = false;
+        boolean day = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            int run = 1;
+            while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                run++;
+            }
+            switch (c) {
+                case 'Y', 'y' -> {
+                    if (year || (run != 2 && run != 4)) {
+                        throw invalid(pattern);
+                    }
+                    year = true;
+                    out.append(run == 4 ? "uuuu" : "uu");
+                }
+                case 'M' -> {
+                    if (month || run > 4) {
+                        throw invalid(pattern);
+                    }
+                    month = true;
+                    out.append("MMMM", 0, run);
+                }
+                case 'D', 'd' -> {
+                    if (day || run > 2) {
+                        throw invalid(pattern);
+                    }
+                    day = true;
+                    out.append(run == 2 ? "dd" : "d");
+                }
+                default -> {
+                    if (SEPARATORS.indexOf(c) < 0) {
+                        throw invalid(pattern);
+                    }
+                    // Separators are not pattern letters and are copied as-is
+                    out.append(pattern, i, i + run);
+                }
+            }
+            i += run;
+        }
+        if (!year || !month || !day) {
+            throw invalid(pattern);
+        }
+        return out.toString();
+    }
+
+    private static ValidationException invalid(String pattern) {
+        return new ValidationException(AppConstants.MSG_INVALID_DATE_FORMAT + ": " + pattern);
+    }
+}
@@ -0,0 +1,99 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.exception.PreconditionFailedException;
+
+/**
+ * Conversion between entity versions and HTTP entity tags.
+ *
+ * <p>A record's ETag is its {@code @Version} value in quotes, e.g. {@code "3"}.
+ * It changes on every successful write, so clients can revalidate with
+ * {@code If-None-Match} (304 when unchanged) and guard writes with
+ * {@code If-Match} (412 when someone else wrote first).</p>
+ */
+public final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY = "*";
+
+    // Prevent instantiation
+    private ETags() {}
+
+    /**
+     * Build the strong ETag for a version.
+     *
+     * @param version entity version, may be null for unsaved records
+     * @return quoted ETag, or null when there is no version
+     */
+    public static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Build one ETag from the versions of several records, e.g. {@code "3.1.-"}.
+     * A missing record contributes {@code -}, so creating or deleting it changes the tag.
+     *
+     * @param versions versions of the combined records, null for missing ones
+     * @return quoted ETag
+     */
+    public static String ofAll(Long... versions) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (int i = 0; i < versions.length; i++) {
+            if (i > 0) tag.append('.');
+            tag.append(versions[i] == null ? "-" : versions[i].toString());
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Check an {@code If-None-Match} header against the current ETag.
+     * Uses weak comparison, as required for {@code If-None-Match}.
+     *
+     * @param ifNoneMatch header value, may be null
+     * @param etag        current ETag, may be null
+     * @return true when the client's copy is current and 304 can be returned
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (ANY.equals(tag) || etag.equals(stripWeak(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read the version a write is conditional on from an {@code If-Match} header.
+     *
+     * @param ifMatch header value, may be null
+     * @return expected version, or null when the write is unconditional
+     *         (no header, or {@code *} which only requires the record to exist)
+     * @throws PreconditionFailedException if the header does not name a version of this API,
+     *                                     since such a tag can never match
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (ANY.equals(tag)) {
+            return null;
+        }
+        // If-Match uses strong comparison, so weak tags never match
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw new PreconditionFailedException("If-Match must be a single ETag returned by this API: " + tag);
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
@@ -0,0 +1,272 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.exception.ValidationException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled form of {@code InvoicingSettings.invoiceNumberFormat}.
+ *
+ * <p>Supported tokens:
+ * <ul>
+ *   <li>{@code ${yyyy}} – four digit year</li>
+ *   <li>{@code ${MM}} – two digit month</li>
+ *   <li>{@code ${seq:N}} – sequence value, zero padded to N digits (required, exactly once)</li>
+ * </ul>
+ * Everything outside a token is copied literally, e.g. {@code INV-${yyyy}${seq:5}} → {@code INV-202600042}.
+ * </p>
+ *
+ * <p>The pattern is compiled once into a list of ops (adjacent literals merged into one
+ * {@code char[]}); rendering computes the exact output length and writes digits straight
+ * into the destination without regex substitution or intermediate strings.
+ * Instances are immutable and safe to share between threads; use
+ * {@link InvoiceNumberFormatCache} to reuse them across users.</p>
+ */
+public final class InvoiceNumberFormat {
+
+    /** Sequence values never reset when the format has no date token. */
+    public static final String NO_PERIOD = "all";
+
+    private static final int MAX_SEQUENCE_WIDTH = 18;
+
+    private final String pattern;
+    private final Op[] ops;
+    private final boolean hasYear;
+    private final boolean hasMonth;
+    /** Output length excluding any sequence digits beyond the padded width. */
+    private final int fixedLength;
+    private final int sequenceWidth;
+
+    private InvoiceNumberFormat(String pattern, List<Op> ops) {
+        this.pattern = pattern;
+        this.ops = ops.toArray(new Op[0]);
+
+        boolean year = false;
+        boolean month = false;
+        int length = 0;
+        int width = 0;
+        for (Op op : this.ops) {
+            year |= op.kind == Kind.YEAR;
+            month |= op.kind == Kind.MONTH;
+            if (op.kind == Kind.SEQUENCE) {
+                width = op.width;
+            }
+            length += op.kind == Kind.LITERAL ? op.text.length : op.width;
+        }
+        this.hasYear = year;
+        this.hasMonth = month;
+        this.fixedLength = length;
+        this.sequenceWidth = width;
+    }
+
+    /**
+     * Compile an invoice number format.
+     *
+     * @param pattern format string, e.g. {@code INV-${yyyy}${seq:5}}
+     * @return compiled format
+     * @throws ValidationException if the pattern is blank, has an unknown token or no sequence token
+     */
+    public static InvoiceNumberFormat parse(String pattern) {
+        if (pattern == null || pattern.isBlank()) {
+            throw new ValidationException("Invoice number format must not be blank");
+        }
+
+        List<Op> ops = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int sequenceTokens = 0;
+        int i = 0;
+        while (i < pattern.length()) {
+            int start = pattern.indexOf("${", i);
+            if (start < 0) {
+                literal.append(pattern, i, pattern.length());
+                break;
+            }
+            literal.append(pattern, i, start);
+            int end = pattern.indexOf('}', start + 2);
+            if (end < 0) {
+                throw new ValidationException("Unterminated token in invoice number format: " + pattern);
+            }
+            Op token = parseToken(pattern.substring(start + 2, end), pattern);
+            if (token.kind == Kind.SEQUENCE) {
+                sequenceTokens++;
+            }
+            if (literal.length() > 0) {
+                ops.add(Op.literal(literal));
+                literal.setLength(0);
+            }
+            ops.add(token);
+            i = end + 1;
+        }
+        if (literal.length() > 0) {
+            ops.add(Op.literal(literal));
+        }
+
+        if (sequenceTokens != 1) {
+            throw new ValidationException("Invoice number format must contain exactly one ${seq:N} token: " + pattern);
+        }
+        return new InvoiceNumberFormat(pattern, ops);
+    }
+
+    private static Op parseToken(String token, String pattern) {
+        switch (token) {
+            case "yyyy":
+                return new Op(Kind.YEAR, null, 4);
+            case "MM":
+                return new Op(Kind.MONTH, null, 2);
+            case "seq":
+                return new Op(Kind.SEQUENCE, null, 1);
+            default:
+                if (token.startsWith("seq:")) {
+                    int width;
+                    try {
+                        width = Integer.parseInt(token.substring(4));
+                    } catch (NumberFormatException ex) {
+                        throw new ValidationException("Invalid sequence width in invoice number format: " + pattern, ex);
+                    }
+                    if (width < 1 || width > MAX_SEQUENCE_WIDTH) {
+                        throw new ValidationException("Sequence width must be between 1 and "
+                                + MAX_SEQUENCE_WIDTH + ": " + pattern);
+                    }
+                    return new Op(Kind.SEQUENCE, null, width);
+                }
+                throw new ValidationException("Unknown token ${" + token + "} in invoice number format: " + pattern);
+        }
+    }
+
+    /**
+     * Sequence period for a date. Sequences restart when the period changes:
+     * yearly for {@code ${yyyy}}, monthly when {@code ${MM}} is present.
+     *
+     * @param date issue date
+     * @return period identifier such as {@code 2026}, {@code 202610} or {@link #NO_PERIOD}
+     */
+    public String period(LocalDate date) {
+        if (hasMonth) {
+            return Integer.toString(date.getYear() * 100 + date.getMonthValue());
+        }
+        if (hasYear) {
+            return Integer.toString(date.getYear());
+        }
+        return NO_PERIOD;
+    }
+
+    /**
+     * Render an invoice number.
+     *
+     * @param date     issue date
+     * @param sequence sequence value (non-negative)
+     * @return rendered invoice number
+     */
+    public String format(LocalDate date, long sequence) {
+        char[] buffer = new char[length(sequence)];
+        formatTo(buffer, 0, date.getYear(), date.getMonthValue(), sequence);
+        return new String(buffer);
+    }
+
+    /**
+     * Append an invoice number to a reusable builder, e.g. when rendering a batch.
+     *
+     * @param sb       destination
+     * @param date     issue date
+     * @param sequence sequence value (non-negative)
+     */
+    public void formatTo(StringBuilder sb, LocalDate date, long sequence) {
+        int year = date.getYear();
+        int month = date.getMonthValue();
+        for (Op op : ops) {
+            switch (op.kind) {
+                case LITERAL -> sb.append(op.text);
+                case YEAR -> appendPadded(sb, year, 4);
+                case MONTH -> appendPadded(sb, month, 2);
+                case SEQUENCE -> appendPadded(sb, sequence, op.width);
+            }
+        }
+    }
+
+    /**
+     * Write an invoice number into a caller-owned buffer.
+     * The buffer needs at least {@link #length(long)} chars from {@code offset}.
+     *
+     * @param dst      destination buffer
+     * @param offset   first index to write
+     * @param year     issue year (0–9999)
+     * @param month    issue month (1–12)
+     * @param sequence sequence value (non-negative)
+     * @return index after the last written char
+     */
+    public int formatTo(char[] dst, int offset, int year, int month, long sequence) {
+        int pos = offset;
+        for (Op op : ops) {
+            switch (op.kind) {
+                case LITERAL -> {
+                    System.arraycopy(op.text, 0, dst, pos, op.text.length);
+                    pos += op.text.length;
+                }
+                case YEAR -> pos = writePadded(dst, pos, year, 4);
+                case MONTH -> pos = writePadded(dst, pos, month, 2);
+                case SEQUENCE -> pos = writePadded(dst, pos, sequence, Math.max(op.width, digits(sequence)));
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Exact rendered length for a sequence value.
+     *
+     * @param sequence sequence value (non-negative)
+     * @return number of chars {@link #formatTo(char[], int, int, int, long)} writes
+     */
+    public int length(long sequence) {
+        return fixedLength + Math.max(0, digits(sequence) - sequenceWidth);
+    }
+
+    private static int writePadded(char[] dst, int pos, long value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            dst[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static void appendPadded(StringBuilder sb, long value, int width) {
+        for (int digits = digits(value); digits < width; digits++) {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /** Original format string. */
+    public String pattern() {
+        return pattern;
+    }
+
+    private enum Kind { LITERAL, YEAR, MONTH, SEQUENCE }
+
+    /** One compiled instruction: a literal chunk or a fixed-width numeric field. */
+    private static final class Op {
+        private final Kind kind;
+        private final char[] text;
+        private final int width;
+
+        private Op(Kind kind, char[] text, int width) {
+            this.kind = kind;
+            this.text = text;
+            this.width = width;
+        }
+
+        private static Op literal(CharSequence text) {
+            return new Op(Kind.LITERAL, text.toString().toCharArray(), 0);
+        }
+    }
+}
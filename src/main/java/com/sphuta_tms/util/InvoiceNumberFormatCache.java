@@ -0,0 +1,47 @@
+package com.sphuta_tms.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded cache of compiled {@link InvoiceNumberFormat}s keyed by format string.
+ *
+ * <p>Most users share a handful of formats (usually the default), so a format is
+ * compiled once and reused by every user that has it. A compiled format depends only
+ * on its pattern, so an entry never goes stale: a setting that changes its format looks
+ * up the new pattern. The cache is a size-bounded Caffeine cache, so rarely used
+ * formats are the ones dropped when it is full.</p>
+ */
+public final class InvoiceNumberFormatCache {
+
+    private final Cache<String, InvoiceNumberFormat> formats;
+
+    public InvoiceNumberFormatCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.formats = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Return the compiled format for a pattern, compiling it on first use.
+     *
+     * @param pattern format string
+     * @return compiled format
+     * @throws com.sphuta_tms.exception.ValidationException if the pattern is invalid (nothing is cached)
+     */
+    public InvoiceNumberFormat compile(String pattern) {
+        if (pattern == null) {
+            // Rejected by the parser; Caffeine does not accept null keys
+            return InvoiceNumberFormat.parse(null);
+        }
+        return formats.get(pattern, InvoiceNumberFormat::parse);
+    }
+
+    /** Number of cached formats. */
+    public int size() {
+        // Evictions run asynchronously; apply pending ones first
+        formats.cleanUp();
+        return (int) formats.estimatedSize();
+    }
+}
@@ -0,0 +1,169 @@
+package com.sphuta_tms.util;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Hands out invoice numbers per user from in-memory blocks of sequence values.
+ *
+ * <p>In {@link Mode#GAP_TOLERANT} mode a block of {@code blockSize} values is reserved
+ * through the {@link SequenceReserver} and then consumed with a lock-free fetch-and-add,
+ * so only one call per block reaches the database. Values of a block that is not used up
+ * (restart, format or period change) are skipped, leaving gaps.</p>
+ *
+ * <p>In {@link Mode#GAPLESS} mode every number is reserved individually; the reserver must
+ * join the transaction that persists the invoice, so a rollback also releases the number.
+ * Issuing is then serialized per user by the database row lock.</p>
+ */
+public final class InvoiceNumberGenerator {
+
+    /** Sequence allocation strategy. */
+    public enum Mode {
+        /** Reserve blocks, consume them in memory; unused values become gaps. */
+        GAP_TOLERANT,
+        /** Reserve each value in the caller's transaction; no gaps. */
+        GAPLESS
+    }
+
+    /**
+     * Reserves a contiguous range of sequence values.
+     */
+    @FunctionalInterface
+    public interface SequenceReserver {
+
+        /**
+         * @param sequenceKey key in the form userId|period
+         * @param size        number of values to reserve
+         * @return the first reserved value; the range is {@code [first, first + size)}
+         */
+        long reserve(String sequenceKey, int size);
+    }
+
+    private final SequenceReserver reserver;
+    private final Mode mode;
+    private final int blockSize;
+    private final Clock clock;
+    private final InvoiceNumberFormatCache formats;
+    private final ConcurrentHashMap<String, UserSequence> sequences = new ConcurrentHashMap<>();
+
+    public InvoiceNumberGenerator(SequenceReserver reserver, Mode mode, int blockSize, Clock clock,
+                                  InvoiceNumberFormatCache formats) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.reserver = reserver;
+        this.mode = mode;
+        this.blockSize = mode == Mode.GAPLESS ? 1 : blockSize;
+        this.clock = clock;
+        this.formats = formats;
+    }
+
+    /**
+     * Issue the next invoice number for a user.
+     *
+     * @param userId        user identifier
+     * @param formatLoader  loads the user's invoice number format; only called on first use or after {@link #evict}
+     * @return rendered invoice number
+     */
+    public String next(String userId, Function<String, String> formatLoader) {
+        UserSequence sequence = sequences.get(userId);
+        if (sequence == null) {
+            // Load outside the map so a slow lookup does not block other users hashing to the same bin
+            UserSequence loaded = new UserSequence(userId, formats.compile(formatLoader.apply(userId)));
+            UserSequence existing = sequences.putIfAbsent(userId, loaded);
+            sequence = existing != null ? existing : loaded;
+        }
+
+        LocalDate today = LocalDate.now(clock);
+        String period = sequence.format.period(today);
+        long value = mode == Mode.GAPLESS
+                ? reserver.reserve(sequence.key(period), 1)
+                : sequence.nextValue(period);
+        return sequence.format.format(today, value);
+    }
+
+    /**
+     * Drop the cached format and remaining block of a user, e.g. after the settings changed.
+     * The compiled format stays in the shared format cache, where other users with the same
+     * pattern keep using it; unused patterns age out of that cache by size.
+     *
+     * @param userId user identifier
+     */
+    public void evict(String userId) {
+        sequences.remove(userId);
+    }
+
+    /** Number of users with a cached sequence. */
+    public int size() {
+        return sequences.size();
+    }
+
+    /** Sequence state of one user: parsed format plus the block currently being consumed. */
+    private final class UserSequence {
+        private final String userId;
+        private final InvoiceNumberFormat format;
+        // Not synchronized: a virtual thread blocked on the reservation round trip would pin its carrier
+        private final ReentrantLock refillLock = new ReentrantLock();
+        private volatile Block block;
+
+        private UserSequence(String userId, InvoiceNumberFormat format) {
+            this.userId = userId;
+            this.format = format;
+        }
+
+        private String key(String period) {
+            return userId + '|' + period;
+        }
+
+        private long nextValue(String period) {
+            while (true) {
+                Block current = block;
+                if (current != null && current.period.equals(period)) {
+                    long value = current.take();
+                    if (value != Block.EXHAUSTED) {
+                        return value;
+                    }
+                }
+                refill(current, period);
+            }
+        }
+
+        /** Only the thread that observes the exhausted block reserves a new one; others retry. */
+        private void refill(Block seen, String period) {
+            refillLock.lock();
+            try {
+                if (block != seen) {
+                    return;
+                }
+                long first = reserver.reserve(key(period), blockSize);
+                block = new Block(period, first, first + blockSize);
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+
+    /** Range {@code [cursor, limit)} of reserved values for one period. */
+    private static final class Block {
+        private static final long EXHAUSTED = -1L;
+
+        private final String period;
+        private final AtomicLong cursor;
+        private final long limit;
+
+        private Block(String period, long first, long limit) {
+            this.period = period;
+            this.cursor = new AtomicLong(first);
+            this.limit = limit;
+        }
+
+        private long take() {
+            long value = cursor.getAndIncrement();
+            return value < limit ? value : EXHAUSTED;
+        }
+    }
+}
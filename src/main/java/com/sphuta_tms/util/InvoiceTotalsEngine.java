@@ -0,0 +1,264 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.entity.InvoicingSettings;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk computation of invoice subtotal, tax, total, due date and late fee from
+ * {@link InvoicingSettings}.
+ *
+ * <p>Amounts are {@code long} values in the currency's minor unit (cents for USD).
+ * Rates are kept as fixed-point integers at their column scale:
+ * {@code defaultTaxRate} in units of 0.0001 (0.0800 = 800) and {@code lateFeePercent}
+ * in units of 0.001 percent (1.500 % = 1500). For every invoice:
+ * <ul>
+ *   <li>subtotal = sum of its line amounts</li>
+ *   <li>tax = subtotal × defaultTaxRate, rounded half-up to the minor unit</li>
+ *   <li>total = subtotal + tax</li>
+ *   <li>due date = issue date + paymentTermsDays</li>
+ *   <li>late fee = total × lateFeePercent / 100, rounded half-up to the minor unit</li>
+ * </ul>
+ * Half-up rounds halves away from zero, so credit notes mirror invoices. Results are
+ * exactly those of {@code BigDecimal} arithmetic with {@link RoundingMode#HALF_UP}; a
+ * product that does not fit in a {@code long} is computed with {@code BigDecimal}.</p>
+ *
+ * <p>Invoices are given as parallel arrays, with their lines in one flat array, so a batch
+ * allocates only its result arrays. The {@code parallel} variant splits the invoices on the
+ * common fork/join pool, like {@link RoundingEngine}, for month-end billing runs.</p>
+ */
+public final class InvoiceTotalsEngine {
+
+    /** Below this many invoices per task, splitting costs more than it saves. */
+    static final int PARALLEL_THRESHOLD = 1 << 12;
+
+    /** Scale of {@code defaultTaxRate}. */
+    public static final int TAX_RATE_SCALE = 4;
+
+    /** Scale of {@code lateFeePercent}. */
+    public static final int LATE_FEE_SCALE = 3;
+
+    private static final long TAX_DIVISOR = 10_000L;
+    /** 10^3 for the scale, times 100 for the percentage. */
+    private static final long LATE_FEE_DIVISOR = 100_000L;
+
+    // Prevent instantiation
+    private InvoiceTotalsEngine() {}
+
+    /**
+     * Invoicing settings of one user as fixed-point values, resolved once per batch.
+     *
+     * @param taxRateUnits     tax rate in units of 0.0001
+     * @param lateFeeUnits     late fee in units of 0.001 percent
+     * @param paymentTermsDays days from issue to due date
+     */
+    public record InvoiceTerms(long taxRateUnits, long lateFeeUnits, int paymentTermsDays) {
+
+        /**
+         * @param settings invoicing settings of the issuing user
+         * @return the settings as fixed-point terms
+         * @throws IllegalArgumentException if a rate has more decimals than its column
+         */
+        public static InvoiceTerms of(InvoicingSettings settings) {
+            return of(settings.getDefaultTaxRate(), settings.getLateFeePercent(), settings.getPaymentTermsDays());
+        }
+
+        /**
+         * @param defaultTaxRate   tax rate (0.0800 = 8 %); null treated as 0
+         * @param lateFeePercent   late fee percentage (1.5 = 1.5 %); null treated as 0
+         * @param paymentTermsDays days from issue to due date; null treated as 0
+         * @return the values as fixed-point terms
+         * @throws IllegalArgumentException if a rate has more decimals than its column
+         */
+        public static InvoiceTerms of(BigDecimal defaultTaxRate, BigDecimal lateFeePercent, Integer paymentTermsDays) {
+            return new InvoiceTerms(units(defaultTaxRate, TAX_RATE_SCALE, "defaultTaxRate"),
+                    units(lateFeePercent, LATE_FEE_SCALE, "lateFeePercent"),
+                    paymentTermsDays != null ? paymentTermsDays : 0);
+        }
+
+        private static long units(BigDecimal value, int scale, String name) {
+            if (value == null) {
+                return 0;
+            }
+            try {
+                return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            } catch (ArithmeticException ex) {
+                throw new IllegalArgumentException(name + " must have at most " + scale + " decimals: " + value);
+            }
+        }
+    }
+
+    // -------------------- SINGLE VALUES --------------------
+
+    /**
+     * @param subtotal subtotal in minor units
+     * @param terms    invoicing terms
+     * @return tax in minor units
+     */
+    public static long tax(long subtotal, InvoiceTerms terms) {
+        return multiplyRound(subtotal, terms.taxRateUnits(), TAX_DIVISOR);
+    }
+
+    /**
+     * @param total invoice total in minor units
+     * @param terms invoicing terms
+     * @return late fee in minor units
+     */
+    public static long lateFee(long total, InvoiceTerms terms) {
+        return multiplyRound(total, terms.lateFeeUnits(), LATE_FEE_DIVISOR);
+    }
+
+    /**
+     * {@code amount × units / divisor}, rounded half-up (away from zero on ties).
+     */
+    static long multiplyRound(long amount, long units, long divisor) {
+        long low = amount * units;
+        if (Math.multiplyHigh(amount, units) != (low >> 63)) {
+            // Product does not fit in 64 bits; rare enough to take the slow path
+            return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(units))
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+        long quotient = low / divisor;
+        long remainder = low % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += low < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    // -------------------- BATCHES --------------------
+
+    /**
+     * Compute totals for a batch of invoices.
+     *
+     * @param lineAmounts line amounts in minor units, grouped by invoice
+     * @param lineOffsets invoice {@code i} has lines {@code lineOffsets[i]} (inclusive) to
+     *                    {@code lineOffsets[i + 1]} (exclusive); length is invoices + 1
+     * @param issueDays   issue date of each invoice as epoch day
+     * @param owners      for each invoice, the index of its issuing user in {@code terms}
+     * @param terms       invoicing terms per user index
+     * @return totals per invoice
+     * @throws ArithmeticException if a subtotal or total overflows a {@code long}
+     */
+    public static InvoiceTotals compute(long[] lineAmounts, int[] lineOffsets, long[] issueDays, int[] owners,
+                                        InvoiceTerms[] terms) {
+        InvoiceTotals totals = new InvoiceTotals(issueDays.length);
+        computeRange(lineAmounts, lineOffsets, issueDays, owners, terms, totals, 0, issueDays.length);
+        return totals;
+    }
+
+    /**
+     * Parallel variant of {@link #compute(long[], int[], long[], int[], InvoiceTerms[])}.
+     */
+    public static InvoiceTotals computeParallel(long[] lineAmounts, int[] lineOffsets, long[] issueDays, int[] owners,
+                                                InvoiceTerms[] terms) {
+        InvoiceTotals totals = new InvoiceTotals(issueDays.length);
+        ForkJoinPool.commonPool().invoke(new InvoiceTask(lineAmounts, lineOffsets, issueDays, owners, terms, totals,
+                0, issueDays.length));
+        return totals;
+    }
+
+    private static void computeRange(long[] lineAmounts, int[] lineOffsets, long[] issueDays, int[] owners,
+                                     InvoiceTerms[] terms, InvoiceTotals totals, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long subtotal = 0;
+            for (int line = lineOffsets[i]; line < lineOffsets[i + 1]; line++) {
+                subtotal = Math.addExact(subtotal, lineAmounts[line]);
+            }
+            InvoiceTerms invoiceTerms = terms[owners[i]];
+            long tax = multiplyRound(subtotal, invoiceTerms.taxRateUnits(), TAX_DIVISOR);
+            long total = Math.addExact(subtotal, tax);
+            totals.subtotals[i] = subtotal;
+            totals.taxes[i] = tax;
+            totals.totals[i] = total;
+            totals.lateFees[i] = multiplyRound(total, invoiceTerms.lateFeeUnits(), LATE_FEE_DIVISOR);
+            totals.dueDays[i] = issueDays[i] + invoiceTerms.paymentTermsDays();
+        }
+    }
+
+    /** Splits a batch of invoices in halves until it is below the threshold. */
+    private static final class InvoiceTask extends RecursiveAction {
+        private final long[] lineAmounts;
+        private final int[] lineOffsets;
+        private final long[] issueDays;
+        private final int[] owners;
+        private final InvoiceTerms[] terms;
+        private final InvoiceTotals totals;
+        private final int from;
+        private final int to;
+
+        private InvoiceTask(long[] lineAmounts, int[] lineOffsets, long[] issueDays, int[] owners,
+                            InvoiceTerms[] terms, InvoiceTotals totals, int from, int to) {
+            this.lineAmounts = lineAmounts;
+            this.lineOffsets = lineOffsets;
+            this.issueDays = issueDays;
+            this.owners = owners;
+            this.terms = terms;
+            this.totals = totals;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                computeRange(lineAmounts, lineOffsets, issueDays, owners, terms, totals, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new InvoiceTask(lineAmounts, lineOffsets, issueDays, owners, terms, totals, from, mid),
+                    new InvoiceTask(lineAmounts, lineOffsets, issueDays, owners, terms, totals, mid, to));
+        }
+    }
+
+    /**
+     * Results of a batch, indexed like its invoices. Amounts are in minor units.
+     */
+    public static final class InvoiceTotals {
+
+        private final long[] subtotals;
+        private final long[] taxes;
+        private final long[] totals;
+        private final long[] lateFees;
+        private final long[] dueDays;
+
+        private InvoiceTotals(int size) {
+            this.subtotals = new long[size];
+            this.taxes = new long[size];
+            this.totals = new long[size];
+            this.lateFees = new long[size];
+            this.dueDays = new long[size];
+        }
+
+        /** Number of invoices. */
+        public int size() {
+            return subtotals.length;
+        }
+
+        public long subtotal(int invoice) {
+            return subtotals[invoice];
+        }
+
+        public long tax(int invoice) {
+            return taxes[invoice];
+        }
+
+        public long total(int invoice) {
+            return totals[invoice];
+        }
+
+        /** Fee charged if the invoice is still unpaid after its due date. */
+        public long lateFee(int invoice) {
+            return lateFees[invoice];
+        }
+
+        public LocalDate dueDate(int invoice) {
+            return LocalDate.ofEpochDay(dueDays[invoice]);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.sphuta_tms.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Writes large result sets to the HTTP response as a JSON array, and reads large request
+ * bodies, one element at a time.
+ *
+ * <p>The producer pushes items into the supplied consumer (typically while iterating a
+ * JPA {@code Stream}); each item is serialized straight into the response buffer, so
+ * memory use does not grow with the number of rows. Readers parse the next element only
+ * when it is asked for; malformed input surfaces from the iterator as an
+ * {@link UncheckedIOException}.</p>
+ */
+public final class JsonStreams {
+
+    // Prevent instantiation
+    private JsonStreams() {}
+
+    /**
+     * Build a response body that streams a JSON array.
+     *
+     * @param objectMapper application object mapper (keeps SNAKE_CASE and other settings)
+     * @param producer     pushes every element into the given consumer, in order
+     * @param <T>          element type
+     * @return streaming response body
+     */
+    public static <T> StreamingResponseBody array(ObjectMapper objectMapper, Consumer<Consumer<T>> producer) {
+        // Flushing after every element would turn each row into its own network write
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                producer.accept(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    /**
+     * Read a body holding one JSON array, element by element.
+     *
+     * @param objectMapper application object mapper
+     * @param body         request body
+     * @param type         element type
+     * @param <T>          element type
+     * @return iterator over the array elements
+     * @throws IOException when the body does not start with a JSON array
+     */
+    public static <T> Iterator<T> readArray(ObjectMapper objectMapper, InputStream body, Class<T> type)
+            throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(body);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected a JSON array");
+        }
+        return new ElementIterator<>(parser, objectMapper.readerFor(type), JsonToken.END_ARRAY);
+    }
+
+    /**
+     * Read a body holding a sequence of JSON values (e.g. NDJSON), value by value.
+     *
+     * @param objectMapper application object mapper
+     * @param body         request body
+     * @param type         value type
+     * @param <T>          value type
+     * @return iterator over the values
+     * @throws IOException when the body cannot be opened for parsing
+     */
+    public static <T> Iterator<T> readSequence(ObjectMapper objectMapper, InputStream body, Class<T> type)
+            throws IOException {
+        return new ElementIterator<>(objectMapper.getFactory().createParser(body), objectMapper.readerFor(type), null);
+    }
+
+    /** Binds one value per call, leaving the rest of the input unread. */
+    private static final class ElementIterator<T> implements Iterator<T> {
+
+        private final JsonParser parser;
+        private final ObjectReader reader;
+        /** Token after the last element: END_ARRAY for an array, null (end of input) for a sequence. */
+        private final JsonToken end;
+        private JsonToken next;
+
+        ElementIterator(JsonParser parser, ObjectReader reader, JsonToken end) {
+            this.parser = parser;
+            this.reader = reader;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                if (next == null) {
+                    next = parser.nextToken();
+                    if (next == null && end != null) {
+                        throw new JsonParseException(parser, "Unexpected end of input inside a JSON array");
+                    }
+                }
+                return next != end;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                T value = reader.readValue(parser);
+                next = null;
+                return value;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.dto.CursorPageDTO;
+import com.sphuta_tms.exception.ValidationException;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers for keyset pagination on the {@code user_id} primary key.
+ *
+ * <p>Queries fetch one row more than the page size; the extra row only tells
+ * whether another page exists and is never returned.</p>
+ */
+public final class KeysetPaging {
+
+    // Prevent instantiation
+    private KeysetPaging() {}
+
+    /**
+     * Validate a page size and build the query limit (page size + 1).
+     *
+     * @param size requested page size
+     * @return limit for the repository query
+     * @throws ValidationException if size is outside 1..{@link AppConstants#MAX_PAGE_SIZE}
+     */
+    public static Limit limit(int size) {
+        if (size < 1 || size > AppConstants.MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + AppConstants.MAX_PAGE_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
+
+    /**
+     * Build a page from the rows returned for {@link #limit(int)}.
+     *
+     * @param rows   query result, at most size + 1 rows in key order
+     * @param size   requested page size
+     * @param mapper entity to DTO conversion
+     * @param key    extracts the cursor key from a DTO
+     * @param <E>    entity type
+     * @param <T>    DTO type
+     * @return page with the next cursor set when more rows exist
+     */
+    public static <E, T> CursorPageDTO<T> page(List<E> rows, int size, Function<E, T> mapper, Function<T, ?> key) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = (hasMore ? rows.subList(0, size) : rows).stream()
+                .map(mapper)
+                .toList();
+        String nextCursor = hasMore ? String.valueOf(key.apply(items.get(items.size() - 1))) : null;
+        return new CursorPageDTO<>(items, items.size(), nextCursor);
+    }
+}
@@ -0,0 +1,145 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.PreferencesRequest;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV layout of preferences for bulk import and export.
+ *
+ * <p>Columns: {@code user_id,date_format,week_starts_on,rounding,updated_at}. Import reads
+ * the first four columns and ignores the rest, so an export can be imported unchanged.
+ * Fields follow RFC 4180 quoting; a record must fit on one line.</p>
+ */
+public final class PreferencesCsv {
+
+    public static final String HEADER = "user_id,date_format,week_starts_on,rounding,updated_at";
+
+    private static final int IMPORT_COLUMNS = 4;
+
+    // Prevent instantiation
+    private PreferencesCsv() {}
+
+    /**
+     * Check that a header line starts with the import columns.
+     *
+     * @param line first line of the body
+     * @throws ValidationException if the columns do not match
+     */
+    public static void checkHeader(String line) {
+        List<String> columns = split(line);
+        List<String> expected = split(HEADER).subList(0, IMPORT_COLUMNS);
+        if (columns.size() < IMPORT_COLUMNS || !columns.subList(0, IMPORT_COLUMNS).equals(expected)) {
+            throw new ValidationException("CSV header must start with " + String.join(",", expected));
+        }
+    }
+
+    /**
+     * Parse one data line.
+     *
+     * @param line CSV record
+     * @return request; empty columns are null
+     * @throws ValidationException if the column count or an enum value is invalid
+     */
+    public static PreferencesRequest parse(String line) {
+        List<String> columns = split(line);
+        if (columns.size() < IMPORT_COLUMNS) {
+            throw new ValidationException("Expected at least " + IMPORT_COLUMNS + " columns but found " + columns.size());
+        }
+        return new PreferencesRequest(
+                emptyToNull(columns.get(0)),
+                emptyToNull(columns.get(1)),
+                parseEnum(WeekStart.class, columns.get(2), AppConstants.MSG_INVALID_WEEK_START),
+                parseEnum(Rounding.class, columns.get(3), AppConstants.MSG_INVALID_ROUNDING)
+        );
+    }
+
+    /**
+     * Append one record, without line terminator.
+     *
+     * @param out         target buffer
+     * @param preferences row to write
+     */
+    public static void format(StringBuilder out, PreferencesResponse preferences) {
+        appendField(out, preferences.userId()).append(',');
+        appendField(out, preferences.dateFormat()).append(',');
+        appendField(out, preferences.weekStartsOn() == null ? null : preferences.weekStartsOn().name()).append(',');
+        appendField(out, preferences.rounding() == null ? null : preferences.rounding().name()).append(',');
+        appendField(out, preferences.updatedAt() == null ? null : preferences.updatedAt().toString());
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String message) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException ex) {
+            throw new ValidationException(message + ": " + value);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            return out.append(value);
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Split a record into unquoted fields.
+     */
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(IMPORT_COLUMNS + 1);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
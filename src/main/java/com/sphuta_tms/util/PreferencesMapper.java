@@ -20,8 +20,6 @@ public class PreferencesMapper {
      * @return SettingsPreferences entity
      */
     public SettingsPreferences toEntity(PreferencesRequest request) {
-        log.debug("Mapping PreferencesRequest to SettingsPreferences entity: {}", request);
-
         SettingsPreferences entity = SettingsPreferences.builder()
                 .userId(request.userId())
                 .dateFormat(request.dateFormat())
@@ -29,7 +27,10 @@ public class PreferencesMapper {
                 .rounding(request.rounding())          // now matches Rounding enum
                 .build();
 
-        log.info("Mapped PreferencesRequest with userId={} to entity", entity.getUserId());
+        // Runs once per row on every read and write path: keep it off at INFO
+        if (log.isDebugEnabled()) {
+            log.debug("Mapped PreferencesRequest with userId={} to entity", entity.getUserId());
+        }
         return entity;
     }
 
@@ -40,17 +41,18 @@ public class PreferencesMapper {
      * @return PreferencesResponse DTO
      */
     public PreferencesResponse toResponse(SettingsPreferences entity) {
-        log.debug("Mapping SettingsPreferences entity to PreferencesResponse: {}", entity);
-
         PreferencesResponse response = new PreferencesResponse(
                 entity.getUserId(),
                 entity.getDateFormat(),
                 entity.getWeekStartsOn(),
                 entity.getRounding(),
-                entity.getUpdatedAt()
+                entity.getUpdatedAt(),
+                entity.getVersion()
         );
 
-        log.info("Mapped SettingsPreferences entity with userId={} to PreferencesResponse", response.userId());
+        if (log.isDebugEnabled()) {
+            log.debug("Mapped SettingsPreferences entity with userId={} to PreferencesResponse", response.userId());
+        }
         return response;
     }
 }
@@ -33,10 +33,14 @@ public class ResponseMapper {
                 entity.getPaymentTermsDays(),
                 entity.getLateFeePercent(),
                 entity.getTemplateId(),
-                entity.getLogoFileId()
+                entity.getLogoFileId(),
+                entity.getVersion()
         );
 
-        log.debug("Converted entity to DTO: {}", dto);
+        // Whole-DTO formatting is only paid for when DEBUG is on
+        if (log.isDebugEnabled()) {
+            log.debug("Converted entity to DTO: {}", dto);
+        }
         return dto;
     }
 
@@ -64,7 +68,9 @@ public class ResponseMapper {
                 .logoFileId(dto.logoFileId())
                 .build();
 
-        log.debug("Converted DTO to entity: {}", entity);
+        if (log.isDebugEnabled()) {
+            log.debug("Converted DTO to entity: {}", entity);
+        }
         return entity;
     }
 }
@@ -0,0 +1,199 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.Rounding;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk rounding of time-entry durations according to {@link Rounding} preferences.
+ *
+ * <p>Durations are primitive {@code long} values in a caller-chosen unit (minutes,
+ * seconds, ...). Values are rounded half-up to the nearest increment, which gives
+ * the same result as {@code BigDecimal} {@code HALF_UP} rounding of
+ * {@code duration / increment} for non-negative inputs.</p>
+ *
+ * <p>The sequential methods are tight loops over {@code long[]} with no allocation.
+ * The {@code parallel} variants split the array into chunks on the common
+ * fork/join pool and are meant for payroll-close batches of millions of entries.</p>
+ */
+public final class RoundingEngine {
+
+    /** Below this many entries per task, splitting costs more than it saves. */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    // Prevent instantiation
+    private RoundingEngine() {}
+
+    /**
+     * Rounding increment expressed in the unit of the durations.
+     *
+     * @param rounding rounding preference (null treated as {@link Rounding#NONE})
+     * @param unit     unit of the durations; must not be coarser than minutes
+     * @return increment in {@code unit}, 0 when no rounding applies
+     */
+    public static long increment(Rounding rounding, TimeUnit unit) {
+        if (rounding == null || rounding.getIncrementMinutes() == 0) {
+            return 0;
+        }
+        if (unit.compareTo(TimeUnit.MINUTES) > 0) {
+            throw new IllegalArgumentException("Durations must be in minutes or a finer unit, got " + unit);
+        }
+        return unit.convert(rounding.getIncrementMinutes(), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Round one duration half-up to the nearest increment.
+     *
+     * @param duration  duration value
+     * @param increment increment in the same unit; 0 or less returns the duration unchanged
+     * @return rounded duration
+     */
+    public static long round(long duration, long increment) {
+        if (increment <= 0) {
+            return duration;
+        }
+        return Math.floorDiv(duration + increment / 2, increment) * increment;
+    }
+
+    /**
+     * Round all durations in place with one preference.
+     *
+     * @param durations durations to round
+     * @param unit      unit of the durations
+     * @param rounding  rounding preference
+     */
+    public static void round(long[] durations, TimeUnit unit, Rounding rounding) {
+        roundRange(durations, durations, 0, durations.length, increment(rounding, unit));
+    }
+
+    /**
+     * Round durations into a separate destination array with one preference.
+     *
+     * @param source      durations to round
+     * @param destination receives the rounded durations; at least {@code source.length} long
+     * @param unit        unit of the durations
+     * @param rounding    rounding preference
+     */
+    public static void round(long[] source, long[] destination, TimeUnit unit, Rounding rounding) {
+        roundRange(source, destination, 0, source.length, increment(rounding, unit));
+    }
+
+    /**
+     * Round all durations in place with one preference, in parallel.
+     *
+     * @param durations durations to round
+     * @param unit      unit of the durations
+     * @param rounding  rounding preference
+     */
+    public static void roundParallel(long[] durations, TimeUnit unit, Rounding rounding) {
+        long increment = increment(rounding, unit);
+        if (increment == 0) {
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new UniformTask(durations, 0, durations.length, increment));
+    }
+
+    /**
+     * Round a mixed batch in place where every entry belongs to a user with their own preference.
+     *
+     * @param durations       durations to round
+     * @param owners          for each entry, the index of its user in {@code ownerRoundings}
+     * @param ownerRoundings  rounding preference per user index
+     * @param unit            unit of the durations
+     */
+    public static void roundByOwner(long[] durations, int[] owners, Rounding[] ownerRoundings, TimeUnit unit) {
+        long[] increments = increments(ownerRoundings, unit);
+        roundByOwnerRange(durations, owners, increments, 0, durations.length);
+    }
+
+    /**
+     * Parallel variant of {@link #roundByOwner(long[], int[], Rounding[], TimeUnit)}.
+     */
+    public static void roundByOwnerParallel(long[] durations, int[] owners, Rounding[] ownerRoundings, TimeUnit unit) {
+        long[] increments = increments(ownerRoundings, unit);
+        ForkJoinPool.commonPool().invoke(new OwnerTask(durations, owners, increments, 0, durations.length));
+    }
+
+    private static long[] increments(Rounding[] roundings, TimeUnit unit) {
+        long[] increments = new long[roundings.length];
+        for (int i = 0; i < roundings.length; i++) {
+            increments[i] = increment(roundings[i], unit);
+        }
+        return increments;
+    }
+
+    private static void roundRange(long[] source, long[] destination, int from, int to, long increment) {
+        if (increment == 0) {
+            if (source != destination) {
+                System.arraycopy(source, from, destination, from, to - from);
+            }
+            return;
+        }
+        long half = increment / 2;
+        for (int i = from; i < to; i++) {
+            destination[i] = Math.floorDiv(source[i] + half, increment) * increment;
+        }
+    }
+
+    private static void roundByOwnerRange(long[] durations, int[] owners, long[] increments, int from, int to) {
+        for (int i = from; i < to; i++) {
+            durations[i] = round(durations[i], increments[owners[i]]);
+        }
+    }
+
+    /** Splits a single-preference batch in halves until it is below the threshold. */
+    private static final class UniformTask extends RecursiveAction {
+        private final long[] durations;
+        private final int from;
+        private final int to;
+        private final long increment;
+
+        private UniformTask(long[] durations, int from, int to, long increment) {
+            this.durations = durations;
+            this.from = from;
+            this.to = to;
+            this.increment = increment;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                roundRange(durations, durations, from, to, increment);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new UniformTask(durations, from, mid, increment),
+                    new UniformTask(durations, mid, to, increment));
+        }
+    }
+
+    /** Splits a mixed-owner batch in halves until it is below the threshold. */
+    private static final class OwnerTask extends RecursiveAction {
+        private final long[] durations;
+        private final int[] owners;
+        private final long[] increments;
+        private final int from;
+        private final int to;
+
+        private OwnerTask(long[] durations, int[] owners, long[] increments, int from, int to) {
+            this.durations = durations;
+            this.owners = owners;
+            this.increments = increments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                roundByOwnerRange(durations, owners, increments, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new OwnerTask(durations, owners, increments, from, mid),
+                    new OwnerTask(durations, owners, increments, mid, to));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.AppConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters recorded inside the settings services.
+ *
+ * <p>Operation latency is recorded by {@code @Timed} on the service methods and database
+ * time by the Spring Data repository metrics; this class adds what neither can see:
+ * the entity/DTO mapping time and the not-found / conflict outcomes of each operation.</p>
+ */
+@Component
+public class SettingsMetrics {
+
+    public static final String OUTCOME_NOT_FOUND = "not_found";
+    public static final String OUTCOME_CONFLICT = "conflict";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> mappingTimers = new ConcurrentHashMap<>();
+
+    public SettingsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Run and time an entity/DTO mapping.
+     *
+     * @param resource settings resource (invoicing, preferences, profile)
+     * @param mapping  the mapping to run
+     * @param <T>      mapping result type
+     * @return the mapping result
+     */
+    public <T> T mapping(String resource, Supplier<T> mapping) {
+        return mappingTimers.computeIfAbsent(resource, r -> Timer.builder(AppConstants.METRIC_SETTINGS_MAPPING)
+                        .description("Time spent converting between settings entities and DTOs")
+                        .tag("resource", r)
+                        .register(registry))
+                .record(mapping);
+    }
+
+    /**
+     * Count a not-found outcome of an operation that does not throw.
+     *
+     * @param resource  settings resource
+     * @param operation service operation
+     */
+    public void notFound(String resource, String operation) {
+        outcome(resource, operation, OUTCOME_NOT_FOUND).increment();
+    }
+
+    /**
+     * Count a not-found outcome and hand back the exception to throw.
+     *
+     * @param resource  settings resource
+     * @param operation service operation
+     * @param ex        exception describing the outcome
+     * @param <E>       exception type
+     * @return {@code ex}
+     */
+    public <E extends RuntimeException> E notFound(String resource, String operation, E ex) {
+        notFound(resource, operation);
+        return ex;
+    }
+
+    /**
+     * Count a conflict outcome (record already exists) and hand back the exception to throw.
+     *
+     * @param resource  settings resource
+     * @param operation service operation
+     * @param ex        exception describing the outcome
+     * @param <E>       exception type
+     * @return {@code ex}
+     */
+    public <E extends RuntimeException> E conflict(String resource, String operation, E ex) {
+        outcome(resource, operation, OUTCOME_CONFLICT).increment();
+        return ex;
+    }
+
+    private Counter outcome(String resource, String operation, String outcome) {
+        return Counter.builder(AppConstants.METRIC_SETTINGS_OUTCOME)
+                .description("Settings operations that ended without success")
+                .tag("resource", resource)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -35,7 +35,8 @@ public final class SettingsProfileMapper {
                 entity.getFullName(),
                 entity.getPhone(),
                 entity.getTimezone(),
-                entity.getLocale()
+                entity.getLocale(),
+                entity.getVersion()
         );
     }
 
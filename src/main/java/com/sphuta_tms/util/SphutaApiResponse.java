@@ -4,12 +4,15 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 /**
  * Generic API response wrapper used across all endpoints.
  * Ensures consistent structure for success & error responses.
  *
+ * <p>The factories are on the hot path of every request: the trace ID comes from
+ * {@link TraceIds#current()} (the request's propagated or pre-generated ID) and the
+ * timestamp from {@link CachedClock}, and the record is built directly without a builder.</p>
+ *
  * @param <T> the type of response data
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -25,24 +28,13 @@ public record SphutaApiResponse<T>(
      * Static factory method for success responses.
      */
     public static <T> SphutaApiResponse<T> success(String message, T data) {
-        return SphutaApiResponse.<T>builder()
-                .success(true)
-                .message(message)
-                .data(data)
-                .traceId(UUID.randomUUID().toString())
-                .timestamp(LocalDateTime.now())
-                .build();
+        return new SphutaApiResponse<>(true, message, data, TraceIds.current(), CachedClock.now());
     }
 
     /**
      * Static factory method for error responses.
      */
     public static <T> SphutaApiResponse<T> error(String message) {
-        return SphutaApiResponse.<T>builder()
-                .success(false)
-                .message(message)
-                .traceId(UUID.randomUUID().toString())
-                .timestamp(LocalDateTime.now())
-                .build();
+        return new SphutaApiResponse<>(false, message, null, TraceIds.current(), CachedClock.now());
     }
 }
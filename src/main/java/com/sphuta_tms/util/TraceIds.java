@@ -0,0 +1,120 @@
+package com.sphuta_tms.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Trace IDs for response envelopes and log lines.
+ *
+ * <p>IDs are 32 lowercase hex characters, the W3C {@code traceparent} trace-id format.
+ * The first 16 characters are the epoch millisecond shifted left by 16 bits plus a per-thread
+ * sequence, so IDs sort by creation time and never repeat or go backwards on one thread.
+ * The last 16 characters come from {@link ThreadLocalRandom}; unlike {@code UUID.randomUUID()}
+ * nothing is shared between threads and no {@code SecureRandom} is involved.</p>
+ *
+ * <p>A request that arrives with a valid {@code traceparent} header keeps its trace-id:
+ * {@link com.sphuta_tms.config.TraceIdFilter} binds it to the request thread and
+ * {@link #current()} returns it.</p>
+ */
+public final class TraceIds {
+
+    /** W3C Trace Context request header. */
+    public static final String TRACEPARENT = "traceparent";
+
+    /** MDC key holding the trace ID of the request being processed. */
+    public static final String MDC_KEY = "traceId";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Trace ID bound to the current request thread, if any. */
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    /** Last time/sequence half issued on this thread. */
+    private static final ThreadLocal<long[]> LAST = ThreadLocal.withInitial(() -> new long[1]);
+
+    // Prevent instantiation
+    private TraceIds() {}
+
+    /**
+     * @return the trace ID bound to this thread, or a new one when none is bound
+     */
+    public static String current() {
+        String bound = CURRENT.get();
+        return bound != null ? bound : next();
+    }
+
+    /**
+     * Generate a new trace ID.
+     *
+     * @return 32 lowercase hex characters
+     */
+    public static String next() {
+        long[] last = LAST.get();
+        // Same millisecond (or a clock step back): continue the sequence instead of reusing a value
+        long high = Math.max(System.currentTimeMillis() << 16, last[0] + 1);
+        last[0] = high;
+        long low = ThreadLocalRandom.current().nextLong();
+
+        char[] id = new char[32];
+        writeHex(high, id, 0);
+        writeHex(low, id, 16);
+        return new String(id);
+    }
+
+    /**
+     * Bind a trace ID to the current thread until {@link #unbind()}.
+     *
+     * @param traceId trace ID to return from {@link #current()}
+     */
+    public static void bind(String traceId) {
+        CURRENT.set(traceId);
+    }
+
+    /**
+     * Remove the trace ID bound to the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Extract the trace-id from a W3C {@code traceparent} header
+     * ({@code version-traceid-parentid-flags}, e.g. {@code 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01}).
+     *
+     * @param traceparent header value, may be null
+     * @return the trace-id, or null when the header is absent or malformed
+     */
+    public static String fromTraceparent(String traceparent) {
+        if (traceparent == null || traceparent.length() < 55
+                || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        // Version ff is forbidden; version 00 has exactly four fields, later versions may append more
+        if (!isHex(traceparent, 0, 2) || traceparent.startsWith("ff")
+                || (traceparent.startsWith("00") && traceparent.length() != 55)
+                || (traceparent.length() > 55 && traceparent.charAt(55) != '-')) {
+            return null;
+        }
+        if (!isHex(traceparent, 3, 35) || !isHex(traceparent, 36, 52) || !isHex(traceparent, 53, 55)) {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        return traceId.equals("00000000000000000000000000000000") ? null : traceId;
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeHex(long value, char[] out, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            out[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
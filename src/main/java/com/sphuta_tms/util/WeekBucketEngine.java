@@ -0,0 +1,406 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Assigns time entries to calendar weeks and totals their rounded durations per user and week.
+ *
+ * <p>Each entry is an epoch-millisecond start instant, a duration and the index of its owner in a
+ * {@link UserCalendar} array carrying that user's time zone, {@link WeekStart} and {@link Rounding}.
+ * The entry belongs to the week containing its start date in the owner's zone.</p>
+ *
+ * <p>Weeks are identified by an ordinal: {@code floorDiv(localEpochDay + 3, 7)} for Monday weeks and
+ * {@code floorDiv(localEpochDay + 4, 7)} for Sunday weeks (1970-01-01 was a Thursday). A Sunday week and
+ * the Monday week starting the next day share an ordinal, so one grid holds users with either setting.
+ * Everything is {@code long} arithmetic: no {@code Instant}, {@code LocalDate} or {@code ZonedDateTime}
+ * per entry. Zone offsets are looked up once per offset period (between DST transitions) and reused
+ * while consecutive entries of an owner stay inside it.</p>
+ *
+ * <p>The {@code parallel} variants split the entries on the common fork/join pool, like
+ * {@link RoundingEngine}, and are meant for month-end batches of tens of millions of entries.</p>
+ */
+public final class WeekBucketEngine {
+
+    /** Below this many entries per task, splitting costs more than it saves. */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /** Largest owners x weeks grid a batch may allocate (128 MB of totals). */
+    static final int MAX_CELLS = 1 << 24;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    // Prevent instantiation
+    private WeekBucketEngine() {}
+
+    /**
+     * Calendar settings of one user, resolved once per batch.
+     *
+     * @param zone      time zone the user's days are counted in
+     * @param weekStart first day of the user's week
+     * @param rounding  rounding applied to each entry's duration
+     */
+    public record UserCalendar(ZoneId zone, WeekStart weekStart, Rounding rounding) {
+
+        /** Zone rules, looked up once instead of per entry. */
+        ZoneRules rules() {
+            return zone.getRules();
+        }
+
+        /** Added to the local epoch day before dividing by 7. */
+        int shift() {
+            return weekStart == WeekStart.SUN ? 4 : 3;
+        }
+    }
+
+    // -------------------- SINGLE VALUES --------------------
+
+    /**
+     * Week ordinal of a local date.
+     *
+     * @param localEpochDay local date as epoch day
+     * @param weekStart     first day of the week
+     * @return week ordinal
+     */
+    public static long weekOf(long localEpochDay, WeekStart weekStart) {
+        return Math.floorDiv(localEpochDay + (weekStart == WeekStart.SUN ? 4 : 3), 7);
+    }
+
+    /**
+     * First day of a week.
+     *
+     * @param week      week ordinal
+     * @param weekStart first day of the week
+     * @return epoch day of the week's first day
+     */
+    public static long weekStartDay(long week, WeekStart weekStart) {
+        return 7 * week - (weekStart == WeekStart.SUN ? 4 : 3);
+    }
+
+    // -------------------- PER-ENTRY WEEKS --------------------
+
+    /**
+     * Compute the week ordinal of every entry.
+     *
+     * @param startMillis entry start instants (epoch milliseconds)
+     * @param owners      for each entry, the index of its user in {@code calendars}
+     * @param calendars   calendar settings per user index
+     * @param weeks       receives the week ordinal of each entry; at least {@code startMillis.length} long
+     */
+    public static void assign(long[] startMillis, int[] owners, UserCalendar[] calendars, long[] weeks) {
+        assignRange(startMillis, owners, prepare(calendars), weeks, 0, startMillis.length);
+    }
+
+    /**
+     * Parallel variant of {@link #assign(long[], int[], UserCalendar[], long[])}.
+     */
+    public static void assignParallel(long[] startMillis, int[] owners, UserCalendar[] calendars, long[] weeks) {
+        ForkJoinPool.commonPool().invoke(new AssignTask(startMillis, owners, prepare(calendars), weeks,
+                0, startMillis.length));
+    }
+
+    // -------------------- WEEKLY TOTALS --------------------
+
+    /**
+     * Total the rounded durations of all entries per user and week.
+     * Every entry is rounded on its own before it is added, as on a timesheet.
+     *
+     * @param startMillis entry start instants (epoch milliseconds)
+     * @param durations   entry durations in {@code unit}; not modified
+     * @param owners      for each entry, the index of its user in {@code calendars}
+     * @param calendars   calendar settings per user index
+     * @param unit        unit of the durations; must not be coarser than minutes
+     * @return totals per user and week
+     * @throws IllegalArgumentException if the entries span more weeks than fit in {@link #MAX_CELLS}
+     */
+    public static WeekTotals totals(long[] startMillis, long[] durations, int[] owners,
+                                    UserCalendar[] calendars, TimeUnit unit) {
+        Prepared prepared = prepare(calendars);
+        long[] weeks = new long[startMillis.length];
+        long[] range = assignRange(startMillis, owners, prepared, weeks, 0, startMillis.length);
+        long[] increments = increments(calendars, unit);
+
+        WeekTotals totals = WeekTotals.allocate(calendars, range, unit);
+        long first = totals.firstWeek;
+        int weekCount = totals.weekCount;
+        for (int i = 0; i < weeks.length; i++) {
+            int owner = owners[i];
+            totals.cells[owner * weekCount + (int) (weeks[i] - first)] +=
+                    RoundingEngine.round(durations[i], increments[owner]);
+        }
+        return totals;
+    }
+
+    /**
+     * Parallel variant of {@link #totals(long[], long[], int[], UserCalendar[], TimeUnit)}.
+     */
+    public static WeekTotals totalsParallel(long[] startMillis, long[] durations, int[] owners,
+                                            UserCalendar[] calendars, TimeUnit unit) {
+        Prepared prepared = prepare(calendars);
+        long[] weeks = new long[startMillis.length];
+        long[] range = ForkJoinPool.commonPool().invoke(new AssignTask(startMillis, owners, prepared, weeks,
+                0, startMillis.length));
+        long[] increments = increments(calendars, unit);
+
+        WeekTotals totals = WeekTotals.allocate(calendars, range, unit);
+        // Entries usually arrive grouped by owner, so tasks rarely add to the same cell
+        AtomicLongArray cells = new AtomicLongArray(totals.cells.length);
+        ForkJoinPool.commonPool().invoke(new SumTask(weeks, durations, owners, increments, cells,
+                totals.firstWeek, totals.weekCount, 0, weeks.length));
+        for (int i = 0; i < totals.cells.length; i++) {
+            totals.cells[i] = cells.get(i);
+        }
+        return totals;
+    }
+
+    // -------------------- INTERNALS --------------------
+
+    /** Per-user values the inner loop needs, as parallel arrays. */
+    private record Prepared(ZoneRules[] rules, int[] shifts) {}
+
+    private static Prepared prepare(UserCalendar[] calendars) {
+        ZoneRules[] rules = new ZoneRules[calendars.length];
+        int[] shifts = new int[calendars.length];
+        for (int i = 0; i < calendars.length; i++) {
+            rules[i] = calendars[i].rules();
+            shifts[i] = calendars[i].shift();
+        }
+        return new Prepared(rules, shifts);
+    }
+
+    private static long[] increments(UserCalendar[] calendars, TimeUnit unit) {
+        long[] increments = new long[calendars.length];
+        for (int i = 0; i < calendars.length; i++) {
+            increments[i] = RoundingEngine.increment(calendars[i].rounding(), unit);
+        }
+        return increments;
+    }
+
+    /**
+     * Fill {@code weeks} for one range.
+     *
+     * @return {min week, max week} of the range; {MAX_VALUE, MIN_VALUE} when empty
+     */
+    private static long[] assignRange(long[] startMillis, int[] owners, Prepared prepared, long[] weeks,
+                                      int from, int to) {
+        OffsetCursor cursor = new OffsetCursor();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            int owner = owners[i];
+            long millis = startMillis[i];
+            long localDay = Math.floorDiv(millis + cursor.offsetMillis(prepared.rules[owner], millis), MILLIS_PER_DAY);
+            long week = Math.floorDiv(localDay + prepared.shifts[owner], 7);
+            weeks[i] = week;
+            min = Math.min(min, week);
+            max = Math.max(max, week);
+        }
+        return new long[]{min, max};
+    }
+
+    /**
+     * Offset of the last zone looked up, with the instant range it stays valid for.
+     * One per task; not thread-safe.
+     */
+    private static final class OffsetCursor {
+        private ZoneRules rules;
+        private long validFrom = Long.MAX_VALUE;
+        private long validTo = Long.MIN_VALUE;
+        private long offsetMillis;
+
+        long offsetMillis(ZoneRules rules, long epochMillis) {
+            if (rules != this.rules || epochMillis < validFrom || epochMillis >= validTo) {
+                refresh(rules, epochMillis);
+            }
+            return offsetMillis;
+        }
+
+        private void refresh(ZoneRules rules, long epochMillis) {
+            this.rules = rules;
+            if (rules.isFixedOffset()) {
+                offsetMillis = rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L;
+                validFrom = Long.MIN_VALUE;
+                validTo = Long.MAX_VALUE;
+                return;
+            }
+            Instant instant = Instant.ofEpochMilli(epochMillis);
+            offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+            // previousTransition is strictly before its argument; +1 ms includes a transition at this instant
+            ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            validFrom = previous != null ? previous.toEpochSecond() * 1000L : Long.MIN_VALUE;
+            validTo = next != null ? next.toEpochSecond() * 1000L : Long.MAX_VALUE;
+        }
+    }
+
+    /** Splits week assignment in halves; returns the {min, max} week of its range. */
+    private static final class AssignTask extends RecursiveTask<long[]> {
+        private final long[] startMillis;
+        private final int[] owners;
+        private final Prepared prepared;
+        private final long[] weeks;
+        private final int from;
+        private final int to;
+
+        private AssignTask(long[] startMillis, int[] owners, Prepared prepared, long[] weeks, int from, int to) {
+            this.startMillis = startMillis;
+            this.owners = owners;
+            this.prepared = prepared;
+            this.weeks = weeks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return assignRange(startMillis, owners, prepared, weeks, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            AssignTask left = new AssignTask(startMillis, owners, prepared, weeks, from, mid);
+            left.fork();
+            long[] right = new AssignTask(startMillis, owners, prepared, weeks, mid, to).compute();
+            long[] leftRange = left.join();
+            return new long[]{Math.min(leftRange[0], right[0]), Math.max(leftRange[1], right[1])};
+        }
+    }
+
+    /** Splits the summation in halves; each leaf adds its rounded durations to the shared grid. */
+    private static final class SumTask extends RecursiveTask<Void> {
+        private final long[] weeks;
+        private final long[] durations;
+        private final int[] owners;
+        private final long[] increments;
+        private final AtomicLongArray cells;
+        private final long firstWeek;
+        private final int weekCount;
+        private final int from;
+        private final int to;
+
+        private SumTask(long[] weeks, long[] durations, int[] owners, long[] increments, AtomicLongArray cells,
+                        long firstWeek, int weekCount, int from, int to) {
+            this.weeks = weeks;
+            this.durations = durations;
+            this.owners = owners;
+            this.increments = increments;
+            this.cells = cells;
+            this.firstWeek = firstWeek;
+            this.weekCount = weekCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                sumRange();
+                return null;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SumTask(weeks, durations, owners, increments, cells, firstWeek, weekCount, from, mid),
+                    new SumTask(weeks, durations, owners, increments, cells, firstWeek, weekCount, mid, to));
+            return null;
+        }
+
+        private void sumRange() {
+            // Accumulate runs of the same cell locally and publish each run with one atomic add
+            int cell = -1;
+            long sum = 0;
+            for (int i = from; i < to; i++) {
+                int owner = owners[i];
+                int next = owner * weekCount + (int) (weeks[i] - firstWeek);
+                if (next != cell) {
+                    if (cell >= 0) {
+                        cells.addAndGet(cell, sum);
+                    }
+                    cell = next;
+                    sum = 0;
+                }
+                sum += RoundingEngine.round(durations[i], increments[owner]);
+            }
+            if (cell >= 0) {
+                cells.addAndGet(cell, sum);
+            }
+        }
+    }
+
+    /**
+     * Totals per user and week: a dense owners x weeks grid covering the weeks of the batch.
+     */
+    public static final class WeekTotals {
+
+        private final UserCalendar[] calendars;
+        private final long firstWeek;
+        private final int weekCount;
+        private final long[] cells;
+        private final TimeUnit unit;
+
+        private WeekTotals(UserCalendar[] calendars, long firstWeek, int weekCount, TimeUnit unit) {
+            this.calendars = calendars;
+            this.firstWeek = firstWeek;
+            this.weekCount = weekCount;
+            this.cells = new long[calendars.length * weekCount];
+            this.unit = unit;
+        }
+
+        private static WeekTotals allocate(UserCalendar[] calendars, long[] range, TimeUnit unit) {
+            if (range[0] > range[1]) {
+                return new WeekTotals(calendars, 0, 0, unit);
+            }
+            long weeks = range[1] - range[0] + 1;
+            if (weeks * Math.max(calendars.length, 1) > MAX_CELLS) {
+                throw new IllegalArgumentException("Entries span " + weeks + " weeks for " + calendars.length
+                        + " users; split the batch into smaller periods");
+            }
+            return new WeekTotals(calendars, range[0], (int) weeks, unit);
+        }
+
+        /** Number of weeks covered, from the earliest to the latest entry. */
+        public int weekCount() {
+            return weekCount;
+        }
+
+        /** Unit of the totals (the unit of the input durations). */
+        public TimeUnit unit() {
+            return unit;
+        }
+
+        /**
+         * @param weekIndex 0..{@link #weekCount()} - 1
+         * @return week ordinal (see {@link WeekBucketEngine#weekOf(long, WeekStart)})
+         */
+        public long week(int weekIndex) {
+            return firstWeek + weekIndex;
+        }
+
+        /**
+         * First day of a week for one user, which depends on the user's {@link WeekStart}.
+         *
+         * @param owner     user index
+         * @param weekIndex 0..{@link #weekCount()} - 1
+         * @return the user's first day of that week
+         */
+        public LocalDate weekStart(int owner, int weekIndex) {
+            return LocalDate.ofEpochDay(weekStartDay(week(weekIndex), calendars[owner].weekStart()));
+        }
+
+        /**
+         * @param owner     user index
+         * @param weekIndex 0..{@link #weekCount()} - 1
+         * @return total rounded duration of the user in that week
+         */
+        public long total(int owner, int weekIndex) {
+            return cells[owner * weekCount + weekIndex];
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.sphuta_tms.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory write-behind queue that merges pending changes per key and hands them to a writer
+ * together.
+ *
+ * <p>{@link #offer} folds a change into the key's pending value, so a burst of changes to one key
+ * becomes a single write. Pending values are handed to the writer every {@code interval}, or
+ * earlier once {@code maxPending} keys are waiting. One batch is written at a time; a key is
+ * written by one writer at a time.</p>
+ *
+ * <p>A failed batch is requeued and retried with the next one, at most {@code maxAttempts} times
+ * per key; a key that still fails is dropped. A failure the writer can never get past
+ * ({@code permanent}, e.g. a constraint violation) is not retried: the batch is written again one
+ * key at a time, so only the keys that fail on their own are dropped. Dropped values are logged
+ * at ERROR with their key and value and counted in {@link #dropped()}.</p>
+ *
+ * <p>Readers that must see a key's own writes call {@link #flush(Object)} first: it returns at once
+ * when nothing is pending for the key, and otherwise waits for the key to reach the store. It
+ * waits only for writes of that key, never for flushes of other keys.
+ * {@link #close()} stops the timer and drains everything that is left.</p>
+ *
+ * @param <K> key type
+ * @param <V> pending value type (immutable; merged with {@code update} functions)
+ */
+@Slf4j
+public final class WriteBehindQueue<K, V> implements AutoCloseable {
+
+    private final String name;
+    private final Consumer<Map<K, V>> writer;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final Predicate<? super RuntimeException> permanent;
+    private final ConcurrentHashMap<K, V> pending = new ConcurrentHashMap<>();
+    /** Keys claimed by a write, each with a latch released once that write has finished. */
+    private final ConcurrentHashMap<K, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+    /** Held while writing a batch of all pending keys. */
+    private final ReentrantLock batchLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    /** Failed writes per key since its last successful one. */
+    private final ConcurrentHashMap<K, Integer> attempts = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ScheduledExecutorService timer;
+
+    /**
+     * @param name        queue name, used for the timer thread and in logs
+     * @param writer      writes one batch, all of it or nothing (typically in one transaction)
+     * @param maxPending  pending keys that trigger a flush before the interval elapses
+     * @param interval    time between scheduled flushes
+     * @param maxAttempts failed writes after which a key's value is dropped
+     * @param permanent   recognises failures that retrying cannot fix
+     */
+    public WriteBehindQueue(String name, Consumer<Map<K, V>> writer, int maxPending, Duration interval,
+                            int maxAttempts, Predicate<? super RuntimeException> permanent) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be positive: " + maxPending);
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        this.name = name;
+        this.writer = writer;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+        this.permanent = permanent;
+        this.timer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "write-behind-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        timer.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fold a change into the key's pending value.
+     *
+     * @param key     key to change
+     * @param initial produces the starting value when nothing is pending for the key (may read the
+     *                store; exceptions propagate and nothing is queued)
+     * @param update  applies the change to the pending value
+     * @return the pending value after the change
+     */
+    public V offer(K key, Function<? super K, ? extends V> initial, UnaryOperator<V> update) {
+        V merged;
+        while ((merged = pending.computeIfPresent(key, (k, current) -> update.apply(current))) == null) {
+            CountDownLatch writing = inFlight.get(key);
+            if (writing != null) {
+                // The starting value must reflect the key's previous write, so let it land (or be requeued)
+                await(writing);
+                continue;
+            }
+            V created = update.apply(initial.apply(key));
+            if (pending.putIfAbsent(key, created) == null) {
+                merged = created;
+                break;
+            }
+        }
+        if (pending.size() >= maxPending && !timer.isShutdown() && flushRequested.compareAndSet(false, true)) {
+            timer.execute(this::flushQuietly);
+        }
+        return merged;
+    }
+
+    /**
+     * Write the key's pending value now, after any write already holding the key.
+     *
+     * @param key key whose changes must be in the store on return
+     * @throws RuntimeException from the writer when the value was requeued (a dropped value is
+     *                          only logged)
+     */
+    public void flush(K key) {
+        while (true) {
+            CountDownLatch writing = inFlight.get(key);
+            if (writing != null) {
+                // Once that write has landed or been requeued, check again
+                await(writing);
+                continue;
+            }
+            if (!pending.containsKey(key)) {
+                return;
+            }
+            CountDownLatch done = new CountDownLatch(1);
+            if (inFlight.putIfAbsent(key, done) != null) {
+                continue;
+            }
+            try {
+                V value = pending.remove(key);
+                if (value != null) {
+                    write(Map.of(key, value));
+                }
+            } finally {
+                inFlight.remove(key);
+                done.countDown();
+            }
+            return;
+        }
+    }
+
+    /**
+     * Write everything pending now, in one batch.
+     *
+     * @throws RuntimeException from the writer when values were requeued
+     */
+    public void flushAll() {
+        batchLock.lock();
+        flushRequested.set(false);
+        CountDownLatch done = new CountDownLatch(1);
+        Map<K, V> batch = new LinkedHashMap<>();
+        try {
+            for (K key : pending.keySet()) {
+                if (inFlight.putIfAbsent(key, done) != null) {
+                    // Being flushed on its own
+                    continue;
+                }
+                V value = pending.remove(key);
+                if (value != null) {
+                    batch.put(key, value);
+                } else {
+                    inFlight.remove(key, done);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                log.debug("Write-behind queue {} wrote {} keys", name, batch.size());
+            }
+        } finally {
+            batch.keySet().forEach(key -> inFlight.remove(key, done));
+            done.countDown();
+            batchLock.unlock();
+        }
+    }
+
+    /** Number of keys waiting to be written. */
+    public int size() {
+        return pending.size();
+    }
+
+    /** Number of values dropped after failing to be written. */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Stop the timer and write everything still pending.
+     */
+    @Override
+    public void close() {
+        timer.shutdown();
+        try {
+            if (!timer.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Write-behind queue {} timer did not stop within 30s", name);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flushAll();
+        } catch (RuntimeException ex) {
+            log.error("Write-behind queue {} lost {} pending keys at shutdown", name, pending.size(), ex);
+        }
+    }
+
+    private void write(Map<K, V> batch) {
+        try {
+            writer.accept(batch);
+            attempts.keySet().removeAll(batch.keySet());
+        } catch (RuntimeException ex) {
+            if (!permanent.test(ex)) {
+                requeue(batch, ex);
+            } else if (batch.size() == 1) {
+                batch.forEach((key, value) -> drop(key, value, ex));
+            } else {
+                writeEach(batch, ex);
+            }
+        }
+    }
+
+    /** Write the keys of a batch that failed permanently one at a time, so the others still land. */
+    private void writeEach(Map<K, V> batch, RuntimeException batchFailure) {
+        log.warn("Write-behind queue {} batch of {} keys failed permanently; writing them one at a time",
+                name, batch.size(), batchFailure);
+        RuntimeException requeued = null;
+        for (Map.Entry<K, V> entry : batch.entrySet()) {
+            try {
+                write(Map.of(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException ex) {
+                requeued = ex;
+            }
+        }
+        if (requeued != null) {
+            throw requeued;
+        }
+    }
+
+    /**
+     * Requeue a failed batch for the next flush, dropping keys out of attempts. Offers for these keys
+     * are waiting for this write, so none has queued a newer value yet; they will merge into the
+     * requeued one.
+     *
+     * @throws RuntimeException the failure, when anything was requeued
+     */
+    private void requeue(Map<K, V> batch, RuntimeException ex) {
+        boolean requeued = false;
+        for (Map.Entry<K, V> entry : batch.entrySet()) {
+            if (attempts.merge(entry.getKey(), 1, Integer::sum) >= maxAttempts) {
+                drop(entry.getKey(), entry.getValue(), ex);
+            } else {
+                pending.putIfAbsent(entry.getKey(), entry.getValue());
+                requeued = true;
+            }
+        }
+        if (requeued) {
+            throw ex;
+        }
+    }
+
+    private void drop(K key, V value, RuntimeException ex) {
+        attempts.remove(key);
+        dropped.incrementAndGet();
+        log.error("Write-behind queue {} dropped key={} value={} after {}", name, key, value,
+                permanent.test(ex) ? "a permanent failure" : maxAttempts + " failed attempts", ex);
+    }
+
+    /** Wait for a write holding a key to finish; an interrupt is kept for the caller, not acted on. */
+    private static void await(CountDownLatch writing) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                writing.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flushAll();
+        } catch (RuntimeException ex) {
+            log.error("Write-behind queue {} failed to write {} pending keys; retrying with the next flush",
+                    name, pending.size(), ex);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.sphuta_tms.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sphuta_tms.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.IllformedLocaleException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves {@code SettingsProfile.timezone} and {@code locale} strings to {@link ZoneId} and
+ * {@link Locale}, caching the result per input string.
+ *
+ * <p>Inputs are normalized to one canonical spelling before they are stored:
+ * <ul>
+ *   <li>Time zones: region IDs match case-insensitively ({@code asia/kolkata} → {@code Asia/Kolkata});
+ *       offsets are accepted as {@link ZoneId#of(String)} spells them ({@code UTC}, {@code +05:30}).</li>
+ *   <li>Locales: language with an optional country, as {@code en_US} or {@code en-US}, stored in the
+ *       {@link Locale#toString()} form {@code en_US}. Language and country must be ISO codes.</li>
+ * </ul>
+ * Resolved values are immutable and shared between all users with the same setting. Valid
+ * inputs are finite in practice; a size bound still protects against many spellings. Zones and
+ * locales each have a size-bounded Caffeine cache, so rarely used spellings are the ones
+ * evicted when it is full.</p>
+ */
+@Component
+public class ZoneLocaleRegistry {
+
+    /** Lower-cased region ID → canonical region ID. */
+    private static final Map<String, String> REGION_IDS = new HashMap<>();
+    private static final Set<String> LANGUAGES = Set.of(Locale.getISOLanguages());
+    private static final Set<String> COUNTRIES = Set.of(Locale.getISOCountries());
+
+    static {
+        for (String id : ZoneId.getAvailableZoneIds()) {
+            REGION_IDS.put(id.toLowerCase(Locale.ROOT), id);
+        }
+    }
+
+    private final Cache<String, ZoneId> zones;
+    private final Cache<String, Locale> locales;
+
+    public ZoneLocaleRegistry(@Value("${sphuta.zone-locale.cache-size:1024}") int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.zones = Caffeine.newBuilder().maximumSize(maxSize).build();
+        this.locales = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    // -------------------- TIME ZONES --------------------
+
+    /**
+     * Resolve a time zone ID.
+     *
+     * @param timezone zone ID as entered or stored
+     * @return the zone
+     * @throws ValidationException if the ID is not a known region or a valid offset
+     */
+    public ZoneId zone(String timezone) {
+        // Null is rejected by the parser; Caffeine does not accept null keys
+        return timezone != null ? zones.get(timezone, ZoneLocaleRegistry::parseZone) : parseZone(null);
+    }
+
+    /**
+     * @param timezone zone ID as entered
+     * @return canonical spelling of the zone ID, or null for null input
+     * @throws ValidationException if the ID is invalid
+     */
+    public String canonicalZone(String timezone) {
+        return timezone != null ? zone(timezone).getId() : null;
+    }
+
+    // -------------------- LOCALES --------------------
+
+    /**
+     * Resolve a locale.
+     *
+     * @param locale locale as entered or stored ({@code en_US} or {@code en-US})
+     * @return the locale
+     * @throws ValidationException if the language or country is not an ISO code
+     */
+    public Locale locale(String locale) {
+        return locale != null ? locales.get(locale, ZoneLocaleRegistry::parseLocale) : parseLocale(null);
+    }
+
+    /**
+     * @param locale locale as entered
+     * @return canonical spelling ({@code en_US}), or null for null input
+     * @throws ValidationException if the locale is invalid
+     */
+    public String canonicalLocale(String locale) {
+        return locale != null ? locale(locale).toString() : null;
+    }
+
+    /** Number of cached zones and locales. */
+    public int size() {
+        // Evictions run asynchronously; apply pending ones first
+        zones.cleanUp();
+        locales.cleanUp();
+        return (int) (zones.estimatedSize() + locales.estimatedSize());
+    }
+
+    // -------------------- PARSING --------------------
+
+    private static ZoneId parseZone(String timezone) {
+        if (timezone == null || timezone.isBlank()) {
+            throw new ValidationException("Timezone is required");
+        }
+        String trimmed = timezone.trim();
+        String region = REGION_IDS.get(trimmed.toLowerCase(Locale.ROOT));
+        try {
+            return ZoneId.of(region != null ? region : trimmed);
+        } catch (DateTimeException ex) {
+            throw new ValidationException("Invalid timezone: " + timezone);
+        }
+    }
+
+    private static Locale parseLocale(String locale) {
+        if (locale == null || locale.isBlank()) {
+            throw new ValidationException("Locale is required");
+        }
+        Locale parsed;
+        try {
+            parsed = new Locale.Builder().setLanguageTag(locale.trim().replace('_', '-')).build();
+        } catch (IllformedLocaleException ex) {
+            throw new ValidationException("Invalid locale: " + locale);
+        }
+        // Only language[_COUNTRY]; scripts, variants and extensions do not fit the stored column
+        boolean plain = parsed.getScript().isEmpty() && parsed.getVariant().isEmpty() && !parsed.hasExtensions();
+        if (!plain || !LANGUAGES.contains(parsed.getLanguage())
+                || (!parsed.getCountry().isEmpty() && !COUNTRIES.contains(parsed.getCountry()))) {
+            throw new ValidationException("Invalid locale: " + locale);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,104 @@
+package com.sphuta_tms.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load comparison of the two request execution modes: Tomcat's platform thread pool
+ * versus one virtual thread per request.
+ *
+ * <p>Each invocation fires a burst of {@link #REQUESTS} concurrent requests. A request
+ * blocks for {@code otherMillis} outside the database (e.g. a downstream call), then
+ * takes a connection from a pool of {@code poolSize} permits and blocks for
+ * {@code dbMillis}, mirroring a controller that waits on JDBC through HikariCP.</p>
+ *
+ * <p>The pool bounds DB-bound throughput to {@code poolSize / dbMillis} in both modes;
+ * virtual threads only pay off when time spent blocking outside the pool dominates,
+ * or when the pool is larger than the 200 platform threads could keep busy.</p>
+ *
+ * Run with: {@code mvn -Pjava21,benchmark test -Djmh.includes=ExecutionModeBenchmark}
+ * (the VIRTUAL mode needs Java 21).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    /** Concurrent requests per burst. */
+    private static final int REQUESTS = 2000;
+
+    /** Tomcat's default server.tomcat.threads.max. */
+    private static final int TOMCAT_THREADS = 200;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String mode;
+
+    @Param({"10", "30"})
+    public int poolSize;
+
+    @Param({"5"})
+    public long dbMillis;
+
+    @Param({"0", "20"})
+    public long otherMillis;
+
+    private ExecutorService executor;
+    private Semaphore pool;
+
+    @Setup
+    public void setUp() {
+        executor = "VIRTUAL".equals(mode)
+                ? newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_THREADS);
+        pool = new Semaphore(poolSize, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void burst() throws Exception {
+        List<Future<?>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(this::request));
+        }
+        for (Future<?> response : responses) {
+            response.get();
+        }
+    }
+
+    private Void request() throws InterruptedException {
+        if (otherMillis > 0) {
+            Thread.sleep(otherMillis);
+        }
+        pool.acquire();
+        try {
+            Thread.sleep(dbMillis);
+        } finally {
+            pool.release();
+        }
+        return null;
+    }
+
+    /** Looked up reflectively so the benchmark still compiles on the Java 17 build. */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("VIRTUAL mode needs Java 21: run with -Pjava21", ex);
+        }
+    }
+}
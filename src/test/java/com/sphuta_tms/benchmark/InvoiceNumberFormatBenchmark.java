@@ -0,0 +1,75 @@
+package com.sphuta_tms.benchmark;
+
+import com.sphuta_tms.util.InvoiceNumberFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JMH benchmark comparing the compiled {@link InvoiceNumberFormat} against
+ * per-render regex substitution of the raw format string.
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=InvoiceNumberFormatBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceNumberFormatBenchmark {
+
+    private static final Pattern SEQ = Pattern.compile("\\$\\{seq:(\\d+)}");
+
+    @Param({"INV-${yyyy}${seq:5}", "ACME/${yyyy}/${MM}/${seq:8}-EU"})
+    public String pattern;
+
+    private InvoiceNumberFormat format;
+    private LocalDate date;
+    private char[] buffer;
+    private StringBuilder builder;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        format = InvoiceNumberFormat.parse(pattern);
+        date = LocalDate.of(2026, 10, 17);
+        buffer = new char[64];
+        builder = new StringBuilder(64);
+    }
+
+    @Benchmark
+    public String regexSubstitution() {
+        String rendered = pattern
+                .replace("${yyyy}", String.format("%04d", date.getYear()))
+                .replace("${MM}", String.format("%02d", date.getMonthValue()));
+        Matcher matcher = SEQ.matcher(rendered);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            int width = Integer.parseInt(matcher.group(1));
+            matcher.appendReplacement(sb, String.format("%0" + width + "d", ++sequence));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String compiledFormat() {
+        return format.format(date, ++sequence);
+    }
+
+    @Benchmark
+    public StringBuilder compiledIntoBuilder() {
+        builder.setLength(0);
+        format.formatTo(builder, date, ++sequence);
+        return builder;
+    }
+
+    @Benchmark
+    public int compiledIntoBuffer() {
+        return format.formatTo(buffer, 0, date.getYear(), date.getMonthValue(), ++sequence);
+    }
+}
@@ -0,0 +1,74 @@
+package com.sphuta_tms.benchmark;
+
+import com.sphuta_tms.util.InvoiceNumberFormatCache;
+import com.sphuta_tms.util.InvoiceNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JMH benchmark for {@link InvoiceNumberGenerator} under contention.
+ *
+ * <p>The reserver simulates a database round trip with a fixed busy-wait and a
+ * per-key monitor, so {@code blockSize=1} approximates per-invoice
+ * {@code SELECT ... FOR UPDATE} sequencing.</p>
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=InvoiceNumberGeneratorBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class InvoiceNumberGeneratorBenchmark {
+
+    /** Simulated cost of one reservation round trip. */
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    @Param({"1", "100", "1000"})
+    public int blockSize;
+
+    @Param({"1", "64"})
+    public int users;
+
+    private InvoiceNumberGenerator generator;
+    private String[] userIds;
+
+    @Setup
+    public void setUp() {
+        ConcurrentHashMap<String, AtomicLong> table = new ConcurrentHashMap<>();
+        generator = new InvoiceNumberGenerator((key, size) -> {
+            AtomicLong row = table.computeIfAbsent(key, k -> new AtomicLong(1));
+            synchronized (row) {
+                long deadline = System.nanoTime() + ROUND_TRIP_NANOS;
+                while (System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                return row.getAndAdd(size);
+            }
+        }, InvoiceNumberGenerator.Mode.GAP_TOLERANT, blockSize, Clock.systemUTC(),
+                new InvoiceNumberFormatCache(16));
+
+        userIds = new String[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = "user-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public String next(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % userIds.length;
+        String userId = userIds[cursor.next];
+        return generator.next(userId, id -> "INV-${yyyy}${seq:5}");
+    }
+}
@@ -0,0 +1,86 @@
+package com.sphuta_tms.benchmark;
+
+import com.sphuta_tms.util.InvoiceTotalsEngine;
+import com.sphuta_tms.util.InvoiceTotalsEngine.InvoiceTerms;
+import com.sphuta_tms.util.InvoiceTotalsEngine.InvoiceTotals;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing {@link InvoiceTotalsEngine} against naive per-invoice
+ * {@code BigDecimal} computation of tax, total and late fee.
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=InvoiceTotalsEngineBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceTotalsEngineBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"10000", "1000000"})
+    public int invoices;
+
+    @Param({"500"})
+    public int users;
+
+    private BigDecimal[] taxRates;
+    private BigDecimal[] lateFees;
+    private InvoiceTerms[] terms;
+    private long[] lines;
+    private int[] offsets;
+    private long[] issueDays;
+    private int[] owners;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        taxRates = new BigDecimal[users];
+        lateFees = new BigDecimal[users];
+        terms = new InvoiceTerms[users];
+        for (int u = 0; u < users; u++) {
+            taxRates[u] = BigDecimal.valueOf(random.nextInt(2_500), 4);
+            lateFees[u] = BigDecimal.valueOf(random.nextInt(5_000), 3);
+            terms[u] = InvoiceTerms.of(taxRates[u], lateFees[u], 14 + random.nextInt(4) * 15);
+        }
+        offsets = new int[invoices + 1];
+        for (int i = 0; i < invoices; i++) {
+            offsets[i + 1] = offsets[i] + 1 + random.nextInt(10);
+        }
+        lines = random.longs(offsets[invoices], 0, 500_000).toArray();
+        issueDays = new long[invoices];
+        owners = random.ints(invoices, 0, users).toArray();
+    }
+
+    @Benchmark
+    public BigDecimal[] naiveBigDecimal() {
+        BigDecimal[] lateFeeAmounts = new BigDecimal[invoices];
+        for (int i = 0; i < invoices; i++) {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int line = offsets[i]; line < offsets[i + 1]; line++) {
+                subtotal = subtotal.add(BigDecimal.valueOf(lines[line]));
+            }
+            BigDecimal total = subtotal.add(subtotal.multiply(taxRates[owners[i]]).setScale(0, RoundingMode.HALF_UP));
+            lateFeeAmounts[i] = total.multiply(lateFees[owners[i]]).divide(HUNDRED, 0, RoundingMode.HALF_UP);
+        }
+        return lateFeeAmounts;
+    }
+
+    @Benchmark
+    public InvoiceTotals primitive() {
+        return InvoiceTotalsEngine.compute(lines, offsets, issueDays, owners, terms);
+    }
+
+    @Benchmark
+    public InvoiceTotals primitiveParallel() {
+        return InvoiceTotalsEngine.computeParallel(lines, offsets, issueDays, owners, terms);
+    }
+}
@@ -0,0 +1,82 @@
+package com.sphuta_tms.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.InvoicingSettingsDTO;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import com.sphuta_tms.util.SphutaApiResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of Jackson serialization of the settings DTOs.
+ *
+ * The mapper is built like Spring Boot builds it from application.yml (SNAKE_CASE, ISO dates);
+ * the camelCase variant is the baseline for the cost of the naming strategy.
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=JacksonSerializationBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    @Param({"SNAKE_CASE", "LOWER_CAMEL_CASE"})
+    public String naming;
+
+    private ObjectMapper objectMapper;
+    private InvoicingSettingsDTO invoicing;
+    private PreferencesResponse preferences;
+    private SettingsProfileDTO profile;
+    private SphutaApiResponse<PreferencesResponse> envelope;
+
+    @Setup
+    public void setUp() {
+        PropertyNamingStrategy strategy = naming.equals("SNAKE_CASE")
+                ? PropertyNamingStrategies.SNAKE_CASE
+                : PropertyNamingStrategies.LOWER_CAMEL_CASE;
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(strategy)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        invoicing = new InvoicingSettingsDTO("123e4567-e89b-12d3-a456-426614174000", "USD", "TAX-123",
+                new BigDecimal("0.0800"), "INV-${yyyy}${seq:5}", 14, new BigDecimal("0.050"), "tmpl_default", "logo-123", null);
+        preferences = new PreferencesResponse("123e4567-e89b-12d3-a456-426614174000", "YYYY-MM-DD",
+                WeekStart.MON, Rounding.NEAREST_15, LocalDateTime.of(2026, 10, 17, 9, 30), null);
+        profile = new SettingsProfileDTO(1001L, "John Doe", "+1-202-555-0173", "Asia/Kolkata", "en_US", null);
+        envelope = SphutaApiResponse.success("Preferences fetched successfully", preferences);
+    }
+
+    @Benchmark
+    public byte[] invoicingSettings() throws Exception {
+        return objectMapper.writeValueAsBytes(invoicing);
+    }
+
+    @Benchmark
+    public byte[] preferences() throws Exception {
+        return objectMapper.writeValueAsBytes(preferences);
+    }
+
+    @Benchmark
+    public byte[] profile() throws Exception {
+        return objectMapper.writeValueAsBytes(profile);
+    }
+
+    @Benchmark
+    public byte[] preferencesEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+}
@@ -0,0 +1,119 @@
+package com.sphuta_tms.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import com.sphuta_tms.config.SqlLogTurboFilter;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the per-call logging cost on the mapper and service hot paths.
+ *
+ * Compares the INFO line the mappers used to write on every mapping through a synchronous
+ * file appender (the default setup) and through the prod profile's async appender, against
+ * the guarded DEBUG statement that replaced it, and measures the SQL turbo filter on an
+ * unsampled request. The async appender never blocks, so once its queue is full it drops
+ * INFO events instead of slowing callers; that is the trade-off the prod profile makes.
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=LoggingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final String USER_ID = "123e4567-e89b-12d3-a456-426614174000";
+
+    private LoggerContext context;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+    private Logger sqlLogger;
+    private AsyncAppender async;
+
+    @Setup
+    public void setUp() {
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+        syncLogger = logger("benchmark.sync", Level.INFO);
+        syncLogger.addAppender(fileAppender("target/benchmark-sync.log"));
+
+        async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(fileAppender("target/benchmark-async.log"));
+        async.start();
+        asyncLogger = logger("benchmark.async", Level.INFO);
+        asyncLogger.addAppender(async);
+
+        SqlLogTurboFilter turboFilter = new SqlLogTurboFilter();
+        turboFilter.setContext(context);
+        turboFilter.start();
+        context.addTurboFilter(turboFilter);
+        sqlLogger = logger("org.hibernate.SQL", Level.DEBUG);
+        sqlLogger.addAppender(fileAppender("target/benchmark-sql.log"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        async.stop();
+        context.resetTurboFilterList();
+    }
+
+    private Logger logger(String name, Level level) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        return logger;
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(String file) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(file);
+        appender.setAppend(false);
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    @Benchmark
+    public void infoSyncAppender() {
+        syncLogger.info("Mapped SettingsPreferences entity with userId={} to PreferencesResponse", USER_ID);
+    }
+
+    @Benchmark
+    public void infoAsyncAppender() {
+        asyncLogger.info("Mapped SettingsPreferences entity with userId={} to PreferencesResponse", USER_ID);
+    }
+
+    @Benchmark
+    public void guardedDebugAtInfo() {
+        if (syncLogger.isDebugEnabled()) {
+            syncLogger.debug("Mapped SettingsPreferences entity with userId={} to PreferencesResponse", USER_ID);
+        }
+    }
+
+    @Benchmark
+    public void sqlStatementUnsampled() {
+        if (sqlLogger.isDebugEnabled()) {
+            sqlLogger.debug("select sp1_0.user_id from settings_preferences sp1_0 where sp1_0.user_id=?");
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.sphuta_tms.benchmark;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.InvoicingSettingsDTO;
+import com.sphuta_tms.dto.PreferencesRequest;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import com.sphuta_tms.entity.InvoicingSettings;
+import com.sphuta_tms.entity.SettingsPreferences;
+import com.sphuta_tms.entity.SettingsProfile;
+import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.repository.SettingsProfileRepository;
+import com.sphuta_tms.service.PreferencesServiceImpl;
+import com.sphuta_tms.service.SettingsWriteBehind;
+import com.sphuta_tms.service.impl.SettingsProfileServiceImpl;
+import com.sphuta_tms.util.PreferencesMapper;
+import com.sphuta_tms.util.ResponseMapper;
+import com.sphuta_tms.util.SettingsMetrics;
+import com.sphuta_tms.util.SettingsProfileMapper;
+import com.sphuta_tms.util.ZoneLocaleRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the entity/DTO mappers and the single-record service reads built on them.
+ *
+ * The service benchmarks use in-memory repositories, so they measure mapping, logging and
+ * exception-free lookup overhead without any database or cache. Logging goes through
+ * {@code logback-benchmark.xml} (INFO, file appender) to match the production log level.
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=MapperBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private ResponseMapper responseMapper;
+    private PreferencesMapper preferencesMapper;
+    private PreferencesServiceImpl preferencesService;
+    private SettingsProfileServiceImpl profileService;
+
+    private InvoicingSettings invoicingEntity;
+    private InvoicingSettingsDTO invoicingDto;
+    private SettingsPreferences preferencesEntity;
+    private PreferencesRequest preferencesRequest;
+    private SettingsProfile profileEntity;
+
+    @Setup
+    public void setUp() {
+        responseMapper = new ResponseMapper();
+        preferencesMapper = new PreferencesMapper();
+
+        invoicingDto = new InvoicingSettingsDTO("123e4567-e89b-12d3-a456-426614174000", "USD", "TAX-123",
+                new BigDecimal("0.0800"), "INV-${yyyy}${seq:5}", 14, new BigDecimal("0.050"), "tmpl_default", "logo-123", null);
+        invoicingEntity = responseMapper.toEntity(invoicingDto);
+        invoicingEntity.setUpdatedAt(LocalDateTime.now());
+
+        preferencesRequest = new PreferencesRequest("123e4567-e89b-12d3-a456-426614174000", "YYYY-MM-DD",
+                WeekStart.MON, Rounding.NEAREST_15);
+        preferencesEntity = preferencesMapper.toEntity(preferencesRequest);
+        preferencesEntity.setUpdatedAt(LocalDateTime.now());
+
+        profileEntity = new SettingsProfile();
+        profileEntity.setUserId(1001L);
+        profileEntity.setFullName("John Doe");
+        profileEntity.setPhone("+1-202-555-0173");
+        profileEntity.setTimezone("Asia/Kolkata");
+        profileEntity.setLocale("en_US");
+
+        SettingsMetrics metrics = new SettingsMetrics(new SimpleMeterRegistry());
+        // Disabled: reads find nothing queued and go straight to the repository
+        SettingsWriteBehind writeBehind = new SettingsWriteBehind(null, null, null, null, false, Duration.ZERO, 1, 1);
+        preferencesService = new PreferencesServiceImpl();
+        ReflectionTestUtils.setField(preferencesService, "repository",
+                repository(SettingsPreferencesRepository.class, preferencesEntity));
+        ReflectionTestUtils.setField(preferencesService, "mapper", preferencesMapper);
+        ReflectionTestUtils.setField(preferencesService, "metrics", metrics);
+        ReflectionTestUtils.setField(preferencesService, "writeBehind", writeBehind);
+        PlatformTransactionManager transactions = new NoOpTransactionManager();
+        ReflectionTestUtils.setField(preferencesService, "transactionManager", transactions);
+        profileService = new SettingsProfileServiceImpl(repository(SettingsProfileRepository.class, profileEntity), metrics,
+                new ZoneLocaleRegistry(16), writeBehind, transactions);
+    }
+
+    /**
+     * In-memory repository answering every {@code findById}/{@code findByUserId} with the given row.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R repository(Class<R> type, Object row) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("findById") || method.getName().equals("findByUserId")) {
+                return Optional.of(row);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * Transaction manager whose transactions do nothing; the repositories are in memory.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    // -------------------- MAPPERS --------------------
+    @Benchmark
+    public InvoicingSettingsDTO invoicingToDto() {
+        return responseMapper.toDTO(invoicingEntity);
+    }
+
+    @Benchmark
+    public InvoicingSettings invoicingToEntity() {
+        return responseMapper.toEntity(invoicingDto);
+    }
+
+    @Benchmark
+    public PreferencesResponse preferencesToResponse() {
+        return preferencesMapper.toResponse(preferencesEntity);
+    }
+
+    @Benchmark
+    public SettingsPreferences preferencesToEntity() {
+        return preferencesMapper.toEntity(preferencesRequest);
+    }
+
+    @Benchmark
+    public SettingsProfileDTO profileToDto() {
+        return SettingsProfileMapper.toDto(profileEntity);
+    }
+
+    // -------------------- SERVICES --------------------
+
+    /** Covers {@code SettingsProfileServiceImpl.mapToDto} on the read path. */
+    @Benchmark
+    public SettingsProfileDTO profileServiceGet() {
+        return profileService.getProfile(1001L);
+    }
+
+    @Benchmark
+    public PreferencesResponse preferencesServiceGet() {
+        return preferencesService.getPreferences("123e4567-e89b-12d3-a456-426614174000");
+    }
+}
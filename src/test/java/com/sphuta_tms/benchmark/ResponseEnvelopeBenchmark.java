@@ -0,0 +1,56 @@
+package com.sphuta_tms.benchmark;
+
+import com.sphuta_tms.util.CachedClock;
+import com.sphuta_tms.util.SphutaApiResponse;
+import com.sphuta_tms.util.TraceIds;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the response envelopes.
+ *
+ * {@link SphutaApiResponse#success} takes a trace ID and a timestamp on every call; the component
+ * benchmarks compare the previous sources ({@code UUID.randomUUID()}, {@code LocalDateTime.now()})
+ * with {@link TraceIds} and {@link CachedClock}. Run multi-threaded ({@code -t 4}) as well:
+ * {@code UUID.randomUUID()} shares one SecureRandom.
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=ResponseEnvelopeBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEnvelopeBenchmark {
+
+    private final Object payload = new Object();
+
+    @Benchmark
+    public SphutaApiResponse<Object> sphutaSuccess() {
+        return SphutaApiResponse.success("Preferences fetched successfully", payload);
+    }
+
+    @Benchmark
+    public String randomUuidTraceId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String traceIdsNext() {
+        return TraceIds.next();
+    }
+
+    @Benchmark
+    public LocalDateTime timestampNow() {
+        return LocalDateTime.now();
+    }
+
+    @Benchmark
+    public LocalDateTime cachedClockNow() {
+        return CachedClock.now();
+    }
+}
@@ -0,0 +1,65 @@
+package com.sphuta_tms.benchmark;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.util.RoundingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing {@link RoundingEngine} against naive per-entry
+ * {@code BigDecimal} rounding of time-entry durations (seconds).
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=RoundingEngineBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundingEngineBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int entries;
+
+    @Param({"NEAREST_6", "NEAREST_15"})
+    public Rounding rounding;
+
+    private long[] source;
+    private long[] work;
+
+    @Setup
+    public void setUp() {
+        source = new Random(42).longs(entries, 0, 12 * 3600).toArray();
+        work = new long[entries];
+    }
+
+    @Benchmark
+    public long[] naiveBigDecimal() {
+        BigDecimal increment = BigDecimal.valueOf(rounding.getIncrementMinutes() * 60L);
+        for (int i = 0; i < source.length; i++) {
+            work[i] = BigDecimal.valueOf(source[i])
+                    .divide(increment, 0, RoundingMode.HALF_UP)
+                    .multiply(increment)
+                    .longValue();
+        }
+        return work;
+    }
+
+    @Benchmark
+    public long[] primitive() {
+        RoundingEngine.round(source, work, TimeUnit.SECONDS, rounding);
+        return work;
+    }
+
+    @Benchmark
+    public long[] primitiveParallel() {
+        System.arraycopy(source, 0, work, 0, source.length);
+        RoundingEngine.roundParallel(work, TimeUnit.SECONDS, rounding);
+        return work;
+    }
+}
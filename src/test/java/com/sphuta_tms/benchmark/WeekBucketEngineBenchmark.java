@@ -0,0 +1,90 @@
+package com.sphuta_tms.benchmark;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.util.WeekBucketEngine;
+import com.sphuta_tms.util.WeekBucketEngine.UserCalendar;
+import com.sphuta_tms.util.WeekBucketEngine.WeekTotals;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing {@link WeekBucketEngine} against naive per-entry
+ * {@code ZonedDateTime} bucketing of time entries into weekly totals.
+ *
+ * Run with: {@code mvn -Pbenchmark test -Djmh.includes=WeekBucketEngineBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeekBucketEngineBenchmark {
+
+    private static final String[] ZONES = {"UTC", "America/New_York", "Europe/Berlin", "Asia/Kolkata"};
+
+    @Param({"10000", "1000000"})
+    public int entries;
+
+    @Param({"200"})
+    public int users;
+
+    private UserCalendar[] calendars;
+    private long[] starts;
+    private long[] durations;
+    private int[] owners;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        calendars = new UserCalendar[users];
+        for (int u = 0; u < users; u++) {
+            calendars[u] = new UserCalendar(ZoneId.of(ZONES[u % ZONES.length]),
+                    u % 3 == 0 ? WeekStart.SUN : WeekStart.MON, Rounding.NEAREST_15);
+        }
+        long from = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+        starts = new long[entries];
+        durations = new long[entries];
+        owners = new int[entries];
+        for (int i = 0; i < entries; i++) {
+            owners[i] = (int) ((long) i * users / entries);
+            starts[i] = from + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(92));
+            durations[i] = random.nextInt(4 * 3600);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> naiveZonedDateTime() {
+        Map<String, Long> totals = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            UserCalendar calendar = calendars[owners[i]];
+            LocalDate date = Instant.ofEpochMilli(starts[i]).atZone(calendar.zone()).toLocalDate();
+            DayOfWeek first = calendar.weekStart() == WeekStart.SUN ? DayOfWeek.SUNDAY : DayOfWeek.MONDAY;
+            LocalDate weekStart = date.with(TemporalAdjusters.previousOrSame(first));
+            long increment = calendar.rounding().getIncrementMinutes() * 60L;
+            long rounded = (durations[i] + increment / 2) / increment * increment;
+            totals.merge(owners[i] + ":" + weekStart, rounded, Long::sum);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public WeekTotals primitive() {
+        return WeekBucketEngine.totals(starts, durations, owners, calendars, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public WeekTotals primitiveParallel() {
+        return WeekBucketEngine.totalsParallel(starts, durations, owners, calendars, TimeUnit.SECONDS);
+    }
+}
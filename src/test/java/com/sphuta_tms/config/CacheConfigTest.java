@@ -0,0 +1,122 @@
+package com.sphuta_tms.config;
+
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.PreferencesRequest;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.entity.SettingsPreferences;
+import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.service.PreferencesService;
+import com.sphuta_tms.service.PreferencesServiceImpl;
+import com.sphuta_tms.service.SettingsWriteBehind;
+import com.sphuta_tms.util.DateFormatRegistry;
+import com.sphuta_tms.util.PreferencesMapper;
+import com.sphuta_tms.util.SettingsMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link CacheConfig} using the preferences service as the cached read path.
+ *
+ * Only the cache configuration and the service are loaded; the repository and
+ * mapper are mocked so the number of database reads can be counted.
+ */
+@SpringBootTest(classes = {CacheConfig.class, PreferencesServiceImpl.class, SettingsMetrics.class, SimpleMeterRegistry.class,
+        DateFormatRegistry.class})
+class CacheConfigTest {
+
+    private static final String USER_ID = "user-123";
+
+    @Autowired
+    private PreferencesService service;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private SettingsPreferencesRepository repository;
+
+    @MockBean
+    private PreferencesMapper mapper;
+
+    @MockBean
+    private SettingsWriteBehind writeBehind;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    private SettingsPreferences entity;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(AppConstants.CACHE_PREFERENCES).clear();
+
+        entity = SettingsPreferences.builder()
+                .userId(USER_ID)
+                .dateFormat("YYYY-MM-DD")
+                .weekStartsOn(WeekStart.MON)
+                .rounding(Rounding.NONE)
+                .updatedAt(LocalDateTime.now())
+                .build();
+        PreferencesResponse response = new PreferencesResponse(
+                USER_ID, "YYYY-MM-DD", WeekStart.MON, Rounding.NONE, entity.getUpdatedAt(), null);
+
+        when(repository.findById(USER_ID)).thenReturn(Optional.of(entity));
+        when(repository.saveAndFlush(any(SettingsPreferences.class))).thenReturn(entity);
+        when(mapper.toResponse(entity)).thenReturn(response);
+    }
+
+    @Test
+    @DisplayName("✅ Repeated reads are served from the cache")
+    void testReadThrough() {
+        service.getPreferences(USER_ID);
+        service.getPreferences(USER_ID);
+        service.getPreferences(USER_ID);
+
+        verify(repository, times(1)).findById(USER_ID);
+    }
+
+    @Test
+    @DisplayName("✅ PATCH evicts only the written user")
+    void testPatchEvicts() {
+        when(repository.findById("other")).thenReturn(Optional.of(entity));
+        when(repository.patchByUserId(eq(USER_ID), any(), any(), any(), any(), any())).thenReturn(1);
+        service.getPreferences(USER_ID);
+        service.getPreferences("other");
+
+        service.patchPreferences(USER_ID, new PreferencesRequest(USER_ID, null, WeekStart.SUN, null), null);
+        service.getPreferences(USER_ID);
+        service.getPreferences("other");
+
+        // initial read + patch read-back + re-read after eviction
+        verify(repository, times(3)).findById(USER_ID);
+        verify(repository, times(1)).findById("other");
+    }
+
+    @Test
+    @DisplayName("✅ DELETE evicts the cached entry")
+    void testDeleteEvicts() {
+        when(repository.deleteByUserId(USER_ID, null)).thenReturn(1);
+        service.getPreferences(USER_ID);
+
+        service.deletePreferences(USER_ID, null);
+
+        assertNull(cacheManager.getCache(AppConstants.CACHE_PREFERENCES).get(USER_ID));
+    }
+}
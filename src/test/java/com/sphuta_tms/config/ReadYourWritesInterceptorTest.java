@@ -0,0 +1,91 @@
+package com.sphuta_tms.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ReadYourWritesInterceptor}.
+ */
+class ReadYourWritesInterceptorTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final ReadYourWritesInterceptor interceptor = interceptor(NOW);
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    /** An interceptor with a 10 s window (minimum 6 s) whose clock stands at {@code now}. */
+    private static ReadYourWritesInterceptor interceptor(Instant now) {
+        return new ReadYourWritesInterceptor(Duration.ofSeconds(10), Duration.ofSeconds(6),
+                Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    /** Run a request through the interceptor and report whether it was pinned to the primary. */
+    private static boolean handle(ReadYourWritesInterceptor interceptor, MockHttpServletRequest request,
+                                  MockHttpServletResponse response) {
+        interceptor.preHandle(request, response, null);
+        boolean pinned = ReplicaRoutingDataSource.isPinnedToPrimary();
+        interceptor.afterCompletion(request, response, null, null);
+        assertFalse(ReplicaRoutingDataSource.isPinnedToPrimary());
+        return pinned;
+    }
+
+    private static MockHttpServletRequest get(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/settings/invoicing/page");
+        if (cookies.length > 0) {
+            request.setCookies(cookies);
+        }
+        return request;
+    }
+
+    @Test
+    @DisplayName("✅ A write sets the window cookie, and reads carrying it are pinned to the primary")
+    void testReadAfterWrite() {
+        assertFalse(handle(interceptor, get(), new MockHttpServletResponse()));
+
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        assertTrue(handle(interceptor, new MockHttpServletRequest("POST", "/api/v1/settings/invoicing/bulk"), written));
+        Cookie cookie = written.getCookie(ReadYourWritesInterceptor.COOKIE);
+        assertNotNull(cookie);
+        assertEquals(NOW.plusSeconds(10).toEpochMilli(), Long.parseLong(cookie.getValue()));
+        assertEquals(10, cookie.getMaxAge());
+
+        // Any instance honours the cookie, including one that never saw the write
+        assertTrue(handle(interceptor(NOW.plusSeconds(9)), get(cookie), new MockHttpServletResponse()));
+    }
+
+    @Test
+    @DisplayName("❌ Expired or malformed cookies do not pin reads")
+    void testNoWindow() {
+        Cookie cookie = new Cookie(ReadYourWritesInterceptor.COOKIE, Long.toString(NOW.toEpochMilli()));
+        assertFalse(handle(interceptor, get(cookie), new MockHttpServletResponse()));
+
+        Cookie malformed = new Cookie(ReadYourWritesInterceptor.COOKIE, "soon");
+        assertFalse(handle(interceptor, get(malformed), new MockHttpServletResponse()));
+    }
+
+    @Test
+    @DisplayName("❌ A window no longer than the replica lag limit is rejected")
+    void testWindowTooShort() {
+        assertThrows(IllegalArgumentException.class, () -> new ReadYourWritesInterceptor(
+                Duration.ofSeconds(5), Duration.ofSeconds(6), Clock.systemUTC()));
+        assertThrows(IllegalArgumentException.class, () -> new ReadYourWritesInterceptor(
+                Duration.ofSeconds(5), Duration.ofSeconds(5), Duration.ofSeconds(1), false, Duration.ofSeconds(2)));
+        assertThrows(IllegalArgumentException.class, () -> new ReadYourWritesInterceptor(
+                Duration.ofSeconds(7), Duration.ofSeconds(5), Duration.ofSeconds(1), true, Duration.ofSeconds(2)));
+    }
+}
@@ -0,0 +1,151 @@
+package com.sphuta_tms.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ReplicaRoutingDataSource} against two in-memory H2 databases, one
+ * standing in for the primary and one for a replica.
+ *
+ * Each database holds a row naming itself, so a query shows where it was routed. The
+ * replica reports its lag from a table the tests update.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT seconds_behind_source FROM replica_lag";
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        DataSource primaryDb = database("primary");
+        DataSource replicaDb = database("replica");
+        primary = new JdbcTemplate(primaryDb);
+        replica = new JdbcTemplate(replicaDb);
+        primary.execute("CREATE TABLE origin (name VARCHAR(16))");
+        primary.update("INSERT INTO origin VALUES ('primary')");
+        replica.execute("CREATE TABLE origin (name VARCHAR(16))");
+        replica.update("INSERT INTO origin VALUES ('replica')");
+        replica.execute("CREATE TABLE replica_lag (seconds_behind_source BIGINT)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+
+        routing = new ReplicaRoutingDataSource(primaryDb, List.of(replicaDb), Duration.ofSeconds(5),
+                LAG_QUERY, "seconds_behind_source");
+        routing.afterPropertiesSet();
+        routing.checkLag();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.unpin();
+        routing.close();
+        primary.execute("DROP ALL OBJECTS");
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    private String origin(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM origin", String.class));
+    }
+
+    private void replicaLag(Long seconds) {
+        replica.update("UPDATE replica_lag SET seconds_behind_source = ?", seconds);
+        routing.checkLag();
+    }
+
+    // ============================================================
+    // ROUTING
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Read-only transactions go to the replica, all others to the primary")
+    void testRouting() {
+        assertEquals("replica", origin(readOnly));
+        assertEquals("primary", origin(readWrite));
+        assertEquals("primary", jdbc.queryForObject("SELECT name FROM origin", String.class));
+    }
+
+    @Test
+    @DisplayName("✅ A pinned thread reads from the primary")
+    void testPinned() {
+        ReplicaRoutingDataSource.pinToPrimary();
+        assertEquals("primary", origin(readOnly));
+
+        ReplicaRoutingDataSource.unpin();
+        assertEquals("replica", origin(readOnly));
+    }
+
+    // ============================================================
+    // LAG
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ A lagging replica stops serving reads until it catches up")
+    void testLag() {
+        replicaLag(30L);
+        assertEquals(30_000, routing.lagMillis(0));
+        assertEquals("primary", origin(readOnly));
+
+        replicaLag(2L);
+        assertEquals("replica", origin(readOnly));
+    }
+
+    @Test
+    @DisplayName("❌ A replica that reports no lag or cannot be queried is unavailable")
+    void testUnavailable() {
+        replicaLag(null);
+        assertEquals(-1, routing.lagMillis(0));
+        assertEquals("primary", origin(readOnly));
+
+        replica.execute("DROP TABLE replica_lag");
+        routing.checkLag();
+        assertEquals(-1, routing.lagMillis(0));
+        assertEquals("primary", origin(readOnly));
+    }
+
+    @Test
+    @DisplayName("❌ Replicas are unavailable until their lag has been checked")
+    void testUncheckedReplica() {
+        ReplicaRoutingDataSource fresh = new ReplicaRoutingDataSource(database("primary"),
+                List.of(database("replica")), Duration.ofSeconds(5), LAG_QUERY, "seconds_behind_source");
+        fresh.afterPropertiesSet();
+        DataSourceTransactionManager transactionManager =
+                new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(fresh));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        JdbcTemplate template = new JdbcTemplate(transactionManager.getDataSource());
+
+        assertEquals("primary", transaction.execute(status ->
+                template.queryForObject("SELECT name FROM origin", String.class)));
+    }
+}
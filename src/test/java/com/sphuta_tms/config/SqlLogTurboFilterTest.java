@@ -0,0 +1,55 @@
+package com.sphuta_tms.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SqlLogTurboFilter}.
+ */
+class SqlLogTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final SqlLogTurboFilter filter = new SqlLogTurboFilter();
+
+    @AfterEach
+    void tearDown() {
+        MDC.remove(SqlLogSamplingFilter.MDC_KEY);
+    }
+
+    private FilterReply decide(String logger, Level level) {
+        Logger target = context.getLogger(logger);
+        return filter.decide(null, target, level, "select 1", null, null);
+    }
+
+    @Test
+    @DisplayName("✅ SQL and bind events of unsampled requests are denied")
+    void testUnsampledDenied() {
+        assertEquals(FilterReply.DENY, decide("org.hibernate.SQL", Level.DEBUG));
+        assertEquals(FilterReply.DENY, decide("org.hibernate.orm.jdbc.bind", Level.TRACE));
+    }
+
+    @Test
+    @DisplayName("✅ Sampled requests fall back to the configured levels")
+    void testSampledNeutral() {
+        MDC.put(SqlLogSamplingFilter.MDC_KEY, "on");
+
+        assertEquals(FilterReply.NEUTRAL, decide("org.hibernate.SQL", Level.DEBUG));
+        assertEquals(FilterReply.NEUTRAL, decide("org.hibernate.orm.jdbc.bind", Level.TRACE));
+    }
+
+    @Test
+    @DisplayName("✅ Other loggers and INFO or above are never filtered")
+    void testOtherEventsNeutral() {
+        assertEquals(FilterReply.NEUTRAL, decide("com.sphuta_tms.service.PreferencesServiceImpl", Level.DEBUG));
+        assertEquals(FilterReply.NEUTRAL, decide("org.hibernate.SQL", Level.WARN));
+        assertEquals(FilterReply.NEUTRAL, decide("org.hibernate.SQLQuery", Level.DEBUG));
+    }
+}
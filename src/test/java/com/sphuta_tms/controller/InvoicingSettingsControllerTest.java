@@ -1,18 +1,29 @@
 package com.sphuta_tms.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sphuta_tms.dto.BulkUpsertResultDTO;
+import com.sphuta_tms.dto.CursorPageDTO;
 import com.sphuta_tms.dto.InvoicingSettingsDTO;
+import com.sphuta_tms.exception.PreconditionFailedException;
 import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.exception.ValidationException;
 import com.sphuta_tms.service.InvoicingSettingsService;
-import com.sphuta_tms.util.ApiResponse;
+import com.sphuta_tms.util.SphutaApiResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +36,9 @@ class InvoicingSettingsControllerTest {
     @Mock
     private InvoicingSettingsService service;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private InvoicingSettingsController controller;
 
@@ -41,7 +55,8 @@ class InvoicingSettingsControllerTest {
                 14,
                 new BigDecimal("0.05"),
                 "tmpl_default",
-                "logo-123"
+                "logo-123",
+                3L
         );
     }
 
@@ -49,10 +64,10 @@ class InvoicingSettingsControllerTest {
     void testGetAllSettings() {
         when(service.getAllSettings()).thenReturn(List.of(sampleDto));
 
-        ResponseEntity<ApiResponse<List<InvoicingSettingsDTO>>> response = controller.getAllSettings();
+        ResponseEntity<SphutaApiResponse<List<InvoicingSettingsDTO>>> response = controller.getAllSettings();
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(1, response.getBody().getData().size());
+        assertEquals(1, response.getBody().data().size());
         verify(service, times(1)).getAllSettings();
     }
 
@@ -60,63 +75,143 @@ class InvoicingSettingsControllerTest {
     void testGetSettingsByUserId_Found() {
         when(service.getSettingsByUserId(sampleDto.userId())).thenReturn(Optional.of(sampleDto));
 
-        ResponseEntity<ApiResponse<InvoicingSettingsDTO>> response = controller.getSettingsByUserId(sampleDto.userId());
+        ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> response = controller.getSettingsByUserId(sampleDto.userId(), null);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(sampleDto.userId(), response.getBody().getData().userId());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertEquals(sampleDto.userId(), response.getBody().data().userId());
         verify(service, times(1)).getSettingsByUserId(sampleDto.userId());
     }
 
+    @Test
+    void testGetSettingsByUserId_NotModified() {
+        when(service.getSettingsByUserId(sampleDto.userId())).thenReturn(Optional.of(sampleDto));
+
+        ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> response =
+                controller.getSettingsByUserId(sampleDto.userId(), "W/\"3\"");
+
+        assertEquals(304, response.getStatusCodeValue());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
     @Test
     void testGetSettingsByUserId_NotFound() {
         when(service.getSettingsByUserId("unknown")).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () ->
-                controller.getSettingsByUserId("unknown"));
+                controller.getSettingsByUserId("unknown", null));
 
         verify(service, times(1)).getSettingsByUserId("unknown");
     }
 
+    @Test
+    void testGetSettingsPage() {
+        CursorPageDTO<InvoicingSettingsDTO> page = new CursorPageDTO<>(List.of(sampleDto), 1, sampleDto.userId());
+        when(service.getSettingsPage(null, 1)).thenReturn(page);
+
+        ResponseEntity<SphutaApiResponse<CursorPageDTO<InvoicingSettingsDTO>>> response = controller.getSettingsPage(null, 1);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(sampleDto.userId(), response.getBody().data().nextCursor());
+        verify(service, times(1)).getSettingsPage(null, 1);
+    }
+
+    @Test
+    void testBulkUpsertSettings() {
+        BulkUpsertResultDTO result = new BulkUpsertResultDTO(1, 1, 0, 0, false, List.of());
+        List<String> userIds = new ArrayList<>();
+        when(service.bulkUpsertSettings(any())).thenAnswer(invocation -> {
+            Iterator<InvoicingSettingsDTO> rows = invocation.getArgument(0);
+            rows.forEachRemaining(row -> userIds.add(row.userId()));
+            return result;
+        });
+
+        ResponseEntity<SphutaApiResponse<BulkUpsertResultDTO>> response =
+                controller.bulkUpsertSettings(body("[{\"userId\":\"u1\"},{\"userId\":\"u2\"}]"));
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(1, response.getBody().data().created());
+        assertEquals(List.of("u1", "u2"), userIds);
+    }
+
+    @Test
+    void testBulkUpsertSettings_Malformed() {
+        when(service.bulkUpsertSettings(any())).thenAnswer(invocation -> {
+            Iterator<InvoicingSettingsDTO> rows = invocation.getArgument(0);
+            rows.forEachRemaining(row -> { });
+            return null;
+        });
+
+        assertThrows(ValidationException.class, () -> controller.bulkUpsertSettings(body("{\"userId\":\"u1\"}")));
+        assertThrows(ValidationException.class, () -> controller.bulkUpsertSettings(body("[{\"userId\":\"u1\"},")));
+        assertThrows(ValidationException.class, () -> controller.bulkUpsertSettingsNdjson(body("{\"userId\":\"u1\"}\n{")));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
     @Test
     void testCreateSettings() {
         when(service.createSettings(sampleDto)).thenReturn(sampleDto);
 
-        ResponseEntity<ApiResponse<InvoicingSettingsDTO>> response = controller.createSettings(sampleDto);
+        ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> response = controller.createSettings(sampleDto);
 
         assertEquals(201, response.getStatusCodeValue());
-        assertEquals(sampleDto.userId(), response.getBody().getData().userId());
+        assertEquals(sampleDto.userId(), response.getBody().data().userId());
         verify(service, times(1)).createSettings(sampleDto);
     }
 
     @Test
     void testUpdateSettings() {
-        when(service.updateSettings(sampleDto.userId(), sampleDto)).thenReturn(sampleDto);
+        when(service.updateSettings(sampleDto.userId(), sampleDto, null)).thenReturn(sampleDto);
+
+        ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> response = controller.updateSettings(sampleDto.userId(), sampleDto, null);
+
+        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(sampleDto.userId(), response.getBody().data().userId());
+        verify(service, times(1)).updateSettings(sampleDto.userId(), sampleDto, null);
+    }
+
+    @Test
+    void testUpdateSettings_IfMatch() {
+        when(service.updateSettings(sampleDto.userId(), sampleDto, 2L)).thenReturn(sampleDto);
 
-        ResponseEntity<ApiResponse<InvoicingSettingsDTO>> response = controller.updateSettings(sampleDto.userId(), sampleDto);
+        ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> response =
+                controller.updateSettings(sampleDto.userId(), sampleDto, "\"2\"");
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(sampleDto.userId(), response.getBody().getData().userId());
-        verify(service, times(1)).updateSettings(sampleDto.userId(), sampleDto);
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        verify(service, times(1)).updateSettings(sampleDto.userId(), sampleDto, 2L);
+    }
+
+    @Test
+    void testUpdateSettings_ForeignIfMatch() {
+        assertThrows(PreconditionFailedException.class, () ->
+                controller.updateSettings(sampleDto.userId(), sampleDto, "\"abc\""));
+
+        verifyNoInteractions(service);
     }
 
     @Test
     void testPatchSettings() {
-        when(service.patchSettings(sampleDto.userId(), sampleDto)).thenReturn(sampleDto);
+        when(service.patchSettings(sampleDto.userId(), sampleDto, null)).thenReturn(sampleDto);
 
-        ResponseEntity<ApiResponse<InvoicingSettingsDTO>> response = controller.patchSettings(sampleDto.userId(), sampleDto);
+        ResponseEntity<SphutaApiResponse<InvoicingSettingsDTO>> response = controller.patchSettings(sampleDto.userId(), sampleDto, null);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(sampleDto.userId(), response.getBody().getData().userId());
-        verify(service, times(1)).patchSettings(sampleDto.userId(), sampleDto);
+        assertEquals(sampleDto.userId(), response.getBody().data().userId());
+        verify(service, times(1)).patchSettings(sampleDto.userId(), sampleDto, null);
     }
 
     @Test
     void testDeleteSettings() {
-        doNothing().when(service).deleteSettings(sampleDto.userId());
+        doNothing().when(service).deleteSettings(sampleDto.userId(), 3L);
 
-        ResponseEntity<ApiResponse<Void>> response = controller.deleteSettings(sampleDto.userId());
+        ResponseEntity<SphutaApiResponse<Void>> response = controller.deleteSettings(sampleDto.userId(), "\"3\"");
 
         assertEquals(200, response.getStatusCodeValue());
-        verify(service, times(1)).deleteSettings(sampleDto.userId());
+        verify(service, times(1)).deleteSettings(sampleDto.userId(), 3L);
     }
 }
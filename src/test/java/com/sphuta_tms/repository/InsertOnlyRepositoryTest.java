@@ -0,0 +1,92 @@
+package com.sphuta_tms.repository;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.entity.InvoicingSettings;
+import com.sphuta_tms.entity.SettingsPreferences;
+import com.sphuta_tms.entity.SettingsProfile;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that {@link InsertOnlyRepository#insert} creates a row with a single INSERT and no
+ * read beforehand, counting statements with Hibernate statistics.
+ *
+ * Each repository call runs in its own transaction, as in the services.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InsertOnlyRepositoryTest {
+
+    @Autowired
+    private SettingsPreferencesRepository preferencesRepository;
+
+    @Autowired
+    private InvoicingSettingsRepository invoicingRepository;
+
+    @Autowired
+    private SettingsProfileRepository profileRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        preferencesRepository.deleteAll();
+        invoicingRepository.deleteAll();
+        profileRepository.deleteAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private static SettingsPreferences preferences(String userId) {
+        return SettingsPreferences.builder()
+                .userId(userId)
+                .dateFormat("YYYY-MM-DD")
+                .weekStartsOn(WeekStart.MON)
+                .rounding(Rounding.NONE)
+                .build();
+    }
+
+    @Test
+    @DisplayName("✅ Insert issues one INSERT per entity and no SELECT")
+    void testInsertIssuesSingleStatement() {
+        InvoicingSettings invoicing = new InvoicingSettings();
+        invoicing.setUserId("user-1");
+
+        preferencesRepository.insert(preferences("user-1"));
+        invoicingRepository.insert(invoicing);
+        profileRepository.insert(new SettingsProfile(1L, "John Doe", null, null, null));
+
+        assertEquals(3, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("❌ A duplicate key fails inside insert")
+    void testInsertDuplicate() {
+        preferencesRepository.insert(preferences("user-1"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> preferencesRepository.insert(preferences("user-1")));
+    }
+}
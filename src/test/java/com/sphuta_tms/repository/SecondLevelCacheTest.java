@@ -0,0 +1,122 @@
+package com.sphuta_tms.repository;
+
+import com.sphuta_tms.constants.AppConstants;
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.entity.SettingsPreferences;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the Hibernate second-level and query cache configuration against an embedded database.
+ *
+ * Each repository call runs in its own transaction, as in the services, so entries are
+ * cached on commit; Hibernate statistics show which reads reached the database.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private SettingsPreferencesRepository repository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        repository.save(preferences("user-1"));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private static SettingsPreferences preferences(String userId) {
+        return SettingsPreferences.builder()
+                .userId(userId)
+                .dateFormat("YYYY-MM-DD")
+                .weekStartsOn(WeekStart.MON)
+                .rounding(Rounding.NONE)
+                .build();
+    }
+
+    @Test
+    @DisplayName("✅ Reads by ID are served from the entity region without a query")
+    void testEntityRegion() {
+        assertTrue(repository.findById("user-1").isPresent());
+        assertTrue(repository.findById("user-1").isPresent());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getDomainDataRegionStatistics(AppConstants.L2_REGION_PREFERENCES).getHitCount());
+    }
+
+    @Test
+    @DisplayName("✅ Cacheable queries hit their region until the table is written")
+    void testQueryRegion() {
+        assertTrue(repository.existsByUserId("user-1"));
+        assertTrue(repository.existsByUserId("user-1"));
+
+        assertEquals(1, statistics.getQueryRegionStatistics(AppConstants.L2_REGION_PREFERENCES_QUERIES).getHitCount());
+
+        repository.save(preferences("user-2"));
+        assertTrue(repository.existsByUserId("user-1"));
+
+        assertEquals(2, statistics.getQueryRegionStatistics(AppConstants.L2_REGION_PREFERENCES_QUERIES).getMissCount());
+    }
+
+    @Test
+    @DisplayName("✅ A single-statement PATCH evicts only the row it updated")
+    void testPatchEvictsOnlyTouchedRow() {
+        repository.save(preferences("user-2"));
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertTrue(cache.containsEntity(SettingsPreferences.class, "user-1"));
+        assertTrue(cache.containsEntity(SettingsPreferences.class, "user-2"));
+
+        int rows = new TransactionTemplate(transactionManager).execute(status ->
+                repository.patchByUserId("user-1", "DD/MM/YYYY", null, null, LocalDateTime.now(), 0L));
+
+        assertEquals(1, rows);
+        assertFalse(cache.containsEntity(SettingsPreferences.class, "user-1"));
+        assertTrue(cache.containsEntity(SettingsPreferences.class, "user-2"));
+        assertEquals("DD/MM/YYYY", repository.findById("user-1").orElseThrow().getDateFormat());
+    }
+
+    @Test
+    @DisplayName("✅ A single-statement DELETE evicts the row and the cached query results")
+    void testDeleteEvictsRowAndQueries() {
+        assertTrue(repository.existsByUserId("user-1"));
+
+        new TransactionTemplate(transactionManager).execute(status -> repository.deleteByUserId("user-1", 0L));
+
+        assertFalse(entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .containsEntity(SettingsPreferences.class, "user-1"));
+        assertFalse(repository.existsByUserId("user-1"));
+        assertTrue(repository.findById("user-1").isEmpty());
+    }
+}
@@ -0,0 +1,76 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.entity.InvoicingSettings;
+import com.sphuta_tms.exception.ValidationException;
+import com.sphuta_tms.repository.InvoicingSettingsRepository;
+import com.sphuta_tms.util.InvoiceNumberGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link InvoiceNumberServiceImpl}: which allocator path each mode takes.
+ * The MANDATORY transaction of the gapless path is enforced by the Spring proxy and is not
+ * exercised here.
+ */
+class InvoiceNumberServiceImplTest {
+
+    private static final String USER_ID = "user-123";
+
+    @Mock
+    private InvoicingSettingsRepository settingsRepository;
+
+    @Mock
+    private InvoiceSequenceAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        InvoicingSettings settings = new InvoicingSettings();
+        settings.setUserId(USER_ID);
+        settings.setInvoiceNumberFormat("INV-${seq:3}");
+        when(settingsRepository.findById(USER_ID)).thenReturn(Optional.of(settings));
+    }
+
+    private InvoiceNumberServiceImpl service(InvoiceNumberGenerator.Mode mode) {
+        return new InvoiceNumberServiceImpl(settingsRepository, allocator, mode, 10, 16);
+    }
+
+    @Test
+    @DisplayName("✅ Gap-tolerant numbers can be issued on their own")
+    void testGapTolerant() {
+        when(allocator.reserveBlock(anyString(), anyInt())).thenReturn(1L);
+        InvoiceNumberServiceImpl service = service(InvoiceNumberGenerator.Mode.GAP_TOLERANT);
+
+        assertEquals("INV-001", service.nextInvoiceNumber(USER_ID));
+        assertEquals("INV-002", service.issueInvoiceNumber(USER_ID));
+        verify(allocator, never()).reserveInCurrentTransaction(anyString());
+    }
+
+    @Test
+    @DisplayName("✅ Gapless numbers are reserved in the invoice's transaction")
+    void testGaplessInTransaction() {
+        when(allocator.reserveInCurrentTransaction(anyString())).thenReturn(7L);
+
+        assertEquals("INV-007", service(InvoiceNumberGenerator.Mode.GAPLESS).issueInvoiceNumber(USER_ID));
+        verify(allocator, never()).reserveBlock(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("❌ Gapless numbers cannot be issued on their own")
+    void testGaplessStandaloneRejected() {
+        InvoiceNumberServiceImpl service = service(InvoiceNumberGenerator.Mode.GAPLESS);
+
+        assertThrows(ValidationException.class, () -> service.nextInvoiceNumber(USER_ID));
+        verifyNoInteractions(allocator);
+    }
+}
@@ -5,16 +5,24 @@ import com.sphuta_tms.constants.WeekStart;
 import com.sphuta_tms.dto.PreferencesRequest;
 import com.sphuta_tms.dto.PreferencesResponse;
 import com.sphuta_tms.entity.SettingsPreferences;
+import com.sphuta_tms.exception.PreconditionFailedException;
 import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.exception.ValidationException;
 import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.util.DateFormatRegistry;
 import com.sphuta_tms.util.PreferencesMapper;
+import com.sphuta_tms.util.SettingsMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -44,6 +52,22 @@ class PreferencesServiceImplTest {
     @Mock
     private PreferencesMapper mapper;
 
+    /** Metrics backed by an in-memory registry */
+    @Spy
+    private SettingsMetrics metrics = new SettingsMetrics(new SimpleMeterRegistry());
+
+    /** Real date format registry; patterns are validated on write */
+    @Spy
+    private DateFormatRegistry dateFormats = new DateFormatRegistry(16);
+
+    /** Mocked write-behind queue; disabled unless a test enables it */
+    @Mock
+    private SettingsWriteBehind writeBehind;
+
+    /** Mocked transaction manager; transactions open only after the queued patch is flushed */
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     /** Injected mock service instance under test */
     @InjectMocks
     private PreferencesServiceImpl service;
@@ -86,7 +110,8 @@ class PreferencesServiceImplTest {
                 "YYYY-MM-DD",
                 WeekStart.MON,
                 Rounding.NONE,
-                LocalDateTime.now()
+                LocalDateTime.now(),
+                null
         );
 
         log.info("Test setup completed with sample data for userId: {}", request.userId());
@@ -98,16 +123,16 @@ class PreferencesServiceImplTest {
     @Test
     void testCreatePreferences_Success() {
         log.info("Running testCreatePreferences_Success...");
-        when(repository.existsByUserId("user-123")).thenReturn(false);
         when(mapper.toEntity(request)).thenReturn(entity);
-        when(repository.save(entity)).thenReturn(entity);
+        when(repository.insert(entity)).thenReturn(entity);
         when(mapper.toResponse(entity)).thenReturn(response);
 
         PreferencesResponse result = service.createPreferences(request);
 
         assertNotNull(result, "PreferencesResponse should not be null");
         assertEquals("user-123", result.userId());
-        verify(repository, times(1)).save(entity);
+        verify(repository, times(1)).insert(entity);
+        verify(repository, never()).existsByUserId(any());
         log.debug("Preferences created successfully for userId: {}", result.userId());
     }
 
@@ -117,13 +142,38 @@ class PreferencesServiceImplTest {
     @Test
     void testCreatePreferences_AlreadyExists() {
         log.info("Running testCreatePreferences_AlreadyExists...");
-        when(repository.existsByUserId("user-123")).thenReturn(true);
+        when(mapper.toEntity(request)).thenReturn(entity);
+        when(repository.insert(entity))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry 'user-123' for key 'PRIMARY'"));
 
         assertThrows(IllegalArgumentException.class, () -> service.createPreferences(request));
-        verify(repository, never()).save(any());
         log.warn("Attempted to create preferences for an already existing userId: {}", request.userId());
     }
 
+    /**
+     * Test case for rejecting an unsupported date format before anything is written.
+     */
+    @Test
+    void testCreatePreferences_InvalidDateFormat() {
+        log.info("Running testCreatePreferences_InvalidDateFormat...");
+        PreferencesRequest invalid = new PreferencesRequest("user-123", "HH:mm", WeekStart.MON, Rounding.NONE);
+
+        assertThrows(ValidationException.class, () -> service.createPreferences(invalid));
+        verify(repository, never()).insert(any());
+    }
+
+    /**
+     * Test case for rejecting a patch whose date format repeats a field, before the UPDATE runs.
+     */
+    @Test
+    void testPatchPreferences_InvalidDateFormat() {
+        log.info("Running testPatchPreferences_InvalidDateFormat...");
+        PreferencesRequest invalid = new PreferencesRequest("user-123", "YYYY-MM-MM", null, null);
+
+        assertThrows(ValidationException.class, () -> service.patchPreferences("user-123", invalid, null));
+        verifyNoInteractions(repository);
+    }
+
     /**
      * Test case for fetching preferences successfully by ID.
      */
@@ -175,45 +225,148 @@ class PreferencesServiceImplTest {
     void testUpdatePreferences_Success() {
         log.info("Running testUpdatePreferences_Success...");
         when(repository.findById("user-123")).thenReturn(Optional.of(entity));
-        when(repository.save(entity)).thenReturn(entity);
+        when(repository.saveAndFlush(entity)).thenReturn(entity);
         when(mapper.toResponse(entity)).thenReturn(response);
 
-        PreferencesResponse result = service.updatePreferences("user-123", request);
+        PreferencesResponse result = service.updatePreferences("user-123", request, null);
 
         assertEquals("user-123", result.userId());
-        verify(repository, times(1)).save(entity);
+        verify(repository, times(1)).saveAndFlush(entity);
         log.debug("Preferences updated successfully for userId: {}", result.userId());
     }
 
+    /**
+     * Test case for a conditional update whose If-Match version is stale.
+     */
+    @Test
+    void testUpdatePreferences_VersionMismatch() {
+        log.info("Running testUpdatePreferences_VersionMismatch...");
+        entity.setVersion(2L);
+        when(repository.findById("user-123")).thenReturn(Optional.of(entity));
+
+        assertThrows(PreconditionFailedException.class, () -> service.updatePreferences("user-123", request, 1L));
+
+        verify(repository, never()).saveAndFlush(any());
+        log.debug("Stale update rejected for userId: {}", "user-123");
+    }
+
+    /**
+     * Test case for a conditional update whose If-Match version is current.
+     */
+    @Test
+    void testUpdatePreferences_VersionMatch() {
+        log.info("Running testUpdatePreferences_VersionMatch...");
+        entity.setVersion(2L);
+        when(repository.findById("user-123")).thenReturn(Optional.of(entity));
+        when(repository.saveAndFlush(entity)).thenReturn(entity);
+        when(mapper.toResponse(entity)).thenReturn(response);
+
+        PreferencesResponse result = service.updatePreferences("user-123", request, 2L);
+
+        assertNotNull(result);
+        verify(repository, times(1)).saveAndFlush(entity);
+        log.debug("Conditional update applied for userId: {}", result.userId());
+    }
+
     /**
      * Test case for patching preferences successfully.
      */
     @Test
     void testPatchPreferences_Success() {
         log.info("Running testPatchPreferences_Success...");
+        when(repository.patchByUserId(eq("user-123"), eq("YYYY-MM-DD"), eq(WeekStart.MON), eq(Rounding.NONE),
+                any(LocalDateTime.class), isNull())).thenReturn(1);
         when(repository.findById("user-123")).thenReturn(Optional.of(entity));
-        when(repository.save(entity)).thenReturn(entity);
         when(mapper.toResponse(entity)).thenReturn(response);
 
-        PreferencesResponse result = service.patchPreferences("user-123", request);
+        PreferencesResponse result = service.patchPreferences("user-123", request, null);
 
         assertNotNull(result, "PreferencesResponse should not be null after patching");
-        verify(repository, times(1)).save(entity);
+        verify(repository, never()).save(any());
+        verify(repository, never()).saveAndFlush(any());
         log.debug("Preferences patched successfully for userId: {}", result.userId());
     }
 
+    /**
+     * Test case for an unconditional patch in write-behind mode: queued, not written.
+     */
+    @Test
+    void testPatchPreferences_WriteBehind() {
+        log.info("Running testPatchPreferences_WriteBehind...");
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(writeBehind.queuePreferences(eq("user-123"), eq(request), any())).thenReturn(response);
+
+        PreferencesResponse result = service.patchPreferences("user-123", request, null);
+
+        assertSame(response, result);
+        verify(repository, never()).patchByUserId(any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Test case for a conditional patch in write-behind mode: the pending patch is written before
+     * the transaction opens, then the patch is checked and written directly.
+     */
+    @Test
+    void testPatchPreferences_WriteBehindConditional() {
+        log.info("Running testPatchPreferences_WriteBehindConditional...");
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(repository.patchByUserId(eq("user-123"), any(), any(), any(), any(LocalDateTime.class), eq(1L)))
+                .thenReturn(1);
+        when(repository.findById("user-123")).thenReturn(Optional.of(entity));
+        when(mapper.toResponse(entity)).thenReturn(response);
+
+        service.patchPreferences("user-123", request, 1L);
+
+        var order = inOrder(writeBehind, transactionManager, repository);
+        order.verify(writeBehind).flushPreferences("user-123");
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(repository).patchByUserId(eq("user-123"), any(), any(), any(), any(LocalDateTime.class), eq(1L));
+        verify(writeBehind, never()).queuePreferences(any(), any(), any());
+    }
+
+    /**
+     * Test case for a conditional patch that matches no row although the record exists.
+     */
+    @Test
+    void testPatchPreferences_VersionMismatch() {
+        log.info("Running testPatchPreferences_VersionMismatch...");
+        when(repository.patchByUserId(eq("user-123"), any(), any(), any(), any(LocalDateTime.class), eq(1L)))
+                .thenReturn(0);
+        when(repository.existsByUserId("user-123")).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () -> service.patchPreferences("user-123", request, 1L));
+
+        verify(repository, never()).findById("user-123");
+        log.debug("Stale patch rejected for userId: {}", "user-123");
+    }
+
+    /**
+     * Test case for patching preferences that do not exist.
+     */
+    @Test
+    void testPatchPreferences_NotFound() {
+        log.info("Running testPatchPreferences_NotFound...");
+        when(repository.patchByUserId(eq("user-123"), any(), any(), any(), any(LocalDateTime.class), isNull()))
+                .thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.patchPreferences("user-123", request, null));
+
+        verify(repository, never()).findById("user-123");
+        log.error("Failed to patch preferences. No record found for userId: {}", "user-123");
+    }
+
     /**
      * Test case for deleting preferences successfully.
      */
     @Test
     void testDeletePreferences_Success() {
         log.info("Running testDeletePreferences_Success...");
-        when(repository.existsByUserId("user-123")).thenReturn(true);
-        doNothing().when(repository).deleteById("user-123");
+        when(repository.deleteByUserId("user-123", null)).thenReturn(1);
 
-        service.deletePreferences("user-123");
+        service.deletePreferences("user-123", null);
 
-        verify(repository, times(1)).deleteById("user-123");
+        verify(repository, times(1)).deleteByUserId("user-123", null);
+        verify(repository, never()).existsByUserId(any());
         log.debug("Preferences deleted successfully for userId: {}", "user-123");
     }
 
@@ -223,9 +376,9 @@ class PreferencesServiceImplTest {
     @Test
     void testDeletePreferences_NotFound() {
         log.info("Running testDeletePreferences_NotFound...");
-        when(repository.existsByUserId("user-123")).thenReturn(false);
+        when(repository.deleteByUserId("user-123", null)).thenReturn(0);
 
-        assertThrows(ResourceNotFoundException.class, () -> service.deletePreferences("user-123"));
+        assertThrows(ResourceNotFoundException.class, () -> service.deletePreferences("user-123", null));
         log.error("Failed to delete preferences. No record found for userId: {}", "user-123");
     }
 }
@@ -0,0 +1,163 @@
+package com.sphuta_tms.service;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.PreferencesRequest;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.repository.SettingsProfileRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SettingsWriteBehind}: merging of queued patches, the version
+ * reported for them, and the UPDATE each user's batch turns into.
+ */
+class SettingsWriteBehindTest {
+
+    private static final String USER_ID = "user-123";
+
+    @Mock
+    private SettingsPreferencesRepository preferencesRepository;
+
+    @Mock
+    private SettingsProfileRepository profileRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SettingsWriteBehind writeBehind;
+
+    private final PreferencesResponse stored = new PreferencesResponse(
+            USER_ID, "YYYY-MM-DD", WeekStart.MON, Rounding.NONE, LocalDateTime.now(), 4L);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // The timer never fires during a test; batches are written by explicit flushes
+        writeBehind = new SettingsWriteBehind(preferencesRepository, profileRepository, transactionManager,
+                new SimpleMeterRegistry(), true, Duration.ofHours(1), 100, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.drain();
+    }
+
+    // ============================================================
+    // PREFERENCES
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Queued patches merge and report the version the write will produce")
+    void testQueuePreferences_Merges() {
+        AtomicInteger loads = new AtomicInteger();
+
+        writeBehind.queuePreferences(USER_ID, new PreferencesRequest(USER_ID, "DD/MM/YYYY", null, null),
+                id -> { loads.incrementAndGet(); return stored; });
+        PreferencesResponse view = writeBehind.queuePreferences(USER_ID,
+                new PreferencesRequest(USER_ID, null, WeekStart.SUN, null),
+                id -> { loads.incrementAndGet(); return stored; });
+
+        assertEquals(1, loads.get());
+        assertEquals("DD/MM/YYYY", view.dateFormat());
+        assertEquals(WeekStart.SUN, view.weekStartsOn());
+        assertEquals(Rounding.NONE, view.rounding());
+        assertEquals(5L, view.version());
+        verifyNoInteractions(preferencesRepository);
+    }
+
+    @Test
+    @DisplayName("✅ Flushing writes one UPDATE with only the changed fields")
+    void testFlushPreferences_WritesOnce() {
+        when(preferencesRepository.patchByUserId(any(), any(), any(), any(), any(), any())).thenReturn(1);
+        writeBehind.queuePreferences(USER_ID, new PreferencesRequest(USER_ID, "DD/MM/YYYY", null, null), id -> stored);
+        writeBehind.queuePreferences(USER_ID, new PreferencesRequest(USER_ID, null, null, Rounding.NEAREST_15), id -> stored);
+
+        writeBehind.flushPreferences(USER_ID);
+        writeBehind.flushPreferences(USER_ID);
+
+        verify(preferencesRepository, times(1)).patchByUserId(eq(USER_ID), eq("DD/MM/YYYY"), isNull(),
+                eq(Rounding.NEAREST_15), any(LocalDateTime.class), isNull());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @DisplayName("✅ A failing flush before a read is logged and the patch stays queued")
+    void testFlushBeforeRead_FailureNotFatal() {
+        QueryTimeoutException timeout = new QueryTimeoutException("lock wait timeout");
+        when(preferencesRepository.patchByUserId(any(), any(), any(), any(), any(), any()))
+                .thenThrow(timeout, timeout)
+                .thenReturn(1);
+        writeBehind.queuePreferences(USER_ID, new PreferencesRequest(USER_ID, "DD/MM/YYYY", null, null), id -> stored);
+
+        assertDoesNotThrow(() -> writeBehind.flushPreferencesBeforeRead(USER_ID));
+        assertThrows(QueryTimeoutException.class, () -> writeBehind.flushPreferences(USER_ID));
+        writeBehind.flushPreferences(USER_ID);
+
+        verify(preferencesRepository, times(3)).patchByUserId(eq(USER_ID), eq("DD/MM/YYYY"), isNull(), isNull(),
+                any(LocalDateTime.class), isNull());
+    }
+
+    @Test
+    @DisplayName("❌ A patch that violates a constraint is dropped instead of retried")
+    void testFlushPreferences_ConstraintViolationDropped() {
+        when(preferencesRepository.patchByUserId(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'date_format'"));
+        writeBehind.queuePreferences(USER_ID, new PreferencesRequest(USER_ID, "DD/MM/YYYY", null, null), id -> stored);
+
+        writeBehind.flushPreferences(USER_ID);
+        writeBehind.flushPreferences(USER_ID);
+
+        verify(preferencesRepository, times(1)).patchByUserId(any(), any(), any(), any(), any(), any());
+    }
+
+    // ============================================================
+    // PROFILE / LIFECYCLE
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Shutdown drains queued profile patches")
+    void testDrain_WritesProfiles() {
+        SettingsProfileDTO profile = new SettingsProfileDTO(1L, "John Doe", null, "UTC", "en_US", 2L);
+        SettingsProfileDTO view = writeBehind.queueProfile(1L,
+                new SettingsProfileDTO(1L, "Jane Doe", null, null, null, null), id -> profile);
+
+        writeBehind.drain();
+
+        assertEquals("Jane Doe", view.fullName());
+        assertEquals(3L, view.version());
+        verify(profileRepository).patchByUserId(eq(1L), eq("Jane Doe"), isNull(), isNull(), isNull(),
+                any(LocalDateTime.class), isNull());
+    }
+
+    @Test
+    @DisplayName("✅ Disabled mode queues nothing and flushes are no-ops")
+    void testDisabled() {
+        SettingsWriteBehind disabled = new SettingsWriteBehind(preferencesRepository, profileRepository,
+                transactionManager, new SimpleMeterRegistry(), false, Duration.ofSeconds(2), 100, 3);
+
+        disabled.flushPreferences(USER_ID);
+        disabled.flushProfile(1L);
+        disabled.drain();
+
+        assertFalse(disabled.isEnabled());
+        verifyNoInteractions(preferencesRepository, profileRepository, transactionManager);
+    }
+}
@@ -0,0 +1,123 @@
+package com.sphuta_tms.service.impl;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.EffectiveSettingsDTO;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.entity.SettingsPreferences;
+import com.sphuta_tms.entity.SettingsProfile;
+import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.repository.InvoicingSettingsRepository;
+import com.sphuta_tms.repository.SettingsPreferencesRepository;
+import com.sphuta_tms.repository.SettingsProfileRepository;
+import com.sphuta_tms.service.SettingsWriteBehind;
+import com.sphuta_tms.util.PreferencesMapper;
+import com.sphuta_tms.util.ResponseMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link EffectiveSettingsServiceImpl} using Mockito.
+ */
+class EffectiveSettingsServiceImplTest {
+
+    @Mock
+    private InvoicingSettingsRepository invoicingRepository;
+
+    @Mock
+    private SettingsPreferencesRepository preferencesRepository;
+
+    @Mock
+    private SettingsProfileRepository profileRepository;
+
+    @Mock
+    private ResponseMapper invoicingMapper;
+
+    @Mock
+    private PreferencesMapper preferencesMapper;
+
+    @Mock
+    private SettingsWriteBehind writeBehind;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private EffectiveSettingsServiceImpl service;
+
+    private SettingsPreferences preferences;
+    private PreferencesResponse preferencesResponse;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        preferences = SettingsPreferences.builder()
+                .userId("1001")
+                .dateFormat("YYYY-MM-DD")
+                .weekStartsOn(WeekStart.MON)
+                .rounding(Rounding.NONE)
+                .updatedAt(LocalDateTime.now())
+                .build();
+        preferencesResponse = new PreferencesResponse(
+                "1001", "YYYY-MM-DD", WeekStart.MON, Rounding.NONE, preferences.getUpdatedAt(), null);
+        when(preferencesMapper.toResponse(preferences)).thenReturn(preferencesResponse);
+    }
+
+    // ============================================================
+    // READ
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Numeric user ID composes all available sections")
+    void testGetEffectiveSettings_Numeric() {
+        SettingsProfile profile = new SettingsProfile();
+        profile.setUserId(1001L);
+        profile.setFullName("John Doe");
+        when(invoicingRepository.findById("1001")).thenReturn(Optional.empty());
+        when(preferencesRepository.findById("1001")).thenReturn(Optional.of(preferences));
+        when(profileRepository.findById(1001L)).thenReturn(Optional.of(profile));
+
+        EffectiveSettingsDTO result = service.getEffectiveSettings("1001");
+
+        assertEquals("1001", result.userId());
+        assertNull(result.invoicing());
+        assertEquals(preferencesResponse, result.preferences());
+        assertEquals("John Doe", result.profile().fullName());
+    }
+
+    @Test
+    @DisplayName("✅ Non-numeric user ID skips the profile lookup")
+    void testGetEffectiveSettings_NonNumeric() {
+        String userId = "123e4567-e89b-12d3-a456-426614174000";
+        when(invoicingRepository.findById(userId)).thenReturn(Optional.empty());
+        when(preferencesRepository.findById(userId)).thenReturn(Optional.of(preferences));
+
+        EffectiveSettingsDTO result = service.getEffectiveSettings(userId);
+
+        assertNull(result.profile());
+        verify(profileRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("❌ User without any settings is not found")
+    void testGetEffectiveSettings_NotFound() {
+        when(invoicingRepository.findById("42")).thenReturn(Optional.empty());
+        when(preferencesRepository.findById("42")).thenReturn(Optional.empty());
+        when(profileRepository.findById(42L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> service.getEffectiveSettings("42"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.sphuta_tms.service.impl;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.SettingsProfileDTO;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link ReactiveSettingsServiceImpl} against an in-memory H2 database over R2DBC.
+ *
+ * <p>The tables mirror the columns the JPA entities map, so the same SQL runs here and on MySQL.</p>
+ */
+class ReactiveSettingsServiceImplTest {
+
+    private DatabaseClient databaseClient;
+    private ReactiveSettingsServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = DatabaseClient.create(H2ConnectionFactory.inMemory("reactive-settings"));
+        service = new ReactiveSettingsServiceImpl(databaseClient);
+
+        execute("drop table if exists settings_invoicing");
+        execute("drop table if exists settings_preferences");
+        execute("drop table if exists settings_profile");
+        execute("create table settings_invoicing (user_id varchar(36) primary key, currency varchar(3) not null, "
+                + "tax_id varchar(64), default_tax_rate decimal(5,4) not null, invoice_number_format varchar(64) not null, "
+                + "payment_terms_days int not null, late_fee_percent decimal(6,3) not null, template_id varchar(64) not null, "
+                + "logo_file_id varchar(36), version bigint not null, updated_at timestamp not null)");
+        execute("create table settings_preferences (user_id varchar(36) primary key, date_format varchar(20) not null, "
+                + "week_starts_on varchar(3) not null, rounding varchar(16) not null, version bigint not null, "
+                + "updated_at timestamp not null)");
+        execute("create table settings_profile (user_id bigint primary key, "
+                + "full_name varchar(200), phone varchar(50), timezone varchar(100) not null, locale varchar(10) not null, "
+                + "version bigint not null, updated_at timestamp not null)");
+    }
+
+    // ============================================================
+    // INVOICING
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Invoicing lookup maps every column")
+    void testFindInvoicingSettings() {
+        execute("insert into settings_invoicing values ('user-1', 'USD', '12-3456789', 0.0800, 'INV-${seq:5}', "
+                + "14, 1.500, 'tmpl_default', null, 3, current_timestamp)");
+
+        StepVerifier.create(service.findInvoicingSettings("user-1"))
+                .assertNext(dto -> {
+                    assertEquals("user-1", dto.userId());
+                    assertEquals("USD", dto.currency());
+                    assertEquals("12-3456789", dto.taxId());
+                    assertEquals(0, new BigDecimal("0.08").compareTo(dto.defaultTaxRate()));
+                    assertEquals("INV-${seq:5}", dto.invoiceNumberFormat());
+                    assertEquals(14, dto.paymentTermsDays());
+                    assertEquals(0, new BigDecimal("1.5").compareTo(dto.lateFeePercent()));
+                    assertEquals("tmpl_default", dto.templateId());
+                    assertNull(dto.logoFileId());
+                    assertEquals(Long.valueOf(3), dto.version());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("✅ Invoicing lookup completes empty for an unknown user")
+    void testFindInvoicingSettings_NotFound() {
+        StepVerifier.create(service.findInvoicingSettings("missing"))
+                .verifyComplete();
+    }
+
+    // ============================================================
+    // PREFERENCES
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Preferences lookup maps enum names and timestamps")
+    void testFindPreferences() {
+        execute("insert into settings_preferences values ('user-1', 'YYYY-MM-DD', 'SUN', 'NONE', 0, "
+                + "timestamp '2024-05-01 10:15:30')");
+
+        StepVerifier.create(service.findPreferences("user-1"))
+                .assertNext(dto -> {
+                    assertEquals("YYYY-MM-DD", dto.dateFormat());
+                    assertEquals(WeekStart.SUN, dto.weekStartsOn());
+                    assertEquals(Rounding.NONE, dto.rounding());
+                    assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), dto.updatedAt());
+                    assertEquals(Long.valueOf(0), dto.version());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("✅ Streaming preferences of an empty table completes without elements")
+    void testFindAllPreferences_Empty() {
+        StepVerifier.create(service.findAllPreferences())
+                .verifyComplete();
+    }
+
+    // ============================================================
+    // PROFILE
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Profile stream emits every row in user ID order")
+    void testFindAllProfiles_Ordered() {
+        execute("insert into settings_profile (user_id, full_name, phone, timezone, locale, version, updated_at) "
+                + "values (2002, 'Jane Roe', null, 'Europe/Berlin', 'de-DE', 1, current_timestamp)");
+        execute("insert into settings_profile (user_id, full_name, phone, timezone, locale, version, updated_at) "
+                + "values (1001, 'John Doe', '+1-555-0100', 'UTC', 'en-US', 0, current_timestamp)");
+
+        StepVerifier.create(service.findAllProfiles().map(SettingsProfileDTO::userId))
+                .expectNext(1001L, 2002L)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("✅ Profile lookup by numeric user ID")
+    void testFindProfile() {
+        execute("insert into settings_profile (user_id, full_name, phone, timezone, locale, version, updated_at) "
+                + "values (1001, 'John Doe', '+1-555-0100', 'UTC', 'en-US', 2, current_timestamp)");
+
+        StepVerifier.create(service.findProfile(1001L))
+                .assertNext(dto -> {
+                    assertEquals("John Doe", dto.fullName());
+                    assertEquals("+1-555-0100", dto.phone());
+                    assertEquals("UTC", dto.timezone());
+                    assertEquals("en-US", dto.locale());
+                    assertEquals(Long.valueOf(2), dto.version());
+                })
+                .verifyComplete();
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
@@ -1,18 +1,32 @@
 package com.sphuta_tms.service.impl;
 
+import com.sphuta_tms.constants.AppConstants;
 import com.sphuta_tms.dto.SettingsProfileDTO;
 import com.sphuta_tms.entity.SettingsProfile;
+import com.sphuta_tms.exception.PreconditionFailedException;
 import com.sphuta_tms.exception.ResourceNotFoundException;
+import com.sphuta_tms.exception.ValidationException;
 import com.sphuta_tms.repository.SettingsProfileRepository;
+import com.sphuta_tms.service.SettingsWriteBehind;
+import com.sphuta_tms.util.Constants;
+import com.sphuta_tms.util.SettingsMetrics;
+import com.sphuta_tms.util.ZoneLocaleRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +48,22 @@ class SettingsProfileServiceImplTest {
     @Mock
     private SettingsProfileRepository repository;
 
+    /** In-memory registry so recorded meters can be asserted */
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Spy
+    private SettingsMetrics metrics = new SettingsMetrics(registry);
+
+    @Spy
+    private ZoneLocaleRegistry zoneLocales = new ZoneLocaleRegistry(16);
+
+    /** Disabled unless a test enables it */
+    @Mock
+    private SettingsWriteBehind writeBehind;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private SettingsProfileServiceImpl service;
 
@@ -64,7 +94,8 @@ class SettingsProfileServiceImplTest {
                 "John Doe",
                 "+1-202-555-0173",
                 "Asia/Kolkata",
-                "en_US"
+                "en_US",
+                null
         );
     }
 
@@ -76,8 +107,7 @@ class SettingsProfileServiceImplTest {
     @DisplayName("✅ Create profile successfully")
     void testCreateProfile_Success() {
         // Mock repository response
-        when(repository.existsByUserId(1L)).thenReturn(false);
-        when(repository.save(any(SettingsProfile.class))).thenReturn(entity);
+        when(repository.insert(any(SettingsProfile.class))).thenReturn(entity);
 
         // Call service
         SettingsProfileDTO result = service.createProfile(1L, dto);
@@ -86,9 +116,9 @@ class SettingsProfileServiceImplTest {
         assertNotNull(result);
         assertEquals("John Doe", result.fullName());
 
-        // Verify repository interactions
-        verify(repository, times(1)).existsByUserId(1L);
-        verify(repository, times(1)).save(any(SettingsProfile.class));
+        // Verify repository interactions: one INSERT, no existence check
+        verify(repository, times(1)).insert(any(SettingsProfile.class));
+        verify(repository, never()).existsByUserId(any());
 
         log.info("✅ testCreateProfile_Success passed");
     }
@@ -96,16 +126,41 @@ class SettingsProfileServiceImplTest {
     @Test
     @DisplayName("❌ Create profile fails when already exists")
     void testCreateProfile_AlreadyExists() {
-        when(repository.existsByUserId(1L)).thenReturn(true);
+        when(repository.insert(any(SettingsProfile.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry '1' for key 'PRIMARY'"));
 
         assertThrows(IllegalStateException.class, () -> service.createProfile(1L, dto));
 
-        verify(repository, times(1)).existsByUserId(1L);
-        verify(repository, never()).save(any(SettingsProfile.class));
+        verify(repository, never()).existsByUserId(any());
 
         log.info("✅ testCreateProfile_AlreadyExists passed");
     }
 
+    @Test
+    @DisplayName("✅ Create profile stores canonical timezone and locale")
+    void testCreateProfile_Canonical() {
+        when(repository.insert(any(SettingsProfile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SettingsProfileDTO result = service.createProfile(1L,
+                new SettingsProfileDTO(1L, "John Doe", null, "asia/kolkata", "en-us", null));
+
+        assertEquals("Asia/Kolkata", result.timezone());
+        assertEquals("en_US", result.locale());
+
+        log.info("✅ testCreateProfile_Canonical passed");
+    }
+
+    @Test
+    @DisplayName("❌ Create profile fails for an unknown timezone")
+    void testCreateProfile_InvalidTimezone() {
+        assertThrows(ValidationException.class, () -> service.createProfile(1L,
+                new SettingsProfileDTO(1L, "John Doe", null, "Mars/Olympus", "en_US", null)));
+
+        verify(repository, never()).insert(any(SettingsProfile.class));
+
+        log.info("✅ testCreateProfile_InvalidTimezone passed");
+    }
+
     // ============================================================
     // READ
     // ============================================================
@@ -133,10 +188,34 @@ class SettingsProfileServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> service.getProfile(1L));
 
         verify(repository, times(1)).findByUserId(1L);
+        assertEquals(1.0, registry.counter(AppConstants.METRIC_SETTINGS_OUTCOME,
+                "resource", "profile", "operation", "get", "outcome", SettingsMetrics.OUTCOME_NOT_FOUND).count());
 
         log.info("✅ testGetProfile_NotFound passed");
     }
 
+    @Test
+    @DisplayName("✅ Zone and locale are resolved from the stored profile")
+    void testGetZoneIdAndLocale() {
+        when(repository.findByUserId(1L)).thenReturn(Optional.of(entity));
+
+        assertEquals(ZoneId.of("Asia/Kolkata"), service.getZoneId(1L));
+        assertEquals(Locale.US, service.getLocale(1L));
+
+        log.info("✅ testGetZoneIdAndLocale passed");
+    }
+
+    @Test
+    @DisplayName("✅ Invalid stored timezone falls back to the default")
+    void testGetZoneId_InvalidStored() {
+        entity.setTimezone("Not/AZone");
+        when(repository.findByUserId(1L)).thenReturn(Optional.of(entity));
+
+        assertEquals(ZoneId.of(Constants.DEFAULT_TIMEZONE), service.getZoneId(1L));
+
+        log.info("✅ testGetZoneId_InvalidStored passed");
+    }
+
     // ============================================================
     // UPDATE
     // ============================================================
@@ -145,34 +224,49 @@ class SettingsProfileServiceImplTest {
     @DisplayName("✅ Update profile successfully")
     void testUpdateProfile_Success() {
         when(repository.findByUserId(1L)).thenReturn(Optional.of(entity));
-        when(repository.save(any(SettingsProfile.class))).thenReturn(entity);
+        when(repository.saveAndFlush(any(SettingsProfile.class))).thenReturn(entity);
 
         // New DTO for update
         SettingsProfileDTO updatedDto = new SettingsProfileDTO(
-                1L, "Jane Doe", "+44-1234-567890", "America/New_York", "fr_FR"
+                1L, "Jane Doe", "+44-1234-567890", "America/New_York", "fr_FR", null
         );
 
-        SettingsProfileDTO result = service.updateProfile(1L, updatedDto);
+        SettingsProfileDTO result = service.updateProfile(1L, updatedDto, null);
 
         assertNotNull(result);
         assertEquals("Jane Doe", result.fullName());
         assertEquals("fr_FR", result.locale());
 
         verify(repository, times(1)).findByUserId(1L);
-        verify(repository, times(1)).save(any(SettingsProfile.class));
+        verify(repository, times(1)).saveAndFlush(any(SettingsProfile.class));
 
         log.info("✅ testUpdateProfile_Success passed");
     }
 
+    @Test
+    @DisplayName("✅ Blank timezone and locale on update fall back to the defaults, as on create")
+    void testUpdateProfile_BlankZoneAndLocale() {
+        when(repository.findByUserId(1L)).thenReturn(Optional.of(entity));
+        when(repository.saveAndFlush(any(SettingsProfile.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SettingsProfileDTO result = service.updateProfile(1L,
+                new SettingsProfileDTO(1L, "Jane Doe", "", "", " ", null), null);
+
+        assertEquals(Constants.DEFAULT_TIMEZONE, result.timezone());
+        assertEquals(Constants.DEFAULT_LOCALE, result.locale());
+
+        log.info("✅ testUpdateProfile_BlankZoneAndLocale passed");
+    }
+
     @Test
     @DisplayName("❌ Update profile fails when not found")
     void testUpdateProfile_NotFound() {
         when(repository.findByUserId(1L)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> service.updateProfile(1L, dto));
+        assertThrows(ResourceNotFoundException.class, () -> service.updateProfile(1L, dto, null));
 
         verify(repository, times(1)).findByUserId(1L);
-        verify(repository, never()).save(any(SettingsProfile.class));
+        verify(repository, never()).saveAndFlush(any(SettingsProfile.class));
 
         log.info("✅ testUpdateProfile_NotFound passed");
     }
@@ -184,38 +278,86 @@ class SettingsProfileServiceImplTest {
     @Test
     @DisplayName("✅ Patch profile successfully")
     void testPatchProfile_Success() {
+        when(repository.patchByUserId(eq(1L), eq("Updated Name"), isNull(), isNull(), isNull(),
+                any(LocalDateTime.class), isNull())).thenReturn(1);
+        // Row as stored after the UPDATE
+        entity.setFullName("Updated Name");
         when(repository.findByUserId(1L)).thenReturn(Optional.of(entity));
-        when(repository.save(any(SettingsProfile.class))).thenReturn(entity);
 
         // Only updating name (partial DTO)
         SettingsProfileDTO partialDto = new SettingsProfileDTO(
-                null, "Updated Name", null, null, null
+                null, "Updated Name", null, null, null, null
         );
 
-        SettingsProfileDTO result = service.patchProfile(1L, partialDto);
+        SettingsProfileDTO result = service.patchProfile(1L, partialDto, null);
 
         assertNotNull(result);
         assertEquals("Updated Name", result.fullName());
 
         verify(repository, times(1)).findByUserId(1L);
-        verify(repository, times(1)).save(any(SettingsProfile.class));
+        verify(repository, never()).saveAndFlush(any(SettingsProfile.class));
 
         log.info("✅ testPatchProfile_Success passed");
     }
 
+    @Test
+    @DisplayName("✅ Blank timezone and locale on patch leave the stored values unchanged")
+    void testPatchProfile_BlankZoneAndLocale() {
+        when(repository.patchByUserId(eq(1L), eq("Updated Name"), eq(""), isNull(), isNull(),
+                any(LocalDateTime.class), isNull())).thenReturn(1);
+        when(repository.findByUserId(1L)).thenReturn(Optional.of(entity));
+
+        SettingsProfileDTO result = service.patchProfile(1L,
+                new SettingsProfileDTO(null, "Updated Name", "", "", "", null), null);
+
+        assertEquals("Asia/Kolkata", result.timezone());
+        verify(repository).patchByUserId(eq(1L), eq("Updated Name"), eq(""), isNull(), isNull(),
+                any(LocalDateTime.class), isNull());
+
+        log.info("✅ testPatchProfile_BlankZoneAndLocale passed");
+    }
+
     @Test
     @DisplayName("❌ Patch profile fails when not found")
     void testPatchProfile_NotFound() {
-        when(repository.findByUserId(1L)).thenReturn(Optional.empty());
+        when(repository.patchByUserId(eq(1L), any(), any(), any(), any(), any(LocalDateTime.class), isNull()))
+                .thenReturn(0);
 
-        assertThrows(ResourceNotFoundException.class, () -> service.patchProfile(1L, dto));
+        assertThrows(ResourceNotFoundException.class, () -> service.patchProfile(1L, dto, null));
 
-        verify(repository, times(1)).findByUserId(1L);
-        verify(repository, never()).save(any(SettingsProfile.class));
+        verify(repository, never()).findByUserId(1L);
 
         log.info("✅ testPatchProfile_NotFound passed");
     }
 
+    @Test
+    @DisplayName("✅ Unconditional patch is queued with canonical values in write-behind mode")
+    void testPatchProfile_WriteBehind() {
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(writeBehind.queueProfile(eq(1L), any(), any())).thenReturn(dto);
+        SettingsProfileDTO partialDto = new SettingsProfileDTO(null, null, null, "asia/kolkata", null, null);
+
+        assertSame(dto, service.patchProfile(1L, partialDto, null));
+
+        verify(writeBehind).queueProfile(eq(1L),
+                eq(new SettingsProfileDTO(1L, null, null, "Asia/Kolkata", null, null)), any());
+        verifyNoInteractions(repository);
+
+        log.info("✅ testPatchProfile_WriteBehind passed");
+    }
+
+    @Test
+    @DisplayName("❌ Patch profile rejects an invalid locale before the UPDATE")
+    void testPatchProfile_InvalidLocale() {
+        SettingsProfileDTO partialDto = new SettingsProfileDTO(null, null, null, null, "xx_YY", null);
+
+        assertThrows(ValidationException.class, () -> service.patchProfile(1L, partialDto, null));
+
+        verifyNoInteractions(repository);
+
+        log.info("✅ testPatchProfile_InvalidLocale passed");
+    }
+
     // ============================================================
     // DELETE
     // ============================================================
@@ -223,13 +365,13 @@ class SettingsProfileServiceImplTest {
     @Test
     @DisplayName("✅ Delete profile successfully")
     void testDeleteProfile_Success() {
-        when(repository.findByUserId(1L)).thenReturn(Optional.of(entity));
-        doNothing().when(repository).delete(entity);
+        when(repository.deleteByUserId(1L, null)).thenReturn(1);
 
-        service.deleteProfile(1L);
+        service.deleteProfile(1L, null);
 
-        verify(repository, times(1)).findByUserId(1L);
-        verify(repository, times(1)).delete(entity);
+        // One DELETE, no lookup
+        verify(repository, times(1)).deleteByUserId(1L, null);
+        verify(repository, never()).findByUserId(any());
 
         log.info("✅ testDeleteProfile_Success passed");
     }
@@ -237,13 +379,23 @@ class SettingsProfileServiceImplTest {
     @Test
     @DisplayName("❌ Delete profile fails when not found")
     void testDeleteProfile_NotFound() {
-        when(repository.findByUserId(1L)).thenReturn(Optional.empty());
+        when(repository.deleteByUserId(1L, null)).thenReturn(0);
 
-        assertThrows(ResourceNotFoundException.class, () -> service.deleteProfile(1L));
+        assertThrows(ResourceNotFoundException.class, () -> service.deleteProfile(1L, null));
 
-        verify(repository, times(1)).findByUserId(1L);
-        verify(repository, never()).delete(any(SettingsProfile.class));
+        verify(repository, never()).existsByUserId(any());
 
         log.info("✅ testDeleteProfile_NotFound passed");
     }
+
+    @Test
+    @DisplayName("❌ Delete profile fails when If-Match version is stale")
+    void testDeleteProfile_VersionMismatch() {
+        when(repository.deleteByUserId(1L, 3L)).thenReturn(0);
+        when(repository.existsByUserId(1L)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () -> service.deleteProfile(1L, 3L));
+
+        log.info("✅ testDeleteProfile_VersionMismatch passed");
+    }
 }
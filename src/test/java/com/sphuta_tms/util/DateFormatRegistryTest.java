@@ -0,0 +1,74 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.exception.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DateFormatRegistry}.
+ */
+class DateFormatRegistryTest {
+
+    private final DateFormatRegistry registry = new DateFormatRegistry(16);
+
+    // ============================================================
+    // TRANSLATION
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Default pattern formats calendar year and day of month")
+    void testFormatter_Default() {
+        // 2024-12-30 is in week-based year 2025 and day-of-year 365: the JDK meaning of YYYY-MM-DD
+        assertEquals("2024-12-30", registry.formatter("YYYY-MM-DD").format(LocalDate.of(2024, 12, 30)));
+    }
+
+    @Test
+    @DisplayName("✅ Other supported notations")
+    void testFormatter_Variants() {
+        LocalDate date = LocalDate.of(2024, 3, 5);
+        assertEquals("05/03/2024", registry.formatter("DD/MM/YYYY").format(date));
+        assertEquals("3.5.24", registry.formatter("M.d.yy").format(date));
+        assertEquals("5 Mar, 2024",
+                registry.formatter("D MMM, YYYY").withLocale(Locale.ENGLISH).format(date));
+    }
+
+    @Test
+    @DisplayName("✅ Unsupported patterns are rejected")
+    void testFormatter_Invalid() {
+        assertThrows(ValidationException.class, () -> registry.formatter(null));
+        assertThrows(ValidationException.class, () -> registry.formatter(""));
+        assertThrows(ValidationException.class, () -> registry.formatter("YYYY-MM"));
+        assertThrows(ValidationException.class, () -> registry.formatter("YYYY-MM-DD-DD"));
+        assertThrows(ValidationException.class, () -> registry.formatter("YYY-MM-DD"));
+        assertThrows(ValidationException.class, () -> registry.formatter("yyyy-mm-dd"));
+        assertThrows(ValidationException.class, () -> registry.formatter("YYYY-MM-DD HH"));
+        assertThrows(ValidationException.class, () -> registry.formatter("'T'YYYY-MM-DD"));
+        assertEquals(0, registry.size());
+    }
+
+    // ============================================================
+    // CACHE
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ A pattern is compiled once and shared")
+    void testFormatter_Cached() {
+        assertSame(registry.formatter("YYYY-MM-DD"), registry.formatter("YYYY-MM-DD"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    @DisplayName("✅ Cache size stays bounded")
+    void testFormatter_Bounded() {
+        DateFormatRegistry small = new DateFormatRegistry(2);
+        small.formatter("YYYY-MM-DD");
+        small.formatter("DD/MM/YYYY");
+        small.formatter("MM/DD/YYYY");
+        assertEquals(2, small.size());
+    }
+}
@@ -0,0 +1,51 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.exception.PreconditionFailedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ETags}.
+ */
+class ETagsTest {
+
+    @Test
+    @DisplayName("✅ Version is rendered as a strong quoted ETag")
+    void testOf() {
+        assertEquals("\"7\"", ETags.of(7L));
+        assertNull(ETags.of(null));
+    }
+
+    @Test
+    @DisplayName("✅ Combined ETag marks missing records")
+    void testOfAll() {
+        assertEquals("\"3.-.0\"", ETags.ofAll(3L, null, 0L));
+    }
+
+    @Test
+    @DisplayName("✅ If-None-Match uses weak comparison over a list")
+    void testMatches() {
+        assertTrue(ETags.matches("\"1\", W/\"7\"", "\"7\""));
+        assertTrue(ETags.matches("*", "\"7\""));
+        assertFalse(ETags.matches("\"6\"", "\"7\""));
+        assertFalse(ETags.matches(null, "\"7\""));
+    }
+
+    @Test
+    @DisplayName("✅ If-Match yields the expected version")
+    void testExpectedVersion() {
+        assertEquals(Long.valueOf(7), ETags.expectedVersion(" \"7\" "));
+        assertNull(ETags.expectedVersion(null));
+        assertNull(ETags.expectedVersion("*"));
+    }
+
+    @Test
+    @DisplayName("❌ If-Match that can never match fails the precondition")
+    void testExpectedVersionForeignTag() {
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersion("W/\"7\""));
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersion("\"abc\""));
+        assertThrows(PreconditionFailedException.class, () -> ETags.expectedVersion("\"1\", \"2\""));
+    }
+}
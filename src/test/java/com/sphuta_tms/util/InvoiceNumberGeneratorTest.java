@@ -0,0 +1,191 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.exception.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link InvoiceNumberFormat}, {@link InvoiceNumberFormatCache}
+ * and {@link InvoiceNumberGenerator}.
+ *
+ * Uses an in-memory sequence reserver in place of the database.
+ */
+class InvoiceNumberGeneratorTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-17T10:00:00Z"), ZoneOffset.UTC);
+
+    private final ConcurrentHashMap<String, AtomicLong> table = new ConcurrentHashMap<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+    private final InvoiceNumberFormatCache formats = new InvoiceNumberFormatCache(16);
+
+    /** Mimics the upsert in InvoiceSequenceRepository: returns the first value of the reserved range. */
+    private long reserve(String key, int size) {
+        reservations.incrementAndGet();
+        return table.computeIfAbsent(key, k -> new AtomicLong(1)).getAndAdd(size);
+    }
+
+    // ============================================================
+    // FORMAT
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Default format renders year and padded sequence")
+    void testFormat_Default() {
+        InvoiceNumberFormat format = InvoiceNumberFormat.parse("INV-${yyyy}${seq:5}");
+
+        assertEquals("INV-202600042", format.format(LocalDate.of(2026, 3, 1), 42));
+        assertEquals("2026", format.period(LocalDate.of(2026, 3, 1)));
+    }
+
+    @Test
+    @DisplayName("✅ Month token makes the sequence monthly")
+    void testFormat_Monthly() {
+        InvoiceNumberFormat format = InvoiceNumberFormat.parse("${yyyy}/${MM}/${seq:3}-X");
+
+        assertEquals("2026/03/007-X", format.format(LocalDate.of(2026, 3, 1), 7));
+        assertEquals("202603", format.period(LocalDate.of(2026, 3, 1)));
+        assertEquals("1234", InvoiceNumberFormat.parse("${seq}").format(LocalDate.of(2026, 3, 1), 1234));
+        assertEquals(InvoiceNumberFormat.NO_PERIOD, InvoiceNumberFormat.parse("A${seq:2}").period(LocalDate.now()));
+    }
+
+    @Test
+    @DisplayName("❌ Invalid formats are rejected")
+    void testFormat_Invalid() {
+        assertThrows(ValidationException.class, () -> InvoiceNumberFormat.parse(" "));
+        assertThrows(ValidationException.class, () -> InvoiceNumberFormat.parse("INV-${yyyy}"));
+        assertThrows(ValidationException.class, () -> InvoiceNumberFormat.parse("INV-${seq:5}${seq:2}"));
+        assertThrows(ValidationException.class, () -> InvoiceNumberFormat.parse("INV-${dd}${seq:5}"));
+        assertThrows(ValidationException.class, () -> InvoiceNumberFormat.parse("INV-${seq:x}"));
+        assertThrows(ValidationException.class, () -> InvoiceNumberFormat.parse("INV-${seq:5"));
+    }
+
+    @Test
+    @DisplayName("✅ Compiled format writes into caller buffers")
+    void testFormat_RenderTargets() {
+        InvoiceNumberFormat format = InvoiceNumberFormat.parse("INV-${yyyy}-${MM}-${seq:3}");
+
+        char[] buffer = new char[32];
+        int end = format.formatTo(buffer, 2, 2026, 3, 123456);
+        assertEquals("INV-2026-03-123456", new String(buffer, 2, end - 2));
+        assertEquals(end - 2, format.length(123456));
+
+        StringBuilder sb = new StringBuilder("x:");
+        format.formatTo(sb, LocalDate.of(2026, 3, 1), 5);
+        assertEquals("x:INV-2026-03-005", sb.toString());
+    }
+
+    @Test
+    @DisplayName("✅ Format cache compiles once and drops formats beyond its size")
+    void testFormatCache() {
+        InvoiceNumberFormat first = formats.compile("INV-${seq:5}");
+
+        assertSame(first, formats.compile("INV-${seq:5}"));
+        assertThrows(ValidationException.class, () -> formats.compile("INV-${bad}"));
+        assertEquals(1, formats.size());
+
+        InvoiceNumberFormatCache small = new InvoiceNumberFormatCache(2);
+        small.compile("A${seq}");
+        small.compile("B${seq}");
+        small.compile("C${seq}");
+        assertEquals(2, small.size());
+    }
+
+    // ============================================================
+    // GENERATOR
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Gap-tolerant mode reserves one block per blockSize numbers")
+    void testGenerator_BlockReservation() {
+        InvoiceNumberGenerator generator = new InvoiceNumberGenerator(
+                this::reserve, InvoiceNumberGenerator.Mode.GAP_TOLERANT, 10, CLOCK, formats);
+
+        List<String> numbers = IntStream.range(0, 25)
+                .mapToObj(i -> generator.next("user-1", id -> "INV-${yyyy}${seq:5}"))
+                .collect(Collectors.toList());
+
+        assertEquals("INV-202600001", numbers.get(0));
+        assertEquals("INV-202600025", numbers.get(24));
+        assertEquals(3, reservations.get());
+    }
+
+    @Test
+    @DisplayName("✅ Gapless mode reserves every number")
+    void testGenerator_Gapless() {
+        InvoiceNumberGenerator generator = new InvoiceNumberGenerator(
+                this::reserve, InvoiceNumberGenerator.Mode.GAPLESS, 10, CLOCK, formats);
+
+        generator.next("user-1", id -> "INV-${seq:3}");
+        String second = generator.next("user-1", id -> "INV-${seq:3}");
+
+        assertEquals("INV-002", second);
+        assertEquals(2, reservations.get());
+    }
+
+    @Test
+    @DisplayName("✅ Format is loaded once until evicted")
+    void testGenerator_Evict() {
+        InvoiceNumberGenerator generator = new InvoiceNumberGenerator(
+                this::reserve, InvoiceNumberGenerator.Mode.GAP_TOLERANT, 10, CLOCK, formats);
+        AtomicInteger loads = new AtomicInteger();
+
+        generator.next("user-1", id -> { loads.incrementAndGet(); return "A-${seq:2}"; });
+        generator.next("user-1", id -> { loads.incrementAndGet(); return "A-${seq:2}"; });
+        assertEquals(1, loads.get());
+
+        generator.evict("user-1");
+        String afterEvict = generator.next("user-1", id -> { loads.incrementAndGet(); return "B-${seq:2}"; });
+
+        assertEquals(2, loads.get());
+        // The rest of the evicted block is skipped
+        assertEquals("B-11", afterEvict);
+        // The old format stays shared in the format cache for other users
+        assertEquals(2, formats.size());
+    }
+
+    @Test
+    @DisplayName("✅ Concurrent callers never receive the same number")
+    void testGenerator_ConcurrentUnique() throws Exception {
+        InvoiceNumberGenerator generator = new InvoiceNumberGenerator(
+                this::reserve, InvoiceNumberGenerator.Mode.GAP_TOLERANT, 7, CLOCK, formats);
+        int threads = 8;
+        int perThread = 5_000;
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = IntStream.range(0, threads)
+                    .mapToObj(t -> pool.submit(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            issued.add(generator.next("user-1", id -> "INV-${seq:6}"));
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads * perThread, issued.size());
+        assertTrue(issued.contains("INV-040000"));
+    }
+}
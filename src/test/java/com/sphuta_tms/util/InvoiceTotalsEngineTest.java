@@ -0,0 +1,179 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.entity.InvoicingSettings;
+import com.sphuta_tms.util.InvoiceTotalsEngine.InvoiceTerms;
+import com.sphuta_tms.util.InvoiceTotalsEngine.InvoiceTotals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link InvoiceTotalsEngine}.
+ *
+ * Property tests compare every field against a BigDecimal implementation working
+ * directly on the settings' decimal values, over random amounts, rates and terms.
+ */
+class InvoiceTotalsEngineTest {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /** Reference: one invoice computed with BigDecimal and HALF_UP rounding to the minor unit. */
+    private record Reference(BigDecimal subtotal, BigDecimal tax, BigDecimal total, BigDecimal lateFee) {
+
+        static Reference of(long[] lines, BigDecimal taxRate, BigDecimal lateFeePercent) {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (long line : lines) {
+                subtotal = subtotal.add(BigDecimal.valueOf(line));
+            }
+            BigDecimal tax = subtotal.multiply(taxRate).setScale(0, RoundingMode.HALF_UP);
+            BigDecimal total = subtotal.add(tax);
+            BigDecimal lateFee = total.multiply(lateFeePercent).divide(HUNDRED, 0, RoundingMode.HALF_UP);
+            return new Reference(subtotal, tax, total, lateFee);
+        }
+    }
+
+    private static BigDecimal randomTaxRate(Random random) {
+        return BigDecimal.valueOf(random.nextInt(10_001), 4);
+    }
+
+    private static BigDecimal randomLateFee(Random random) {
+        return BigDecimal.valueOf(random.nextInt(1_000_000), 3);
+    }
+
+    // ============================================================
+    // SINGLE VALUES
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Tax and late fee round half-up to the minor unit")
+    void testSingleValues() {
+        InvoiceTerms terms = InvoiceTerms.of(new BigDecimal("0.0825"), new BigDecimal("1.500"), 30);
+
+        // 1000.00 * 8.25 % = 82.50; 19.99 * 8.25 % = 1.649175 -> 1.65
+        assertEquals(8250, InvoiceTotalsEngine.tax(100_000, terms));
+        assertEquals(165, InvoiceTotalsEngine.tax(1999, terms));
+        // 0.30 * 1.5 % = 0.0045 -> 0.00; 1.00 * 1.5 % = 0.015 -> 0.02
+        assertEquals(0, InvoiceTotalsEngine.lateFee(30, terms));
+        assertEquals(2, InvoiceTotalsEngine.lateFee(100, terms));
+        // Credit notes round away from zero, like BigDecimal HALF_UP
+        assertEquals(-2, InvoiceTotalsEngine.lateFee(-100, terms));
+    }
+
+    @Test
+    @DisplayName("✅ Products that overflow a long still match BigDecimal")
+    void testMultiplyRound_Overflow() {
+        long amount = Long.MAX_VALUE / 1000;
+        long expected = BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(999_999))
+                .divide(BigDecimal.valueOf(100_000), 0, RoundingMode.HALF_UP).longValueExact();
+
+        assertEquals(expected, InvoiceTotalsEngine.multiplyRound(amount, 999_999, 100_000));
+    }
+
+    @Test
+    @DisplayName("✅ Terms come from the settings' columns; extra decimals are rejected")
+    void testTerms() {
+        InvoicingSettings settings = new InvoicingSettings();
+        settings.setDefaultTaxRate(new BigDecimal("0.08"));
+        settings.setLateFeePercent(new BigDecimal("2.25"));
+        settings.setPaymentTermsDays(45);
+
+        assertEquals(new InvoiceTerms(800, 2250, 45), InvoiceTerms.of(settings));
+        assertEquals(new InvoiceTerms(0, 0, 0), InvoiceTerms.of(null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> InvoiceTerms.of(new BigDecimal("0.08125"), BigDecimal.ZERO, 14));
+        assertThrows(IllegalArgumentException.class,
+                () -> InvoiceTerms.of(BigDecimal.ZERO, new BigDecimal("1.0005"), 14));
+    }
+
+    // ============================================================
+    // BATCHES
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Batch results match the BigDecimal reference for random invoices")
+    void testCompute_MatchesReference() {
+        Random random = new Random(2024);
+        int users = 50;
+        int invoices = 50_000;
+        BigDecimal[] taxRates = new BigDecimal[users];
+        BigDecimal[] lateFees = new BigDecimal[users];
+        InvoiceTerms[] terms = new InvoiceTerms[users];
+        for (int u = 0; u < users; u++) {
+            taxRates[u] = randomTaxRate(random);
+            lateFees[u] = randomLateFee(random);
+            terms[u] = InvoiceTerms.of(taxRates[u], lateFees[u], random.nextInt(91));
+        }
+
+        int[] offsets = new int[invoices + 1];
+        for (int i = 0; i < invoices; i++) {
+            offsets[i + 1] = offsets[i] + random.nextInt(8);
+        }
+        long[] lines = new long[offsets[invoices]];
+        for (int l = 0; l < lines.length; l++) {
+            // Mostly ordinary amounts, some large ones and refunds
+            lines[l] = switch (random.nextInt(10)) {
+                case 0 -> -random.nextInt(500_000);
+                case 1 -> random.nextLong(1L << 50);
+                default -> random.nextInt(2_000_000);
+            };
+        }
+        long[] issueDays = new long[invoices];
+        int[] owners = new int[invoices];
+        for (int i = 0; i < invoices; i++) {
+            issueDays[i] = LocalDate.of(2024, 1, 1).toEpochDay() + random.nextInt(366);
+            owners[i] = random.nextInt(users);
+        }
+
+        InvoiceTotals sequential = InvoiceTotalsEngine.compute(lines, offsets, issueDays, owners, terms);
+        InvoiceTotals parallel = InvoiceTotalsEngine.computeParallel(lines, offsets, issueDays, owners, terms);
+
+        assertEquals(invoices, sequential.size());
+        for (int i = 0; i < invoices; i++) {
+            long[] invoiceLines = Arrays.copyOfRange(lines, offsets[i], offsets[i + 1]);
+            Reference expected = Reference.of(invoiceLines, taxRates[owners[i]], lateFees[owners[i]]);
+            for (InvoiceTotals actual : new InvoiceTotals[]{sequential, parallel}) {
+                assertEquals(expected.subtotal().longValueExact(), actual.subtotal(i), "subtotal " + i);
+                assertEquals(expected.tax().longValueExact(), actual.tax(i), "tax " + i);
+                assertEquals(expected.total().longValueExact(), actual.total(i), "total " + i);
+                assertEquals(expected.lateFee().longValueExact(), actual.lateFee(i), "late fee " + i);
+                assertEquals(LocalDate.ofEpochDay(issueDays[i]).plusDays(terms[owners[i]].paymentTermsDays()),
+                        actual.dueDate(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Rounding ties match the reference for every rate")
+    void testCompute_TiesMatchReference() {
+        // Amounts near multiples of the divisors exercise the half-way cases
+        Random random = new Random(11);
+        for (int n = 0; n < 100_000; n++) {
+            BigDecimal taxRate = randomTaxRate(random);
+            BigDecimal lateFee = randomLateFee(random);
+            InvoiceTerms terms = InvoiceTerms.of(taxRate, lateFee, 0);
+            long amount = (random.nextInt(2_000) - 1_000) * 5_000L + random.nextInt(3) - 1;
+
+            Reference expected = Reference.of(new long[]{amount}, taxRate, lateFee);
+
+            assertEquals(expected.tax().longValueExact(), InvoiceTotalsEngine.tax(amount, terms));
+            assertEquals(expected.lateFee().longValueExact(),
+                    InvoiceTotalsEngine.lateFee(expected.total().longValueExact(), terms));
+        }
+    }
+
+    @Test
+    @DisplayName("❌ Subtotals that overflow a long are rejected")
+    void testCompute_Overflow() {
+        InvoiceTerms[] terms = {InvoiceTerms.of(BigDecimal.ZERO, BigDecimal.ZERO, 0)};
+
+        assertThrows(ArithmeticException.class, () -> InvoiceTotalsEngine.compute(
+                new long[]{Long.MAX_VALUE, 1}, new int[]{0, 2}, new long[1], new int[1], terms));
+    }
+}
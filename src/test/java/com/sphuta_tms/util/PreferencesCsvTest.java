@@ -0,0 +1,57 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.dto.PreferencesRequest;
+import com.sphuta_tms.dto.PreferencesResponse;
+import com.sphuta_tms.exception.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PreferencesCsv}.
+ */
+class PreferencesCsvTest {
+
+    @Test
+    @DisplayName("✅ Exported rows parse back to the same values")
+    void testRoundTrip() {
+        PreferencesResponse row = new PreferencesResponse(
+                "user,\"1\"", "YYYY-MM-DD", WeekStart.SUN, Rounding.NEAREST_15, LocalDateTime.of(2024, 5, 1, 10, 30), null);
+        StringBuilder line = new StringBuilder();
+        PreferencesCsv.format(line, row);
+
+        PreferencesRequest parsed = PreferencesCsv.parse(line.toString());
+
+        assertEquals(new PreferencesRequest("user,\"1\"", "YYYY-MM-DD", WeekStart.SUN, Rounding.NEAREST_15), parsed);
+    }
+
+    @Test
+    @DisplayName("✅ Empty columns become null")
+    void testEmptyColumns() {
+        assertEquals(new PreferencesRequest("u1", null, null, null), PreferencesCsv.parse("u1,,,"));
+    }
+
+    @Test
+    @DisplayName("❌ Invalid enum values and short lines are rejected")
+    void testInvalidLines() {
+        assertThrows(ValidationException.class, () -> PreferencesCsv.parse("u1,YYYY-MM-DD,TUE,NONE"));
+        assertThrows(ValidationException.class, () -> PreferencesCsv.parse("u1,YYYY-MM-DD,MON,NEAREST_5"));
+        assertThrows(ValidationException.class, () -> PreferencesCsv.parse("u1,YYYY-MM-DD"));
+        assertThrows(ValidationException.class, () -> PreferencesCsv.parse("\"u1,YYYY-MM-DD,MON,NONE"));
+    }
+
+    @Test
+    @DisplayName("✅ Header check accepts the export header and rejects others")
+    void testHeader() {
+        PreferencesCsv.checkHeader(PreferencesCsv.HEADER);
+        PreferencesCsv.checkHeader("user_id,date_format,week_starts_on,rounding");
+        assertThrows(ValidationException.class, () -> PreferencesCsv.checkHeader("user_id,rounding"));
+        assertEquals(List.of("a", "b,c", ""), PreferencesCsv.split("a,\"b,c\","));
+    }
+}
@@ -0,0 +1,106 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.Rounding;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RoundingEngine}.
+ *
+ * Results are compared against per-entry BigDecimal HALF_UP rounding.
+ */
+class RoundingEngineTest {
+
+    /** Reference implementation: round(duration / increment, HALF_UP) * increment. */
+    private static long reference(long duration, long increment) {
+        if (increment == 0) {
+            return duration;
+        }
+        BigDecimal inc = BigDecimal.valueOf(increment);
+        return BigDecimal.valueOf(duration)
+                .divide(inc, 0, RoundingMode.HALF_UP)
+                .multiply(inc)
+                .longValueExact();
+    }
+
+    @Test
+    @DisplayName("✅ Minutes round half-up to the nearest increment")
+    void testRound_Minutes() {
+        long[] durations = {0, 2, 3, 7, 8, 22, 23, 44, 45, 61};
+        RoundingEngine.round(durations, TimeUnit.MINUTES, Rounding.NEAREST_15);
+
+        assertArrayEquals(new long[]{0, 0, 0, 0, 15, 15, 30, 45, 45, 60}, durations);
+    }
+
+    @Test
+    @DisplayName("✅ NONE and null leave durations untouched")
+    void testRound_None() {
+        long[] durations = {1, 7, 59};
+        long[] copy = new long[3];
+
+        RoundingEngine.round(durations, copy, TimeUnit.SECONDS, Rounding.NONE);
+        RoundingEngine.round(durations, TimeUnit.SECONDS, null);
+
+        assertArrayEquals(new long[]{1, 7, 59}, copy);
+        assertArrayEquals(new long[]{1, 7, 59}, durations);
+    }
+
+    @Test
+    @DisplayName("❌ Units coarser than minutes are rejected")
+    void testIncrement_CoarseUnit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> RoundingEngine.increment(Rounding.NEAREST_6, TimeUnit.HOURS));
+        assertEquals(360, RoundingEngine.increment(Rounding.NEAREST_6, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("✅ Sequential and parallel paths match BigDecimal reference")
+    void testRound_MatchesReference() {
+        Random random = new Random(42);
+        long[] seconds = random.longs(200_000, 0, 12 * 3600).toArray();
+
+        for (Rounding rounding : Rounding.values()) {
+            long increment = RoundingEngine.increment(rounding, TimeUnit.SECONDS);
+            long[] expected = new long[seconds.length];
+            for (int i = 0; i < seconds.length; i++) {
+                expected[i] = reference(seconds[i], increment);
+            }
+
+            long[] sequential = seconds.clone();
+            RoundingEngine.round(sequential, TimeUnit.SECONDS, rounding);
+            long[] parallel = seconds.clone();
+            RoundingEngine.roundParallel(parallel, TimeUnit.SECONDS, rounding);
+
+            assertArrayEquals(expected, sequential, "sequential " + rounding);
+            assertArrayEquals(expected, parallel, "parallel " + rounding);
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Mixed batches use each owner's preference")
+    void testRoundByOwner() {
+        Rounding[] owners = Rounding.values();
+        Random random = new Random(7);
+        int size = 100_000;
+        long[] minutes = random.longs(size, 0, 600).toArray();
+        int[] ownerOf = random.ints(size, 0, owners.length).toArray();
+
+        long[] sequential = minutes.clone();
+        RoundingEngine.roundByOwner(sequential, ownerOf, owners, TimeUnit.MINUTES);
+        long[] parallel = minutes.clone();
+        RoundingEngine.roundByOwnerParallel(parallel, ownerOf, owners, TimeUnit.MINUTES);
+
+        for (int i = 0; i < size; i++) {
+            long expected = reference(minutes[i], owners[ownerOf[i]].getIncrementMinutes());
+            assertEquals(expected, sequential[i]);
+        }
+        assertArrayEquals(sequential, parallel);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sphuta_tms.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TraceIds}.
+ */
+class TraceIdsTest {
+
+    @AfterEach
+    void tearDown() {
+        TraceIds.unbind();
+    }
+
+    @Test
+    @DisplayName("✅ Generated IDs are 32 lowercase hex characters")
+    void testNext_Format() {
+        assertTrue(TraceIds.next().matches("[0-9a-f]{32}"));
+    }
+
+    @Test
+    @DisplayName("✅ Generated IDs strictly increase on one thread")
+    void testNext_Monotonic() {
+        String previous = TraceIds.next();
+        for (int i = 0; i < 100_000; i++) {
+            String id = TraceIds.next();
+            assertTrue(id.substring(0, 16).compareTo(previous.substring(0, 16)) > 0, id + " <= " + previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Bound ID is returned until unbound")
+    void testCurrent_Bound() {
+        TraceIds.bind("4bf92f3577b34da6a3ce929d0e0e4736");
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", TraceIds.current());
+
+        TraceIds.unbind();
+        assertNotEquals("4bf92f3577b34da6a3ce929d0e0e4736", TraceIds.current());
+    }
+
+    @Test
+    @DisplayName("✅ Trace-id is taken from a valid traceparent header")
+    void testFromTraceparent() {
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736",
+                TraceIds.fromTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+        // Later versions may append fields
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736",
+                TraceIds.fromTraceparent("01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra"));
+    }
+
+    @Test
+    @DisplayName("✅ Malformed traceparent headers are ignored")
+    void testFromTraceparent_Invalid() {
+        assertNull(TraceIds.fromTraceparent(null));
+        assertNull(TraceIds.fromTraceparent("garbage"));
+        assertNull(TraceIds.fromTraceparent("00-00000000000000000000000000000000-00f067aa0ba902b7-01"));
+        assertNull(TraceIds.fromTraceparent("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01"));
+        assertNull(TraceIds.fromTraceparent("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01"));
+        assertNull(TraceIds.fromTraceparent("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra"));
+    }
+}
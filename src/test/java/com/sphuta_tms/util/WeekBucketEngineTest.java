@@ -0,0 +1,212 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.constants.Rounding;
+import com.sphuta_tms.constants.WeekStart;
+import com.sphuta_tms.util.WeekBucketEngine.UserCalendar;
+import com.sphuta_tms.util.WeekBucketEngine.WeekTotals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link WeekBucketEngine}.
+ *
+ * Week assignment is compared against a ZonedDateTime / LocalDate reference.
+ */
+class WeekBucketEngineTest {
+
+    private static final UserCalendar[] CALENDARS = {
+            new UserCalendar(ZoneId.of("UTC"), WeekStart.MON, Rounding.NONE),
+            new UserCalendar(ZoneId.of("America/New_York"), WeekStart.SUN, Rounding.NEAREST_15),
+            new UserCalendar(ZoneId.of("Europe/Berlin"), WeekStart.MON, Rounding.NEAREST_6),
+            new UserCalendar(ZoneId.of("Asia/Kolkata"), WeekStart.SUN, Rounding.NEAREST_30),
+            new UserCalendar(ZoneId.of("Pacific/Auckland"), WeekStart.MON, Rounding.NONE)
+    };
+
+    /** Reference: first day of the week containing the entry's local date. */
+    private static LocalDate referenceWeekStart(long epochMillis, UserCalendar calendar) {
+        LocalDate date = Instant.ofEpochMilli(epochMillis).atZone(calendar.zone()).toLocalDate();
+        DayOfWeek first = calendar.weekStart() == WeekStart.SUN ? DayOfWeek.SUNDAY : DayOfWeek.MONDAY;
+        return date.with(TemporalAdjusters.previousOrSame(first));
+    }
+
+    private static long millis(String dateTime, String zone) {
+        return ZonedDateTime.parse(dateTime + "[" + zone + "]").toInstant().toEpochMilli();
+    }
+
+    // ============================================================
+    // WEEK ORDINALS
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Week ordinals and week start days round-trip for both week starts")
+    void testWeekOf_RoundTrip() {
+        for (long day = -800; day <= 800; day++) {
+            for (WeekStart weekStart : WeekStart.values()) {
+                long start = WeekBucketEngine.weekStartDay(WeekBucketEngine.weekOf(day, weekStart), weekStart);
+                DayOfWeek first = weekStart == WeekStart.SUN ? DayOfWeek.SUNDAY : DayOfWeek.MONDAY;
+                assertEquals(LocalDate.ofEpochDay(day).with(TemporalAdjusters.previousOrSame(first)),
+                        LocalDate.ofEpochDay(start));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("✅ Sunday entries start a new week only for Sunday users")
+    void testAssign_WeekStart() {
+        // Sunday 2024-03-03 10:00 UTC
+        long sunday = millis("2024-03-03T10:00:00Z", "UTC");
+        UserCalendar[] calendars = {
+                new UserCalendar(ZoneId.of("UTC"), WeekStart.MON, Rounding.NONE),
+                new UserCalendar(ZoneId.of("UTC"), WeekStart.SUN, Rounding.NONE)
+        };
+        long[] weeks = new long[2];
+
+        WeekBucketEngine.assign(new long[]{sunday, sunday}, new int[]{0, 1}, calendars, weeks);
+
+        assertEquals(LocalDate.of(2024, 2, 26), LocalDate.ofEpochDay(WeekBucketEngine.weekStartDay(weeks[0], WeekStart.MON)));
+        assertEquals(LocalDate.of(2024, 3, 3), LocalDate.ofEpochDay(WeekBucketEngine.weekStartDay(weeks[1], WeekStart.SUN)));
+    }
+
+    @Test
+    @DisplayName("✅ Local midnight decides the week, across DST changes")
+    void testAssign_Dst() {
+        UserCalendar newYork = new UserCalendar(ZoneId.of("America/New_York"), WeekStart.SUN, Rounding.NONE);
+        // Saturday 23:30 and Sunday 00:30 local, in the night DST starts (2024-03-10) and in the fall
+        long[] starts = {
+                millis("2024-03-09T23:30:00-05:00", "America/New_York"),
+                millis("2024-03-10T00:30:00-05:00", "America/New_York"),
+                millis("2024-03-10T03:00:00-04:00", "America/New_York"),
+                millis("2024-11-02T23:30:00-04:00", "America/New_York"),
+                millis("2024-11-03T01:30:00-05:00", "America/New_York")
+        };
+        long[] weeks = new long[starts.length];
+
+        WeekBucketEngine.assign(starts, new int[starts.length], new UserCalendar[]{newYork}, weeks);
+
+        for (int i = 0; i < starts.length; i++) {
+            assertEquals(referenceWeekStart(starts[i], newYork),
+                    LocalDate.ofEpochDay(WeekBucketEngine.weekStartDay(weeks[i], WeekStart.SUN)), "entry " + i);
+        }
+        assertEquals(weeks[0] + 1, weeks[1]);
+        assertEquals(weeks[3] + 1, weeks[4]);
+    }
+
+    @Test
+    @DisplayName("✅ Random entries across zones match the reference, sequential and parallel")
+    void testAssign_RandomMatchesReference() {
+        Random random = new Random(19);
+        int n = 100_000;
+        long from = millis("1995-01-01T00:00:00Z", "UTC");
+        long span = TimeUnit.DAYS.toMillis(365L * 40);
+        long[] starts = new long[n];
+        int[] owners = new int[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = from + (long) (random.nextDouble() * span);
+            owners[i] = random.nextInt(CALENDARS.length);
+        }
+        long[] sequential = new long[n];
+        long[] parallel = new long[n];
+
+        WeekBucketEngine.assign(starts, owners, CALENDARS, sequential);
+        WeekBucketEngine.assignParallel(starts, owners, CALENDARS, parallel);
+
+        assertArrayEquals(sequential, parallel);
+        for (int i = 0; i < n; i++) {
+            UserCalendar calendar = CALENDARS[owners[i]];
+            assertEquals(referenceWeekStart(starts[i], calendar),
+                    LocalDate.ofEpochDay(WeekBucketEngine.weekStartDay(sequential[i], calendar.weekStart())));
+        }
+    }
+
+    // ============================================================
+    // TOTALS
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Totals add per-entry rounded durations per user and week")
+    void testTotals_RoundedPerEntry() {
+        UserCalendar[] calendars = {new UserCalendar(ZoneId.of("UTC"), WeekStart.MON, Rounding.NEAREST_15)};
+        long[] starts = {
+                millis("2024-03-04T09:00:00Z", "UTC"),
+                millis("2024-03-05T09:00:00Z", "UTC"),
+                millis("2024-03-11T09:00:00Z", "UTC")
+        };
+        // 8 -> 15 and 8 -> 15: 30 in the first week, not round(16) = 15
+        long[] durations = {8, 8, 52};
+
+        WeekTotals totals = WeekBucketEngine.totals(starts, durations, new int[3], calendars, TimeUnit.MINUTES);
+
+        assertEquals(2, totals.weekCount());
+        assertEquals(30, totals.total(0, 0));
+        assertEquals(45, totals.total(0, 1));
+        assertEquals(LocalDate.of(2024, 3, 4), totals.weekStart(0, 0));
+        assertEquals(LocalDate.of(2024, 3, 11), totals.weekStart(0, 1));
+        assertArrayEquals(new long[]{8, 8, 52}, durations);
+    }
+
+    @Test
+    @DisplayName("✅ Parallel totals equal sequential totals")
+    void testTotals_ParallelMatchesSequential() {
+        Random random = new Random(7);
+        int n = 200_000;
+        long from = millis("2024-01-01T00:00:00Z", "UTC");
+        long[] starts = new long[n];
+        long[] durations = new long[n];
+        int[] owners = new int[n];
+        for (int i = 0; i < n; i++) {
+            // Grouped by owner, as exports usually are
+            owners[i] = i * CALENDARS.length / n;
+            starts[i] = from + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(366));
+            durations[i] = random.nextInt(4 * 3600);
+        }
+
+        WeekTotals sequential = WeekBucketEngine.totals(starts, durations, owners, CALENDARS, TimeUnit.SECONDS);
+        WeekTotals parallel = WeekBucketEngine.totalsParallel(starts, durations, owners, CALENDARS, TimeUnit.SECONDS);
+
+        assertEquals(sequential.weekCount(), parallel.weekCount());
+        long sum = 0;
+        for (int owner = 0; owner < CALENDARS.length; owner++) {
+            for (int week = 0; week < sequential.weekCount(); week++) {
+                assertEquals(sequential.total(owner, week), parallel.total(owner, week));
+                sum += sequential.total(owner, week);
+            }
+        }
+        long expected = 0;
+        for (int i = 0; i < n; i++) {
+            expected += RoundingEngine.round(durations[i],
+                    RoundingEngine.increment(CALENDARS[owners[i]].rounding(), TimeUnit.SECONDS));
+        }
+        assertEquals(expected, sum);
+    }
+
+    @Test
+    @DisplayName("✅ No entries give an empty grid")
+    void testTotals_Empty() {
+        WeekTotals totals = WeekBucketEngine.totals(new long[0], new long[0], new int[0], CALENDARS, TimeUnit.MINUTES);
+
+        assertEquals(0, totals.weekCount());
+    }
+
+    @Test
+    @DisplayName("❌ Batches spanning too many weeks are rejected")
+    void testTotals_TooManyWeeks() {
+        long[] starts = {0, TimeUnit.DAYS.toMillis(7L * 1_000_000)};
+        UserCalendar[] calendars = new UserCalendar[20];
+        Arrays.fill(calendars, CALENDARS[0]);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> WeekBucketEngine.totals(starts, new long[2], new int[2], calendars, TimeUnit.MINUTES));
+    }
+}
@@ -0,0 +1,199 @@
+package com.sphuta_tms.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link WriteBehindQueue}.
+ *
+ * Values are strings; each change appends to the pending value and each batch
+ * is recorded, so merges and flushes can be asserted directly. Keys listed in
+ * {@code rejected} fail every batch they are in with a permanent failure.
+ */
+class WriteBehindQueueTest {
+
+    /** Long enough that the timer never fires during a test. */
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private final List<Map<String, String>> batches = new ArrayList<>();
+    private final AtomicBoolean failNext = new AtomicBoolean();
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    private WriteBehindQueue<String, String> queue = queue(100);
+
+    private WriteBehindQueue<String, String> queue(int maxPending) {
+        return new WriteBehindQueue<>("test", batch -> {
+            if (failNext.getAndSet(false)) {
+                throw new IllegalStateException("database down");
+            }
+            if (!Collections.disjoint(batch.keySet(), rejected)) {
+                throw new IllegalArgumentException("constraint violated");
+            }
+            synchronized (batches) {
+                batches.add(Map.copyOf(batch));
+            }
+        }, maxPending, NEVER, 2, IllegalArgumentException.class::isInstance);
+    }
+
+    private String append(String key, String change) {
+        return queue.offer(key, k -> "stored", value -> value + "+" + change);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    // ============================================================
+    // MERGING
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Changes to one key merge into a single write")
+    void testOffer_Merges() {
+        assertEquals("stored+a", append("u1", "a"));
+        assertEquals("stored+a+b", append("u1", "b"));
+        append("u2", "c");
+
+        assertTrue(batches.isEmpty());
+        queue.flushAll();
+
+        assertEquals(List.of(Map.of("u1", "stored+a+b", "u2", "stored+c")), batches);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    @DisplayName("❌ A failing initial load queues nothing")
+    void testOffer_InitialFails() {
+        assertThrows(IllegalArgumentException.class, () -> queue.offer("u1", k -> {
+            throw new IllegalArgumentException("not found");
+        }, value -> value));
+
+        assertEquals(0, queue.size());
+    }
+
+    // ============================================================
+    // FLUSHING
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Flushing one key writes only that key")
+    void testFlush_Key() {
+        append("u1", "a");
+        append("u2", "b");
+
+        queue.flush("u1");
+        queue.flush("u3");
+
+        assertEquals(List.of(Map.of("u1", "stored+a")), batches);
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    @DisplayName("✅ Flushing one key does not wait for a write of another key")
+    void testFlush_OtherKeyNotBlocked() throws InterruptedException {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue.close();
+        queue = new WriteBehindQueue<>("test", batch -> {
+            if (batch.containsKey("u1")) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 100, NEVER, 2, ex -> false);
+        append("u1", "a");
+        append("u2", "b");
+
+        Thread slow = new Thread(() -> queue.flush("u1"));
+        slow.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> queue.flush("u2"));
+
+        assertEquals(0, queue.size());
+        release.countDown();
+        slow.join(5000);
+        assertFalse(slow.isAlive());
+    }
+
+    @Test
+    @DisplayName("✅ Reaching the size limit flushes without waiting for the timer")
+    void testOffer_SizeLimit() throws InterruptedException {
+        CountDownLatch written = new CountDownLatch(1);
+        queue.close();
+        queue = new WriteBehindQueue<>("test", batch -> written.countDown(), 2, NEVER, 2, ex -> false);
+
+        append("u1", "a");
+        append("u2", "b");
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("✅ A failed batch is requeued and later changes merge into it")
+    void testFlush_FailureRequeues() {
+        append("u1", "a");
+        failNext.set(true);
+
+        assertThrows(IllegalStateException.class, () -> queue.flushAll());
+        append("u1", "b");
+        queue.flushAll();
+
+        assertEquals(List.of(Map.of("u1", "stored+a+b")), batches);
+    }
+
+    @Test
+    @DisplayName("❌ A key still failing after the last attempt is dropped")
+    void testFlush_AttemptsExhausted() {
+        append("u1", "a");
+
+        failNext.set(true);
+        assertThrows(IllegalStateException.class, () -> queue.flushAll());
+        failNext.set(true);
+        queue.flushAll();
+
+        assertEquals(0, queue.size());
+        assertEquals(1, queue.dropped());
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    @DisplayName("❌ A permanent failure drops only the keys that cause it")
+    void testFlush_PermanentFailureIsolated() {
+        append("u1", "a");
+        append("u2", "b");
+        rejected.add("u2");
+
+        queue.flushAll();
+
+        assertEquals(List.of(Map.of("u1", "stored+a")), batches);
+        assertEquals(0, queue.size());
+        assertEquals(1, queue.dropped());
+    }
+
+    @Test
+    @DisplayName("✅ Closing drains pending changes")
+    void testClose_Drains() {
+        append("u1", "a");
+
+        queue.close();
+
+        assertEquals(List.of(Map.of("u1", "stored+a")), batches);
+    }
+}
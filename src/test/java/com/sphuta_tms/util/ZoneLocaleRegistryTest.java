@@ -0,0 +1,87 @@
+package com.sphuta_tms.util;
+
+import com.sphuta_tms.exception.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link ZoneLocaleRegistry}.
+ */
+class ZoneLocaleRegistryTest {
+
+    private final ZoneLocaleRegistry registry = new ZoneLocaleRegistry(16);
+
+    // ============================================================
+    // TIME ZONES
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Region IDs resolve case-insensitively to the canonical ID")
+    void testZone_Region() {
+        assertEquals(ZoneId.of("America/Chicago"), registry.zone("america/CHICAGO"));
+        assertEquals("Asia/Kolkata", registry.canonicalZone(" asia/kolkata "));
+    }
+
+    @Test
+    @DisplayName("✅ Offsets and UTC are accepted")
+    void testZone_Offsets() {
+        assertEquals(ZoneOffset.ofHoursMinutes(5, 30), registry.zone("+05:30"));
+        assertEquals("UTC", registry.canonicalZone("UTC"));
+    }
+
+    @Test
+    @DisplayName("✅ A resolved zone is cached and shared")
+    void testZone_Cached() {
+        assertSame(registry.zone("Europe/Berlin"), registry.zone("Europe/Berlin"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    @DisplayName("❌ Unknown or blank zones are rejected")
+    void testZone_Invalid() {
+        assertThrows(ValidationException.class, () -> registry.zone("Mars/Olympus"));
+        assertThrows(ValidationException.class, () -> registry.zone(" "));
+        assertThrows(ValidationException.class, () -> registry.zone(null));
+        assertNull(registry.canonicalZone(null));
+        assertEquals(0, registry.size());
+    }
+
+    // ============================================================
+    // LOCALES
+    // ============================================================
+
+    @Test
+    @DisplayName("✅ Underscore and BCP 47 spellings resolve to the same locale")
+    void testLocale_Spellings() {
+        assertEquals(Locale.US, registry.locale("en_US"));
+        assertEquals(Locale.US, registry.locale("en-us"));
+        assertEquals("en_US", registry.canonicalLocale("EN-US"));
+        assertEquals("de", registry.canonicalLocale("de"));
+    }
+
+    @Test
+    @DisplayName("❌ Unknown codes, scripts and variants are rejected")
+    void testLocale_Invalid() {
+        assertThrows(ValidationException.class, () -> registry.locale("xx_YY"));
+        assertThrows(ValidationException.class, () -> registry.locale("en_ZZ"));
+        assertThrows(ValidationException.class, () -> registry.locale("zh-Hans-CN"));
+        assertThrows(ValidationException.class, () -> registry.locale("en US"));
+        assertThrows(ValidationException.class, () -> registry.locale(""));
+    }
+
+    @Test
+    @DisplayName("✅ Cache size stays bounded")
+    void testBounded() {
+        ZoneLocaleRegistry small = new ZoneLocaleRegistry(2);
+        small.zone("UTC");
+        small.zone("Europe/Paris");
+        small.zone("Asia/Tokyo");
+        assertEquals(2, small.size());
+    }
+}